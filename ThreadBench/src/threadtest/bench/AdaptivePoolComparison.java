@@ -0,0 +1,159 @@
+package threadtest.bench;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import threadtest.pool.GracefulShutdown;
+import threadtest.pool.LatencyHistogram;
+import threadtest.pool.PoolType;
+import threadtest.pool.Workload;
+
+/*
+ * 몰렸다가 한가해지는 부하에서 고정 크기 풀들, "완전 수동" 풀( custom ), AdaptiveThreadPoolExecutor 를 비교한다.
+ *
+ *  부하 : BURST_PERIOD 마다 burst 개 작업을 한번에 넣는 구간( BUSY ) 과 아무것도 넣지 않는 구간( QUIET ) 을 두번 반복
+ *   - sleep : task1 처럼 Thread.sleep(10)
+ *   - cpu   : Workload.spin 으로 CPU 만 사용
+ *   - mixed : 위 둘을 번갈아
+ *  살아있는 쓰레드 수를 10ms 마다 재서 평균 / 최대를 내고, 처리량을 평균 쓰레드 수로 나눈 "쓰레드당 처리량" 을 같이 출력한다.
+ *  custom 은 SynchronousQueue 라 100개를 넘는 순간 거절된다. 거절 수도 출력한다.
+ *
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.AdaptivePoolComparison sleep,cpu,mixed 200
+ *           ( 세번째 인자로 비교할 풀을 고를 수 있다. 기본 custom,cached,fixed_2,fixed_max,fixed-16,fixed-64,adaptive )
+ */
+public class AdaptivePoolComparison {
+
+    static final long BURST_PERIOD_MILLIS = 100L;
+    static final long BUSY_MILLIS = 2000L;
+    static final long QUIET_MILLIS = 2000L;
+    static final int CYCLES = 2;
+    static final long SLEEP_MILLIS = 10L;
+    static final int CPU_ITERATIONS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        String loads = args.length > 0 ? args[0] : "sleep,cpu,mixed";
+        int burst = args.length > 1 ? Integer.parseInt(args[1].trim()) : 200;
+        String pools = args.length > 2 ? args[2] : "custom,cached,fixed_2,fixed_max,fixed-16,fixed-64,adaptive";
+
+        System.out.printf("%-6s %-10s %8s %8s %10s %12s %11s %11s %10s %14s%n",
+                "load", "pool", "done", "rejected", "time(ms)", "p99(ms)", "avg threads", "max threads", "tasks/s", "tasks/s/thread");
+        for (String load : loads.split(",")) {
+            for (String pool : pools.split(",")) {
+                run(load.trim(), pool.trim(), burst);
+            }
+        }
+    }
+
+    // "fixed-16" 처럼 크기를 붙이면 newFixedThreadPool(16), 나머지는 PoolType 이름
+    static ThreadPoolExecutor create(String pool) {
+        if (pool.startsWith("fixed-")) {
+            return (ThreadPoolExecutor) Executors.newFixedThreadPool(Integer.parseInt(pool.substring("fixed-".length())));
+        }
+        return (ThreadPoolExecutor) PoolType.of(pool).create();
+    }
+
+    static Runnable task(String load, int index) {
+        boolean sleep = switch (load) {
+            case "sleep" -> true;
+            case "cpu" -> false;
+            case "mixed" -> index % 2 == 0;
+            default -> throw new IllegalArgumentException("load : " + load);
+        };
+        if (sleep) {
+            return () -> {
+                try {
+                    Thread.sleep(SLEEP_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+        }
+        return () -> Workload.spin(CPU_ITERATIONS);
+    }
+
+    static void run(String load, String pool, int burst) throws InterruptedException {
+        ThreadPoolExecutor executor = create(pool);
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ThreadSampler sampler = new ThreadSampler(executor);
+        sampler.start();
+        long startNanos = System.nanoTime();
+        int index = 0;
+        for (int cycle = 0; cycle < CYCLES; cycle++) {
+            long busyEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BUSY_MILLIS);
+            while (System.nanoTime() < busyEnd) {
+                long burstStart = System.nanoTime();
+                for (int count = 0; count < burst; count++) {
+                    Runnable task = task(load, index++);
+                    long submitNanos = System.nanoTime();
+                    try {
+                        executor.execute(() -> {
+                            task.run();
+                            latency.record(System.nanoTime() - submitNanos);
+                            completed.incrementAndGet();
+                        });
+                    } catch (RejectedExecutionException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                long sleepNanos = TimeUnit.MILLISECONDS.toNanos(BURST_PERIOD_MILLIS) - (System.nanoTime() - burstStart);
+                if (sleepNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                }
+            }
+            Thread.sleep(QUIET_MILLIS);
+        }
+        // 마지막 QUIET 구간 뒤에도 밀린 작업이 남아 있으면 ( 쓰레드가 적은 풀 ) 다 끝날 때까지 기다린다.
+        while (completed.get() + rejected.get() < index) {
+            Thread.sleep(1);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        sampler.interrupt();
+        sampler.join();
+        GracefulShutdown.defaults().shutdown(pool, executor);
+
+        double seconds = elapsedNanos / 1e9;
+        double tasksPerSecond = completed.get() / seconds;
+        System.out.printf("%-6s %-10s %8d %8d %10d %12.1f %11.1f %11d %10.0f %14.1f%n",
+                load, pool, completed.get(), rejected.get(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                latency.percentile(99) / 1e6, sampler.average(), sampler.max, tasksPerSecond, tasksPerSecond / Math.max(1.0, sampler.average()));
+    }
+
+    // 풀의 쓰레드 수를 10ms 마다 잰다.
+    static final class ThreadSampler extends Thread {
+        final ThreadPoolExecutor executor;
+        long sum;
+        long samples;
+        int max;
+
+        ThreadSampler(ThreadPoolExecutor executor) {
+            super("thread-sampler");
+            this.executor = executor;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!isInterrupted()) {
+                int size = executor.getPoolSize();
+                sum += size;
+                samples++;
+                max = Math.max(max, size);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        double average() {
+            return samples == 0 ? 0 : (double) sum / samples;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package threadtest.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import threadtest.worker.AlertBatcher;
+import threadtest.worker.DeliveryDelayAlerts;
+import threadtest.worker.StubSmartCaller;
+
+/*
+ * XFDeliveryDelayListWorker 의 행 단위 전송 ( sendAlertsAsync ) 과 묶음 전송 ( sendAlertsBatched ) 비교
+ *  - 풀은 예제와 같이 newFixedThreadPool(10)
+ *  - StubSmartCaller : 원격 호출 1번에 CALL_LATENCY_MICROS, 알림 1건당 PER_ALERT_MICROS
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.AlertBatchComparison 20000
+ */
+public class AlertBatchComparison {
+
+    static final long CALL_LATENCY_MICROS = 2_000L;
+    static final long PER_ALERT_MICROS = 10L;
+    static final int MAX_BATCH_SIZE = 200;
+    static final long LINGER_MILLIS = 5L;
+
+    public static void main(String[] args) throws Exception {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        List<Map<String, Object>> rows = rows(rowCount);
+
+        System.out.printf("%-8s %8s %8s %12s %10s %12s%n", "mode", "rows", "alerts", "remote calls", "time(ms)", "alerts/s");
+        for (int round = 0; round < 3; round++) {
+            perRow(rows);
+            batched(rows);
+        }
+    }
+
+    static void perRow(List<Map<String, Object>> rows) throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        StubSmartCaller smartCaller = new StubSmartCaller(CALL_LATENCY_MICROS, PER_ALERT_MICROS);
+        long start = System.nanoTime();
+        DeliveryDelayAlerts.sendAlertsAsync(rows, "3일이 지난 발송 실패 문서들이 존재합니다. 확인 바랍니다.", smartCaller, executorService).join();
+        print("perRow", rows.size(), smartCaller, start);
+        shutdown(executorService);
+    }
+
+    static void batched(List<Map<String, Object>> rows) throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        StubSmartCaller smartCaller = new StubSmartCaller(CALL_LATENCY_MICROS, PER_ALERT_MICROS);
+        long start = System.nanoTime();
+        try (AlertBatcher batcher = new AlertBatcher(smartCaller, MAX_BATCH_SIZE, LINGER_MILLIS, executorService)) {
+            DeliveryDelayAlerts.sendAlertsBatched(rows, "3일이 지난 발송 실패 문서들이 존재합니다. 확인 바랍니다.", batcher).join();
+        }
+        print("batched", rows.size(), smartCaller, start);
+        shutdown(executorService);
+    }
+
+    static List<Map<String, Object>> rows(int rowCount) {
+        List<Map<String, Object>> rows = new ArrayList<>(rowCount);
+        for (int index = 0; index < rowCount; index++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("docid", "DOC" + index);
+            row.put("user_id", "user" + (index % 5_000));
+            row.put("title", "지연 문서 제목 " + index);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static void print(String mode, int rowCount, StubSmartCaller smartCaller, long start) {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.printf("%-8s %8d %8d %12d %10d %12.0f%n", mode, rowCount, smartCaller.getAlertCount(),
+                smartCaller.getCallCount(), elapsedMillis, smartCaller.getAlertCount() * 1000.0 / Math.max(1, elapsedMillis));
+    }
+
+    static void shutdown(ExecutorService executorService) throws InterruptedException {
+        executorService.shutdown();
+        if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
+            executorService.shutdownNow();
+        }
+    }
+}
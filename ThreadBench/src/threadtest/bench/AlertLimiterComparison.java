@@ -0,0 +1,82 @@
+package threadtest.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import threadtest.limit.AimdLimiter;
+import threadtest.limit.Backoff;
+import threadtest.limit.TokenBucket;
+import threadtest.worker.DegradingSmartCaller;
+import threadtest.worker.DeliveryDelayAlerts;
+import threadtest.worker.ISmartCaller;
+import threadtest.worker.InMemoryDelayListSource;
+import threadtest.worker.LimitedSmartCaller;
+
+/*
+ * 알림 서비스가 몰리면 느려질 때 ( DegradingSmartCaller ) sendAlertsAsync 의 처리량 비교
+ *  서비스는 동시 CAPACITY 건까지 LATENCY 만에 처리하고, 넘으면 느려지다가 TIMEOUT 을 넘으면 실패한다.
+ *  phase 1 은 capacity 4, phase 2 는 도중에 서비스가 나빠진 상황으로 capacity 2 ( limiter 는 이어서 쓴다 )
+ *  - unlimited : 주석 예제 그대로. 풀 쓰레드 10개가 그대로 두드린다.
+ *  - retry     : 실패하면 backoff 후 재시도만 추가 ( 동시 호출 제한 없음 )
+ *  - limited   : LimitedSmartCaller ( TokenBucket + AimdLimiter + backoff 재시도 )
+ *  출력
+ *   - goodput : 초당 성공한 알림 수 ( peak = capacity / latency 가 이론상 최대 )
+ *   - calls   : 서비스가 받은 호출 수 ( 재시도 포함 ), timeouts : 서비스에서 타임아웃 난 호출
+ *   - lost    : 끝내 못 보낸 알림 ( catch 에서 로그만 남고 사라지는 것 )
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.AlertLimiterComparison
+ */
+public class AlertLimiterComparison {
+
+    static final int ALERTS = 1_000;
+    static final long LATENCY_MICROS = 5_000L;
+    static final long TIMEOUT_MICROS = 20_000L;
+    static final int[] CAPACITIES = { 4, 2 };
+    static final String MESSAGE = "3일이 지난 발송 실패 문서들이 존재합니다. 확인 바랍니다.";
+
+    public static void main(String[] args) throws Exception {
+        // 실패마다 남는 severe 로그는 측정 출력과 섞이지 않게 끈다.
+        Logger.getLogger("batch").setLevel(Level.OFF);
+        List<Map<String, Object>> rows = new InMemoryDelayListSource("fail", ALERTS, 200, 0L).searchAll();
+        System.out.printf("%-10s %5s %9s %13s %8s %7s %8s %7s  %s%n", "mode", "phase", "time(ms)", "goodput(/s)", "peak(/s)", "calls", "timeouts", "lost", "limiter");
+        run("unlimited", rows, stub -> stub);
+        run("retry", rows, stub -> new LimitedSmartCaller(stub, new TokenBucket(1_000_000, 1_000), new AimdLimiter(10, 10, 10), backoff()));
+        run("limited", rows, stub -> new LimitedSmartCaller(stub, new TokenBucket(2_000, 20), new AimdLimiter(10, 1, 50), backoff()));
+    }
+
+    static Backoff backoff() {
+        return new Backoff(5, 100, TimeUnit.MILLISECONDS, 4);
+    }
+
+    interface Wrapper {
+        ISmartCaller wrap(DegradingSmartCaller stub);
+    }
+
+    static void run(String mode, List<Map<String, Object>> rows, Wrapper wrapper) throws Exception {
+        DegradingSmartCaller stub = new DegradingSmartCaller(CAPACITIES[0], LATENCY_MICROS, TIMEOUT_MICROS);
+        ISmartCaller smartCaller = wrapper.wrap(stub);
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        try {
+            for (int phase = 0; phase < CAPACITIES.length; phase++) {
+                stub.setCapacity(CAPACITIES[phase]);
+                long calls = stub.getCallCount();
+                long succeeded = stub.getSucceededCount();
+                long timeouts = stub.getTimedOutCount();
+                long start = System.nanoTime();
+                DeliveryDelayAlerts.sendAlertsAsync(rows, MESSAGE, smartCaller, executorService).join();
+                long elapsed = System.nanoTime() - start;
+                long ok = stub.getSucceededCount() - succeeded;
+                System.out.printf("%-10s %5d %9d %13.0f %8.0f %7d %8d %7d  %s%n", mode, phase + 1, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        ok * 1e9 / elapsed, CAPACITIES[phase] * 1e6 / LATENCY_MICROS, stub.getCallCount() - calls, stub.getTimedOutCount() - timeouts,
+                        rows.size() - ok, smartCaller instanceof LimitedSmartCaller limited ? limited.getLimiter().toString() : "-");
+            }
+        } finally {
+            executorService.shutdown();
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package threadtest.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import threadtest.fanout.BoundedSubmitter;
+
+/*
+ * taskList 전체를 한번에 submit 하는 방식 ( ThreadTest.main 주석 / FanOutWorker ) 과
+ * BoundedSubmitter ( in-flight 64 ) 의 최대 heap 사용량과 소요 시간을 비교한다.
+ *
+ *  작업은 느린 날씨 API 를 흉내내서 1ms sleep 후 HashMap 을 돌려준다.
+ *  heap 은 별도 쓰레드가 주기적으로 GC 후 사용량을 재서 그 중 최대값을 출력한다. ( 살아있는 객체 기준 )
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.BoundedSubmitComparison 20000,100000
+ */
+public class BoundedSubmitComparison {
+
+    static final int POOL_SIZE = 32;
+    static final int MAX_IN_FLIGHT = 64;
+
+    public static void main(String[] args) throws Exception {
+        String counts = args.length > 0 ? args[0] : "20000,100000";
+        System.out.printf("%-10s %10s %16s %10s%n", "mode", "tasks", "peak heap(KB)", "time(ms)");
+        for (String count : counts.split(",")) {
+            int taskCount = Integer.parseInt(count.trim());
+            measure("submitAll", taskCount, () -> submitAll(taskCount));
+            measure("bounded", taskCount, () -> bounded(taskCount));
+        }
+    }
+
+    static long submitAll(int taskCount) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(POOL_SIZE);
+        try {
+            ArrayList<Future<HashMap<String, String>>> futureList = new ArrayList<>();
+            Iterator<Callable<HashMap<String, String>>> tasks = weatherTasks(taskCount);
+            while (tasks.hasNext()) {
+                futureList.add(executorService.submit(tasks.next()));
+            }
+            long received = 0;
+            for (Future<HashMap<String, String>> returnMap : futureList) {
+                if (returnMap.get() != null) {
+                    received++;
+                }
+            }
+            return received;
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    static long bounded(int taskCount) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(POOL_SIZE);
+        try {
+            AtomicLong received = new AtomicLong();
+            BoundedSubmitter<HashMap<String, String>> submitter =
+                    new BoundedSubmitter<>(executorService, MAX_IN_FLIGHT, BoundedSubmitter.Policy.BLOCK);
+            submitter.submitAll(weatherTasks(taskCount), weatherMap -> received.incrementAndGet());
+            return received.get();
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    static Iterator<Callable<HashMap<String, String>>> weatherTasks(int taskCount) {
+        return new Iterator<Callable<HashMap<String, String>>>() {
+            int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < taskCount;
+            }
+
+            @Override
+            public Callable<HashMap<String, String>> next() {
+                String key = "city-" + index++;
+                return () -> {
+                    Thread.sleep(1);
+                    HashMap<String, String> weatherMap = new HashMap<>();
+                    weatherMap.put("key", key);
+                    weatherMap.put("weather", "sunny");
+                    weatherMap.put("temperature", "21.5");
+                    return weatherMap;
+                };
+            }
+        };
+    }
+
+    interface Run {
+        long run() throws Exception;
+    }
+
+    static void measure(String mode, int taskCount, Run run) throws Exception {
+        long received;
+        long elapsedMillis;
+        long peakBytes;
+        try (HeapSampler sampler = HeapSampler.start()) {
+            long start = System.nanoTime();
+            received = run.run();
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            peakBytes = sampler.getPeakBytes();
+        }
+
+        if (received != taskCount) {
+            throw new IllegalStateException(mode + " 결과 수가 맞지 않습니다. : " + received);
+        }
+        System.out.printf("%-10s %10d %16d %10d%n", mode, taskCount, peakBytes / 1024, elapsedMillis);
+    }
+}
@@ -0,0 +1,85 @@
+package threadtest.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import threadtest.fanout.CompletionFanOutWorker;
+import threadtest.fanout.FanOutWorker;
+import threadtest.pool.PoolType;
+
+/*
+ * 작업 시간이 한쪽으로 치우쳤을 때 ( 첫번째 API 만 아주 느림 ) submit 순서로 get() 하는 FanOutWorker 와
+ * 끝난 순서로 받는 CompletionFanOutWorker 의 첫 결과까지 시간 / 전체 시간을 비교한다.
+ *
+ *  - 작업 i 는 5 ~ 20ms 걸리고, 0번 작업만 SLOW_MILLIS 가 걸린다.
+ *  - 결과 하나를 처리하는데 호출 쓰레드에서 PROCESS_MILLIS 가 걸린다고 가정한다. ( resultMap 후처리 )
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.CompletionOrderComparison
+ */
+public class CompletionOrderComparison {
+
+    static final int TASK_COUNT = 50;
+    static final long SLOW_MILLIS = 300L;
+    static final long PROCESS_MILLIS = 3L;
+    static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-12s %18s %14s%n", "mode", "first result(ms)", "total(ms)");
+        for (int round = 0; round < ROUNDS; round++) {
+            measure("submitOrder", (taskList, timer) -> new FanOutWorker(PoolType.CACHED).run(taskList, timer::onEach));
+            measure("completion", (taskList, timer) -> new CompletionFanOutWorker(PoolType.CACHED).run(taskList, timer::onEach));
+        }
+    }
+
+    interface Run {
+        void run(List<Callable<HashMap<String, String>>> taskList, Timer timer) throws Exception;
+    }
+
+    static class Timer {
+        final long start = System.nanoTime();
+        long firstResult = -1;
+
+        void onEach(HashMap<String, String> weatherMap) {
+            if (firstResult < 0) {
+                firstResult = System.nanoTime();
+            }
+            sleep(PROCESS_MILLIS);
+        }
+    }
+
+    static void measure(String mode, Run run) throws Exception {
+        List<Callable<HashMap<String, String>>> taskList = skewedTasks();
+        Timer timer = new Timer();
+        run.run(taskList, timer);
+        long end = System.nanoTime();
+        System.out.printf("%-12s %18d %14d%n", mode,
+                TimeUnit.NANOSECONDS.toMillis(timer.firstResult - timer.start),
+                TimeUnit.NANOSECONDS.toMillis(end - timer.start));
+    }
+
+    static List<Callable<HashMap<String, String>>> skewedTasks() {
+        List<Callable<HashMap<String, String>>> taskList = new ArrayList<>();
+        for (int index = 0; index < TASK_COUNT; index++) {
+            String key = "city-" + index;
+            long millis = index == 0 ? SLOW_MILLIS : 5 + (index * 7) % 16;
+            taskList.add(() -> {
+                sleep(millis);
+                HashMap<String, String> weatherMap = new HashMap<>();
+                weatherMap.put("key", key);
+                weatherMap.put("weather", "sunny");
+                return weatherMap;
+            });
+        }
+        return taskList;
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
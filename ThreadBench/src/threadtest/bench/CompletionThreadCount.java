@@ -0,0 +1,95 @@
+package threadtest.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import threadtest.async.Completions;
+
+/*
+ * 결과를 기다리는 방식에 따라 살아있는 쓰레드 수가 어떻게 변하는지 비교한다.
+ *
+ *  watcher  : ThreadTest.main 의 예전 방식. Future 하나마다 cached 풀 쓰레드가 get() 에서 블록된다.
+ *  callback : Completions.onComplete 로 콜백만 등록한다.
+ *
+ *  작업 자체는 쓰레드 1개짜리 스케줄러가 DELAY 뒤에 완료시키므로, 쓰레드 수 차이는 "기다리는 쪽" 에서만 생긴다.
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.CompletionThreadCount 100,1000,5000
+ */
+public class CompletionThreadCount {
+
+    static final long DELAY_MILLIS = 500L;
+
+    public static void main(String[] args) throws Exception {
+        String counts = args.length > 0 ? args[0] : "100,1000,5000";
+        System.out.printf("%-10s %10s %14s %14s%n", "mode", "pending", "threads(base)", "threads(peak)");
+        for (String count : counts.split(",")) {
+            int pending = Integer.parseInt(count.trim());
+            watcher(pending);
+            callback(pending);
+        }
+    }
+
+    static void watcher(int pending) throws InterruptedException {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService executorService = Executors.newCachedThreadPool();
+        CountDownLatch done = new CountDownLatch(pending);
+        int base = liveThreads();
+
+        for (int index = 0; index < pending; index++) {
+            Future<Boolean> returnBoolean = scheduler.schedule(() -> true, DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            executorService.execute(() -> {
+                try {
+                    returnBoolean.get();
+                } catch (Exception e) {
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        int peak = liveThreads();
+        done.await();
+
+        print("watcher", pending, base, peak);
+        shutdown(executorService);
+        shutdown(scheduler);
+    }
+
+    static void callback(int pending) throws InterruptedException {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        CountDownLatch done = new CountDownLatch(pending);
+        int base = liveThreads();
+
+        for (int index = 0; index < pending; index++) {
+            CompletableFuture<Boolean> returnBoolean = new CompletableFuture<>();
+            scheduler.schedule(() -> returnBoolean.complete(true), DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            Completions.onComplete(returnBoolean, isFinish -> done.countDown(), e -> done.countDown());
+        }
+        int peak = liveThreads();
+        done.await();
+
+        print("callback", pending, base, peak);
+        shutdown(scheduler);
+    }
+
+    static int liveThreads() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        return threadMXBean.getThreadCount();
+    }
+
+    static void print(String mode, int pending, int base, int peak) {
+        System.out.printf("%-10s %10d %14d %14d%n", mode, pending, base, peak);
+    }
+
+    static void shutdown(ExecutorService executorService) throws InterruptedException {
+        executorService.shutdown();
+        if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package threadtest.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import threadtest.log.AsyncConsole;
+
+/*
+ * 여러 쓰레드가 동시에 한 줄씩 찍을 때 PrintStream.println 과 AsyncConsole 비교 ( 쓰는 쓰레드 1 / 8 / 64 )
+ *  - thrpt : 초당 찍은 줄 수 ( 모든 쓰레드 합계 )
+ *  - avgt  : println 한번 호출에 호출 쓰레드가 멈춰 있던 시간
+ *  실제 콘솔 대신 버리는 스트림에 쓰므로 락 / 큐 비용만 남는다.
+ *  실행 예 : java -jar ThreadBench/target/benchmarks.jar ConsoleSinkBenchmark
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@State(Scope.Benchmark)
+public class ConsoleSinkBenchmark {
+
+    PrintStream printStream;
+    AsyncConsole asyncConsole;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        printStream = new PrintStream(OutputStream.nullOutputStream(), false);
+        asyncConsole = new AsyncConsole(new PrintStream(OutputStream.nullOutputStream(), false), 64 * 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        asyncConsole.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void printStream_1() {
+        printStream.println("working");
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void printStream_8() {
+        printStream.println("working");
+    }
+
+    @Benchmark
+    @Threads(64)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void printStream_64() {
+        printStream.println("working");
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void asyncConsole_1() {
+        asyncConsole.write("working");
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void asyncConsole_8() {
+        asyncConsole.write("working");
+    }
+
+    @Benchmark
+    @Threads(64)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void asyncConsole_64() {
+        asyncConsole.write("working");
+    }
+}
@@ -0,0 +1,105 @@
+package threadtest.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import threadtest.async.Hedger;
+import threadtest.pool.LatencyHistogram;
+import threadtest.shop.Bulkhead;
+import threadtest.shop.DiscountService;
+import threadtest.shop.Latency;
+import threadtest.shop.PartialPrices;
+import threadtest.shop.PriceFinder;
+import threadtest.shop.Shop;
+
+/*
+ * 가끔 아주 느린 상점이 있을 때 findPrices 의 요청 지연 비교
+ *
+ *  - 상점 SHOPS 개, 조회는 보통 20 ~ 40ms 이고 TAIL_RATIO 확률로 TAIL_MILLIS 가 걸린다. ( 다른 복제본으로 다시 보내면 새로 뽑힘 )
+ *    상점이 20개면 요청 하나가 느린 상점을 하나 이상 만날 확률이 1 - 0.97^20 = 46% 라서 join-all 은 요청의 절반 가까이가 TAIL_MILLIS 를 기다린다.
+ *  - joinAll   : findPrices ( 가장 느린 상점까지 기다림 )
+ *  - deadline  : findPricesWithin ( 상점별 PER_SHOP_MILLIS, 전체 DEADLINE_MILLIS ). 늦은 상점은 빼고 돌려준다.
+ *  - hedged    : 상점 조회가 p95 안에 안 끝나면 한번 더 보낸다. ( 모든 상점 답을 받음 )
+ *  - hedged+deadline : 둘 다
+ *  출력 : 요청 지연 p50 / p99 / max, 모든 상점 답을 받은 요청 비율, 요청당 빠진 상점 수, 상점 호출이 늘어난 비율
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.DeadlineHedgeComparison
+ */
+public class DeadlineHedgeComparison {
+
+    static final int SHOPS = 20;
+    static final int REQUESTS = 400;
+    static final int CLIENTS = 4;
+    static final double TAIL_RATIO = 0.03;
+    static final long TAIL_MILLIS = 500L;
+    static final long PER_SHOP_MILLIS = 100L;
+    static final long DEADLINE_MILLIS = 150L;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-16s %16s %10s %12s %14s%n", "mode", "p50/p99/max(ms)", "complete", "missing/req", "extra calls");
+        run("joinAll", false, false);
+        run("deadline", false, true);
+        run("hedged", true, false);
+        run("hedged+deadline", true, true);
+    }
+
+    static void run(String mode, boolean hedge, boolean deadline) throws Exception {
+        LongAdder shopCalls = new LongAdder();
+        Latency latency = Latency.withTail(Latency.uniform(20L, 40L), TAIL_RATIO, TAIL_MILLIS);
+        List<Shop> shops = new ArrayList<>();
+        for (int index = 0; index < SHOPS; index++) {
+            shops.add(new Shop("Shop-" + index, latency) {
+                @Override
+                public String getPrice(String product) {
+                    shopCalls.increment();
+                    return super.getPrice(product);
+                }
+            });
+        }
+        LatencyHistogram requestLatency = new LatencyHistogram();
+        LongAdder complete = new LongAdder();
+        LongAdder missing = new LongAdder();
+        Hedger hedger = new Hedger(60L, TimeUnit.MILLISECONDS);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try (Bulkhead shopStage = new Bulkhead("shop", 256); Bulkhead discountStage = new Bulkhead("discount", 64)) {
+            PriceFinder plain = PriceFinder.bulkheaded(shops, new DiscountService(Latency.fixed(5L)), shopStage, discountStage);
+            PriceFinder finder = hedge ? plain.hedged(hedger) : plain;
+            List<Future<?>> requests = new ArrayList<>();
+            for (int request = 0; request < REQUESTS; request++) {
+                String product = "product-" + request;
+                requests.add(clients.submit(() -> {
+                    long startNanos = System.nanoTime();
+                    if (deadline) {
+                        PartialPrices prices = finder.findPricesWithin(product, PER_SHOP_MILLIS, DEADLINE_MILLIS, TimeUnit.MILLISECONDS);
+                        missing.add(prices.missingShops().size());
+                        if (prices.isComplete()) {
+                            complete.increment();
+                        }
+                    } else {
+                        finder.findPrices(product);
+                        complete.increment();
+                    }
+                    requestLatency.record(System.nanoTime() - startNanos);
+                }));
+            }
+            for (Future<?> request : requests) {
+                request.get();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        long shopRequests = (long) REQUESTS * SHOPS;
+        System.out.printf("%-16s %16s %9.1f%% %12.2f %13.1f%%%s%n", mode,
+                millis(requestLatency.percentile(50)) + "/" + millis(requestLatency.percentile(99)) + "/" + millis(requestLatency.percentile(100)),
+                complete.sum() * 100.0 / REQUESTS, (double) missing.sum() / REQUESTS,
+                (shopCalls.sum() - shopRequests) * 100.0 / shopRequests, hedge ? "  " + hedger : "");
+    }
+
+    static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
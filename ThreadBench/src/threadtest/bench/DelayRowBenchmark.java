@@ -0,0 +1,126 @@
+package threadtest.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import threadtest.worker.DelayRow;
+
+/*
+ * HashMap<String, Object> 행과 DelayRow record 행 비교 ( 1,000,000 행 )
+ *  - createMapRows / createRecordRows : 행 컨테이너만 만드는 비용. 값 문자열은 미리 만들어 둔 것을 공유한다.
+ *      -prof gc 의 gc.alloc.rate.norm 이 곧 "행 1개당 할당 바이트"
+ *  - mapLookup / recordLookup : user_id, title, docid 를 읽는 비용
+ *  - mapToRecord : DelayRow.from 변환 비용
+ *  실행 예 : java -jar ThreadBench/target/benchmarks.jar DelayRowBenchmark -prof gc
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class DelayRowBenchmark {
+
+    static final int ROWS = 1_000_000;
+    static final int VALUES = 1_000;
+
+    String[] docids;
+    String[] userIds;
+    String[] userKids;
+    String[] userNames;
+    String[] titles;
+
+    List<Map<String, Object>> mapRows;
+    List<DelayRow> recordRows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        docids = new String[VALUES];
+        userIds = new String[VALUES];
+        userKids = new String[VALUES];
+        userNames = new String[VALUES];
+        titles = new String[VALUES];
+        for (int index = 0; index < VALUES; index++) {
+            docids[index] = "DOC" + index;
+            userIds[index] = "user" + index;
+            userKids[index] = "K" + index;
+            userNames[index] = "사용자" + index;
+            titles[index] = "지연 문서 제목 " + index;
+        }
+        mapRows = createMapRows();
+        recordRows = createRecordRows();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Map<String, Object>> createMapRows() {
+        List<Map<String, Object>> rows = new ArrayList<>(ROWS);
+        for (int index = 0; index < ROWS; index++) {
+            int value = index % VALUES;
+            Map<String, Object> row = new HashMap<>();
+            row.put("docid", docids[value]);
+            row.put("user_id", userIds[value]);
+            row.put("user_kid", userKids[value]);
+            row.put("user_name", userNames[value]);
+            row.put("title", titles[value]);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<DelayRow> createRecordRows() {
+        List<DelayRow> rows = new ArrayList<>(ROWS);
+        for (int index = 0; index < ROWS; index++) {
+            int value = index % VALUES;
+            rows.add(new DelayRow(docids[value], userIds[value], userKids[value], userNames[value], titles[value]));
+        }
+        return rows;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long mapLookup() {
+        long sum = 0;
+        for (Map<String, Object> map : mapRows) {
+            String userId = (String) map.get("user_id");
+            String title = (String) map.get("title");
+            String docid = (String) map.get("docid");
+            sum += userId.length() + title.length() + docid.length();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long recordLookup() {
+        long sum = 0;
+        for (DelayRow row : recordRows) {
+            sum += row.userId().length() + row.title().length() + row.docid().length();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<DelayRow> mapToRecord() {
+        return DelayRow.fromMaps(mapRows);
+    }
+}
@@ -0,0 +1,123 @@
+package threadtest.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import threadtest.pool.CountingThreadFactory;
+import threadtest.pool.PoolType;
+import threadtest.pool.Workload;
+
+/*
+ * ThreadTest.java 의 5가지 쓰레드 풀 (+ 가상 쓰레드) 에 task1 / task2 모양의 작업(CPU, SLEEP, MIXED)을 넣어 비교한다.
+ *
+ *  - batch  : BATCH 개를 한번에 submit 후 전부 get() ( ThreadTest 의 futureList 패턴 ). 처리량 tasks/s
+ *  - single : 여러 호출 쓰레드가 작업 하나씩 submit().get(). 작업 1건의 p50 / p99 지연 시간
+ *  - threadsCreated : 측정 구간 동안 풀이 새로 만든 쓰레드 수 (AuxCounters)
+ *
+ *  실행 예 : java -jar ThreadBench/target/benchmarks.jar ExecutorBenchmark -p pool=CACHED,FIXED_MAX
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ExecutorBenchmark {
+
+    // CUSTOM 풀은 SynchronousQueue + 최대 100 쓰레드라서 한번에 100개를 넘기면 거절된다.
+    static final int BATCH = 64;
+
+    @State(Scope.Benchmark)
+    public static class PoolState {
+
+        @Param({ "CACHED", "FIXED_2", "FIXED_MAX", "CUSTOM", "SINGLE", "VIRTUAL" })
+        public PoolType pool;
+
+        @Param({ "CPU", "SLEEP", "MIXED" })
+        public Workload workload;
+
+        ExecutorService executorService;
+        CountingThreadFactory threadFactory;
+        long createdAtIterationStart;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            threadFactory = new CountingThreadFactory(pool.name().toLowerCase(), pool.baseThreadFactory());
+            executorService = pool.create(threadFactory);
+        }
+
+        @Setup(Level.Iteration)
+        public void markIteration() {
+            createdAtIterationStart = threadFactory.getCreatedCount();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            executorService.shutdown();
+            if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        }
+
+        long createdInIteration() {
+            return threadFactory.getCreatedCount() - createdAtIterationStart;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ThreadCounters {
+
+        public long threadsCreated;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            threadsCreated = 0;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    @Threads(1)
+    public long batch(PoolState state, ThreadCounters counters) throws Exception {
+        Workload workload = state.workload;
+        List<Future<Long>> futureList = new ArrayList<>(BATCH);
+        for (int index = 0; index < BATCH; index++) {
+            futureList.add(state.executorService.submit(workload::run));
+        }
+        long sum = 0;
+        for (Future<Long> future : futureList) {
+            sum += future.get();
+        }
+        counters.threadsCreated = state.createdInIteration();
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Threads(8)
+    public long single(PoolState state) throws Exception {
+        Workload workload = state.workload;
+        return state.executorService.submit(workload::run).get();
+    }
+}
@@ -0,0 +1,105 @@
+package threadtest.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import threadtest.pool.LatencyHistogram;
+import threadtest.shop.Bulkhead;
+import threadtest.shop.DiscountService;
+import threadtest.shop.Latency;
+import threadtest.shop.PriceFinder;
+import threadtest.shop.Shop;
+
+/*
+ * findPrices 를 쓰레드 풀 하나( shared ) 로 돌릴 때와 의존성별 Bulkhead 로 돌릴 때 비교 ( 상점 5 / 500 / 5000 )
+ *
+ *  - 상점 조회 : 10 ~ 30ms
+ *  - 할인 서비스 : 20ms, 동시 호출 DISCOUNT_CAPACITY 개를 넘으면 급격히 느려진다. ( DiscountService capacity 참고 )
+ *  - shared     : 쓰레드 TOTAL_THREADS 개를 두 단계가 같이 쓴다. 할인 호출이 쓰레드를 잡고 있는 동안 상점 조회가 밀리고
+ *                 할인 서비스에는 capacity 를 넘는 호출이 한꺼번에 들어간다.
+ *  - bulkheaded : 같은 쓰레드 수를 상점 조회 / 할인으로 나눈다. 할인 쪽은 capacity 만큼만 보낸다.
+ *  출력 : 전체 시간, 처리량, 견적( 1단계 ) 완료 시각 p50 / p99, 최종 가격 완료 시각 p50 / p99 ( 모두 시작 시점 기준 )
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.FindPricesComparison 5,500,5000
+ */
+public class FindPricesComparison {
+
+    static final int TOTAL_THREADS = 64;
+    static final int DISCOUNT_CAPACITY = 16;
+    static final String PRODUCT = "myPhone27S";
+
+    public static void main(String[] args) throws Exception {
+        String counts = args.length > 0 ? args[0] : "5,500,5000";
+        // 처음 한번은 JIT / 쓰레드 생성 비용이 섞이므로 버린다.
+        run("shared", 50, false);
+        run("bulkheaded", 50, false);
+        System.out.printf("%-11s %6s %10s %10s %16s %16s%n", "mode", "shops", "time(ms)", "prices/s", "quote p50/p99", "price p50/p99");
+        for (String count : counts.split(",")) {
+            int shopCount = Integer.parseInt(count.trim());
+            run("shared", shopCount, true);
+            run("bulkheaded", shopCount, true);
+        }
+    }
+
+    // getPrice 가 끝난 시각을 기록하는 상점
+    static final class TimedShop extends Shop {
+        final LatencyHistogram quoteDone;
+        final long startNanos;
+
+        TimedShop(String name, Latency latency, LatencyHistogram quoteDone, long startNanos) {
+            super(name, latency);
+            this.quoteDone = quoteDone;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public String getPrice(String product) {
+            String price = super.getPrice(product);
+            quoteDone.record(System.nanoTime() - startNanos);
+            return price;
+        }
+    }
+
+    static void run(String mode, int shopCount, boolean print) {
+        LatencyHistogram quoteDone = new LatencyHistogram();
+        LatencyHistogram priceDone = new LatencyHistogram();
+        DiscountService discountService = new DiscountService(Latency.fixed(20L), DISCOUNT_CAPACITY);
+        List<Bulkhead> bulkheads = new ArrayList<>();
+        PriceFinder finder;
+        long startNanos = System.nanoTime();
+        List<Shop> shops = new ArrayList<>(shopCount);
+        for (int index = 0; index < shopCount; index++) {
+            shops.add(new TimedShop("Shop-" + index, Latency.uniform(10L, 30L), quoteDone, startNanos));
+        }
+        if (mode.equals("shared")) {
+            Bulkhead shared = new Bulkhead("shared", TOTAL_THREADS);
+            bulkheads.add(shared);
+            finder = PriceFinder.shared(shops, discountService, shared);
+        } else {
+            Bulkhead shopStage = new Bulkhead("shop", TOTAL_THREADS - DISCOUNT_CAPACITY);
+            Bulkhead discountStage = new Bulkhead("discount", DISCOUNT_CAPACITY);
+            bulkheads.add(shopStage);
+            bulkheads.add(discountStage);
+            finder = PriceFinder.bulkheaded(shops, discountService, shopStage, discountStage);
+        }
+
+        List<CompletableFuture<String>> prices = new ArrayList<>();
+        for (CompletableFuture<String> price : finder.findPricesAsync(PRODUCT)) {
+            prices.add(price.whenComplete((value, error) -> priceDone.record(System.nanoTime() - startNanos)));
+        }
+        long failed = prices.stream().map(CompletableFuture::join).filter(value -> value.contains("실패")).count();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        bulkheads.forEach(Bulkhead::close);
+        if (!print) {
+            return;
+        }
+
+        System.out.printf("%-11s %6d %10d %10.0f %16s %16s%s%n", mode, shopCount, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                shopCount / (elapsedNanos / 1e9), millis(quoteDone), millis(priceDone), failed > 0 ? "  failed=" + failed : "");
+    }
+
+    static String millis(LatencyHistogram histogram) {
+        return TimeUnit.NANOSECONDS.toMillis(histogram.percentile(50)) + "/" + TimeUnit.NANOSECONDS.toMillis(histogram.percentile(99));
+    }
+}
@@ -0,0 +1,52 @@
+package threadtest.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * 측정 중에 별도 쓰레드가 주기적으로 GC 후 heap 사용량을 재서 최대값을 기록한다. ( 살아있는 객체 기준 )
+ *  try (HeapSampler sampler = HeapSampler.start()) { ... } 후 sampler.getPeakBytes()
+ */
+class HeapSampler implements AutoCloseable {
+
+    private final long base;
+    private final AtomicLong peak = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private HeapSampler() {
+        System.gc();
+        base = usedHeap();
+        thread = new Thread(() -> {
+            while (running) {
+                System.gc();
+                peak.accumulateAndGet(usedHeap() - base, Math::max);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "heap-sampler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    static HeapSampler start() {
+        return new HeapSampler();
+    }
+
+    long getPeakBytes() {
+        return Math.max(0, peak.get());
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        thread.join();
+    }
+
+    static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
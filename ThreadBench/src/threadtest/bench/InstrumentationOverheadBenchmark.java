@@ -0,0 +1,83 @@
+package threadtest.bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import threadtest.pool.GracefulShutdown;
+import threadtest.pool.InstrumentedThreadPoolExecutor;
+import threadtest.pool.Workload;
+
+/*
+ * InstrumentedThreadPoolExecutor 의 지표 기록 비용
+ *  같은 설정 ( 4 쓰레드 + LinkedBlockingQueue ) 의 일반 ThreadPoolExecutor 와 아주 짧은 작업 BATCH 개를 처리하는 시간을 비교한다.
+ *  작업이 짧을수록 기록 비용 ( nanoTime 2번 + 히스토그램 2번 ) 이 크게 보이므로 가장 불리한 조건이다.
+ *  실행 예 : java -jar ThreadBench/target/benchmarks.jar InstrumentationOverheadBenchmark
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class InstrumentationOverheadBenchmark {
+
+    static final int BATCH = 1_000;
+
+    // 작업 1개의 CPU 반복 횟수 ( 0 이면 빈 작업 )
+    @Param({ "0", "1000" })
+    public int work;
+
+    @Param({ "plain", "instrumented" })
+    public String executor;
+
+    ThreadPoolExecutor threadPoolExecutor;
+    // 작업 결과를 모아서 JIT 가 Workload.spin 을 지우지 못하게 한다. ( 작업은 풀 쓰레드에서 돌아서 Blackhole 대신 LongAdder )
+    final LongAdder sink = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (executor.equals("plain")) {
+            threadPoolExecutor = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        } else {
+            threadPoolExecutor = new InstrumentedThreadPoolExecutor("bench", 4, 4, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        GracefulShutdown.defaults().shutdown("bench", threadPoolExecutor);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long batch() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(BATCH);
+        int iterations = work;
+        for (int index = 0; index < BATCH; index++) {
+            threadPoolExecutor.execute(() -> {
+                sink.add(Workload.spin(iterations));
+                done.countDown();
+            });
+        }
+        done.await();
+        return sink.sum();
+    }
+}
@@ -0,0 +1,150 @@
+package threadtest.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import threadtest.lock.FileLockStore;
+import threadtest.lock.InMemoryLockStore;
+import threadtest.lock.JobLockService;
+import threadtest.lock.LockStore;
+
+/*
+ * JobLockService 동작 확인
+ *  1. race      : 두 스케줄러가 동시에 tryLock 을 ROUNDS 번 시도 → 매번 정확히 하나만 잡아야 한다.
+ *  2. heartbeat : 락을 ttl 의 3배 동안 잡고 있어도 갱신되므로 다른 스케줄러가 잡지 못한다.
+ *  3. crash     : 락을 잡은 실행이 풀지 않고 죽으면 ttl 뒤에 다른 실행이 더 큰 token 으로 잡는다.
+ *  4. fencing   : 락을 잃은 이전 실행이 늦게 쓰려고 하면 token 비교로 거절된다.
+ *  InMemoryLockStore, FileLockStore 둘 다 확인한다. 실패하면 IllegalStateException 으로 끝난다.
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.JobLockDemo
+ */
+public class JobLockDemo {
+
+    static final String JOB = "XFDeliveryDelayListWorker";
+    static final long TTL_MILLIS = 300L;
+    static final int ROUNDS = 200;
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("job-lock");
+        run("memory", new InMemoryLockStore());
+        run("file", new FileLockStore(directory));
+    }
+
+    static void run(String name, LockStore store) throws Exception {
+        race(name, store);
+        heartbeat(name, store);
+        crash(name, store);
+        fencing(name, store);
+    }
+
+    static void race(String name, LockStore store) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try (JobLockService schedulerA = new JobLockService(store, TTL_MILLIS);
+                JobLockService schedulerB = new JobLockService(store, TTL_MILLIS)) {
+            for (int round = 0; round < ROUNDS; round++) {
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<JobLockService.JobLock> a = executorService.submit(start(barrier, schedulerA));
+                Future<JobLockService.JobLock> b = executorService.submit(start(barrier, schedulerB));
+                JobLockService.JobLock lockA = a.get();
+                JobLockService.JobLock lockB = b.get();
+                if ((lockA == null) == (lockB == null)) {
+                    throw new IllegalStateException(name + " race : 락을 잡은 실행 수가 1이 아닙니다. ( round " + round + " )");
+                }
+                (lockA != null ? lockA : lockB).close();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        System.out.printf("%-6s race      : %d 번 동시 시도 모두 한쪽만 락 획득%n", name, ROUNDS);
+    }
+
+    static Callable<JobLockService.JobLock> start(CyclicBarrier barrier, JobLockService scheduler) {
+        return () -> {
+            barrier.await();
+            return scheduler.tryLock(JOB);
+        };
+    }
+
+    static void heartbeat(String name, LockStore store) throws Exception {
+        try (JobLockService schedulerA = new JobLockService(store, TTL_MILLIS);
+                JobLockService schedulerB = new JobLockService(store, TTL_MILLIS);
+                JobLockService.JobLock lock = schedulerA.tryLock(JOB)) {
+            long end = System.currentTimeMillis() + TTL_MILLIS * 3;
+            while (System.currentTimeMillis() < end) {
+                if (schedulerB.tryLock(JOB) != null) {
+                    throw new IllegalStateException(name + " heartbeat : 갱신 중인 락을 다른 실행이 가져갔습니다.");
+                }
+                Thread.sleep(20);
+            }
+            lock.checkHeld();
+        }
+        System.out.printf("%-6s heartbeat : ttl %dms 의 3배 동안 락 유지%n", name, TTL_MILLIS);
+    }
+
+    static void crash(String name, LockStore store) throws Exception {
+        JobLockService crashed = new JobLockService(store, TTL_MILLIS);
+        long crashedToken = crashed.tryLock(JOB).getToken();
+        // 풀지 않고 heartbeat 만 멈춤 ( 프로세스가 죽은 것과 같음 )
+        crashed.close();
+
+        try (JobLockService next = new JobLockService(store, TTL_MILLIS)) {
+            if (next.tryLock(JOB) != null) {
+                throw new IllegalStateException(name + " crash : 만료 전인데 락을 가져갔습니다.");
+            }
+            long start = System.currentTimeMillis();
+            JobLockService.JobLock acquired;
+            while ((acquired = next.tryLock(JOB)) == null) {
+                Thread.sleep(10);
+            }
+            try (JobLockService.JobLock lock = acquired) {
+                if (lock.getToken() <= crashedToken) {
+                    throw new IllegalStateException(name + " crash : token 이 커지지 않았습니다.");
+                }
+                System.out.printf("%-6s crash     : %dms 뒤 자동 회복, token %d -> %d%n", name,
+                        System.currentTimeMillis() - start, crashedToken, lock.getToken());
+            }
+        }
+    }
+
+    static void fencing(String name, LockStore store) throws Exception {
+        FencedCounter counter = new FencedCounter();
+        JobLockService stale = new JobLockService(store, TTL_MILLIS);
+        JobLockService.JobLock staleLock = stale.tryLock(JOB);
+        counter.add(staleLock.getToken());
+        // GC 등으로 멈춘 것처럼 heartbeat 가 멈추고 ttl 이 지남
+        stale.close();
+        Thread.sleep(TTL_MILLIS + 50);
+
+        try (JobLockService next = new JobLockService(store, TTL_MILLIS);
+                JobLockService.JobLock lock = next.tryLock(JOB)) {
+            counter.add(lock.getToken());
+            if (staleLock.isHeld()) {
+                throw new IllegalStateException(name + " fencing : 만료된 락을 아직 잡고 있다고 합니다.");
+            }
+            if (counter.add(staleLock.getToken())) {
+                throw new IllegalStateException(name + " fencing : 이전 token 의 쓰기가 받아들여졌습니다.");
+            }
+        }
+        System.out.printf("%-6s fencing   : 이전 실행(token %d)의 늦은 쓰기 거절%n", name, staleLock.getToken());
+    }
+
+    // 가장 큰 token 보다 작은 token 의 쓰기는 받지 않는 자원
+    static class FencedCounter {
+        final AtomicLong highestToken = new AtomicLong();
+        final AtomicLong value = new AtomicLong();
+
+        boolean add(long token) {
+            long highest = highestToken.accumulateAndGet(token, Math::max);
+            if (token < highest) {
+                return false;
+            }
+            value.incrementAndGet();
+            return true;
+        }
+    }
+}
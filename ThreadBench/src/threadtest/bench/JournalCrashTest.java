@@ -0,0 +1,185 @@
+package threadtest.bench;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import threadtest.journal.SentJournal;
+import threadtest.worker.DeliveryDelayAlerts;
+import threadtest.worker.ISmartCaller;
+import threadtest.worker.UserAlertDigest;
+
+/*
+ * SentJournal 로 중간에 죽은 알림 전송을 이어서 할 수 있는지 확인 ( 프로세스를 실제로 죽인다 )
+ *  1. 자식 JVM 이 ROWS 건을 sendAlertsJournaled 로 보내다가 CRASH_POINTS 건째에 Runtime.halt ( kill -9 와 같음, finally / close 없음 )
+ *  2. 죽을 때마다 저널 끝에 쓰다 만 레코드 ( 쓰레기 TORN_BYTES byte ) 를 덧붙인다.
+ *  3. 다음 자식은 저널을 열어 이미 보낸 건을 건너뛰고 나머지만 보낸다. 마지막 자식은 죽지 않고 끝까지 보낸다.
+ *  가짜 알림 서비스는 받은 docid 를 sent.log 에 한줄씩 바로 쓴다. ( 버퍼 없이 write, halt 되어도 남음 )
+ *  확인 : 모든 docid 가 적어도 한번 나갔는지, 다시 나간 건이 죽은 횟수 x 풀 크기 이하인지, 저널에 ROWS 건이 있는지
+ *  실패하면 IllegalStateException 으로 끝난다.
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.JournalCrashTest
+ */
+public class JournalCrashTest {
+
+    static final int ROWS = 20_000;
+    static final int POOL_SIZE = 10;
+    static final int[] CRASH_POINTS = { 3_000, 5_000, 4_000 };
+    static final int TORN_BYTES = 11;
+    static final long CALL_LATENCY_MICROS = 100L;
+
+    public static void main(String[] args) throws Exception {
+        Logger.getLogger("batch").setLevel(Level.OFF);
+        if (args.length > 0 && args[0].equals("child")) {
+            child(Path.of(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+        Path directory = Files.createTempDirectory("sent-journal");
+        Path journalFile = directory.resolve("XFDeliveryDelayListWorker.journal");
+        Path sentLog = directory.resolve("sent.log");
+        System.out.printf("%-4s %10s %8s %10s %8s%n", "run", "recovered", "sent", "exit", "torn");
+        for (int run = 0; run <= CRASH_POINTS.length; run++) {
+            boolean crash = run < CRASH_POINTS.length;
+            long before = lines(sentLog);
+            ChildResult result = spawn(directory, crash ? CRASH_POINTS[run] : -1);
+            long sent = lines(sentLog) - before;
+            String torn = "-";
+            if (crash) {
+                if (result.exitCode != 137) {
+                    throw new IllegalStateException("run " + run + " 이 죽지 않았습니다. ( exit " + result.exitCode + " )");
+                }
+                torn = tearTail(journalFile) + " byte";
+            } else if (result.exitCode != 0) {
+                throw new IllegalStateException("마지막 실행이 실패했습니다. ( exit " + result.exitCode + " )");
+            }
+            System.out.printf("%-4d %10d %8d %10d %8s%n", run + 1, result.recovered, sent, result.exitCode, torn);
+        }
+        verify(journalFile, sentLog);
+    }
+
+    record ChildResult(int exitCode, int recovered) {
+    }
+
+    static ChildResult spawn(Path directory, int crashAfter) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), JournalCrashTest.class.getName(), "child",
+                directory.toString(), String.valueOf(crashAfter)).redirectErrorStream(true).start();
+        int recovered = -1;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith("recovered ")) {
+                    recovered = Integer.parseInt(line.substring("recovered ".length()));
+                } else {
+                    System.out.println("  child : " + line);
+                }
+            }
+        }
+        return new ChildResult(process.waitFor(), recovered);
+    }
+
+    // 자식 : 저널을 열고 남은 알림을 보낸다. crashAfter 건을 보내면 그 자리에서 halt
+    static void child(Path directory, int crashAfter) throws Exception {
+        List<Map<String, Object>> rows = rows();
+        AtomicInteger sent = new AtomicInteger();
+        SentJournal journal = new SentJournal(directory.resolve("XFDeliveryDelayListWorker.journal"));
+        System.out.println("recovered " + journal.getRecoveredCount());
+        System.out.flush();
+        ExecutorService executorService = Executors.newFixedThreadPool(POOL_SIZE);
+        try (FileChannel sentLog = FileChannel.open(directory.resolve("sent.log"), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ISmartCaller smartCaller = new ISmartCaller() {
+                @Override
+                public void movePageAlert(String userId, String message, String func, String page) throws Exception {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(CALL_LATENCY_MICROS));
+                    // 제목을 docid 로 만들어 두었으므로 "[D123] ..." 에서 docid 를 꺼낸다.
+                    String docid = message.substring(1, message.indexOf(']'));
+                    sentLog.write(ByteBuffer.wrap((docid + "\n").getBytes(StandardCharsets.US_ASCII)));
+                    if (sent.incrementAndGet() == crashAfter) {
+                        Runtime.getRuntime().halt(137);
+                    }
+                }
+
+                @Override
+                public void AlertStart() {
+                }
+            };
+            DeliveryDelayAlerts.sendAlertsJournaled(rows, UserAlertDigest.Kind.FAIL, smartCaller, executorService, journal).join();
+        } finally {
+            executorService.shutdown();
+            journal.close();
+        }
+    }
+
+    static List<Map<String, Object>> rows() {
+        List<Map<String, Object>> rows = new ArrayList<>(ROWS);
+        for (int index = 0; index < ROWS; index++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("docid", "D" + index);
+            row.put("user_id", "user" + index % 500);
+            row.put("title", "D" + index);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // 마지막 레코드 뒤에 쓰다 만 레코드를 흉내낸 쓰레기를 쓴다.
+    static int tearTail(Path journalFile) throws Exception {
+        long position;
+        try (SentJournal journal = new SentJournal(journalFile)) {
+            position = journal.getWritePosition();
+        }
+        byte[] garbage = new byte[TORN_BYTES];
+        for (int index = 0; index < garbage.length; index++) {
+            garbage[index] = (byte) (0xA5 ^ index);
+        }
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(garbage), position);
+        }
+        return garbage.length;
+    }
+
+    static void verify(Path journalFile, Path sentLog) throws Exception {
+        List<String> lines = Files.readAllLines(sentLog, StandardCharsets.US_ASCII);
+        Set<String> distinct = new HashSet<>(lines);
+        int resent = lines.size() - distinct.size();
+        int journaled;
+        try (SentJournal journal = new SentJournal(journalFile)) {
+            journaled = journal.size();
+        }
+        System.out.printf("%n보낸 알림 %d건 ( 서로 다른 docid %d, 다시 나간 건 %d ), 저널 %d건%n", lines.size(), distinct.size(), resent, journaled);
+        if (distinct.size() != ROWS) {
+            throw new IllegalStateException("보내지 못한 docid 가 있습니다. ( " + distinct.size() + " / " + ROWS + " )");
+        }
+        if (resent > CRASH_POINTS.length * POOL_SIZE) {
+            throw new IllegalStateException("다시 나간 건이 너무 많습니다. ( " + resent + " )");
+        }
+        if (journaled != ROWS) {
+            throw new IllegalStateException("저널 건수가 다릅니다. ( " + journaled + " )");
+        }
+    }
+
+    static long lines(Path file) throws Exception {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (var stream = Files.lines(file, StandardCharsets.US_ASCII)) {
+            return stream.count();
+        }
+    }
+}
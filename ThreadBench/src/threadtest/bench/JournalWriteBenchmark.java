@@ -0,0 +1,114 @@
+package threadtest.bench;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import threadtest.journal.SentJournal;
+
+/*
+ * 보낸 docid 기록 1건의 비용 ( SentJournal 쓰기 경로 )
+ *  - append       : mmap 에 레코드만 쓴다. ( 프로세스가 죽어도 남고, 서버가 죽으면 잃을 수 있음 )
+ *  - markSent     : append + sync. 여러 쓰레드가 부르면 force 한번에 묶인다. ( group commit )
+ *  - channelForce : 비교용. 레코드마다 FileChannel.write + force ( 묶지 않은 fsync )
+ *  iteration 마다 새 파일에 쓰고 지운다. 쓰레드 수는 main 인자로 받아 차례로 돌린다. ( thrpt 는 모든 쓰레드 합계 )
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.JournalWriteBenchmark 1,4,16
+ */
+@Fork(1)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JournalWriteBenchmark {
+
+    @Param({ "append", "markSent", "channelForce" })
+    public String mode;
+
+    final AtomicLong sequence = new AtomicLong();
+    Path file;
+    SentJournal journal;
+    FileChannel channel;
+
+    public static void main(String[] args) throws Exception {
+        String threads = args.length > 0 ? args[0] : "1,4,16";
+        for (String count : threads.split(",")) {
+            new Runner(new OptionsBuilder()
+                    .include(JournalWriteBenchmark.class.getSimpleName())
+                    .threads(Integer.parseInt(count.trim()))
+                    .build()).run();
+        }
+    }
+
+    // docid 문자열을 매번 만들지 않도록 쓰레드마다 StringBuilder 를 재사용
+    @State(Scope.Thread)
+    public static class DocId {
+        final StringBuilder builder = new StringBuilder(24);
+
+        CharSequence next(AtomicLong sequence) {
+            builder.setLength(0);
+            return builder.append("DOC").append(sequence.incrementAndGet());
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void open() throws IOException {
+        file = Files.createTempFile("sent-journal", ".bench");
+        if (mode.equals("channelForce")) {
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } else {
+            Files.delete(file);
+            journal = new SentJournal(file);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long write(DocId docId) throws IOException {
+        CharSequence docid = docId.next(sequence);
+        switch (mode) {
+            case "append":
+                return journal.append("FAIL", "user", docid);
+            case "markSent":
+                journal.markSent("FAIL", "user", docid);
+                return 0L;
+            default:
+                channel.write(ByteBuffer.allocate(16).putLong(SentJournal.keyOf("FAIL", "user", docid)).putLong(1L).flip());
+                channel.force(false);
+                return 0L;
+        }
+    }
+}
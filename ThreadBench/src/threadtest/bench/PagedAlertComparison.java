@@ -0,0 +1,67 @@
+package threadtest.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import threadtest.worker.AlertBatcher;
+import threadtest.worker.DeliveryDelayAlerts;
+import threadtest.worker.DeliveryDelaySearch;
+import threadtest.worker.InMemoryDelayListSource;
+import threadtest.worker.StubSmartCaller;
+
+/*
+ * 목록 전체 조회 후 전송 ( runSearchAsync ) 과 페이지 단위 조회 / 전송 ( streamAlertsAsync ) 비교
+ *  - 조회 지연 : 페이지 1번에 PAGE_LATENCY_MILLIS ( 전체 조회도 1번으로 취급 )
+ *  - 전송은 둘 다 AlertBatcher 로 묶어서 보낸다.
+ *  - 최대 heap ( 살아있는 객체 ) 과 첫 알림까지 걸린 시간, 전체 시간을 출력한다.
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.PagedAlertComparison 300000 1000
+ */
+public class PagedAlertComparison {
+
+    static final long PAGE_LATENCY_MILLIS = 5L;
+    static final String MESSAGE = "3일이 지난 발송 실패 문서들이 존재합니다. 확인 바랍니다.";
+
+    public static void main(String[] args) throws Exception {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        int pageSize = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+
+        System.out.printf("%-8s %8s %16s %16s %10s%n", "mode", "rows", "peak heap(KB)", "first alert(ms)", "time(ms)");
+        for (int round = 0; round < 2; round++) {
+            measure("whole", rowCount, pageSize);
+            measure("paged", rowCount, pageSize);
+        }
+    }
+
+    static void measure(String mode, int rowCount, int pageSize) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        StubSmartCaller smartCaller = new StubSmartCaller(2_000L, 1L);
+        InMemoryDelayListSource source = new InMemoryDelayListSource("fail", rowCount, 5_000, PAGE_LATENCY_MILLIS);
+
+        long start;
+        long peakBytes;
+        try (HeapSampler sampler = HeapSampler.start();
+                AlertBatcher batcher = new AlertBatcher(smartCaller, 200, 5L, executorService)) {
+            start = System.nanoTime();
+            if (mode.equals("whole")) {
+                List<Map<String, Object>> searchListAboutFail =
+                        DeliveryDelaySearch.runSearchAsync(source::searchAll, executorService, "fail list").join();
+                DeliveryDelayAlerts.sendAlertsBatched(searchListAboutFail, MESSAGE, batcher).join();
+            } else {
+                DeliveryDelaySearch.streamAlertsAsync(source, pageSize,
+                        page -> DeliveryDelayAlerts.sendAlertsBatched(page, MESSAGE, batcher), executorService).join();
+            }
+            peakBytes = sampler.getPeakBytes();
+        }
+        long end = System.nanoTime();
+
+        System.out.printf("%-8s %8d %16d %16d %10d%n", mode, smartCaller.getAlertCount(), peakBytes / 1024,
+                TimeUnit.NANOSECONDS.toMillis(smartCaller.getFirstCallNanos() - start),
+                TimeUnit.NANOSECONDS.toMillis(end - start));
+
+        executorService.shutdown();
+        executorService.awaitTermination(60, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,122 @@
+package threadtest.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import threadtest.cache.CacheStats;
+import threadtest.pool.LatencyHistogram;
+import threadtest.shop.Bulkhead;
+import threadtest.shop.DiscountService;
+import threadtest.shop.Latency;
+import threadtest.shop.PriceFinder;
+import threadtest.shop.Quote;
+import threadtest.shop.Shop;
+
+/*
+ * 상품 조회가 Zipf 분포( 인기 상품에 몰림 ) 로 들어올 때 findPrices 에 AsyncLoadingCache 를 붙인 효과
+ *
+ *  - 상품 PRODUCTS 개, 조회 요청 REQUESTS 개를 CLIENTS 개 쓰레드가 동시에 보낸다. ( 요청 하나 = 상점 SHOPS 개 findPrices )
+ *  - 상점 조회 20 ~ 50ms, 할인 서비스 20ms
+ *  - nocache / cache ( 크기 2000, ttl 10초 ) / small ( 크기 200 ) 비교
+ *  출력 : 전체 시간, 요청 처리량, 요청 지연 p50 / p99, 실제 원격 호출 수, 가격 캐시 hit 율 ( 합쳐진 요청 포함 )
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.PriceCacheComparison 1.0
+ *           ( 인자는 Zipf 지수. 클수록 인기 상품에 더 몰린다 )
+ */
+public class PriceCacheComparison {
+
+    static final int PRODUCTS = 1_000;
+    static final int REQUESTS = 2_000;
+    static final int CLIENTS = 32;
+    static final int SHOPS = 5;
+
+    public static void main(String[] args) throws Exception {
+        double exponent = args.length > 0 ? Double.parseDouble(args[0]) : 1.0;
+        Zipf zipf = new Zipf(PRODUCTS, exponent);
+        System.out.printf("zipf exponent %.2f, %d products, %d requests x %d shops%n", exponent, PRODUCTS, REQUESTS, SHOPS);
+        System.out.printf("%-8s %10s %8s %14s %12s %16s  %s%n", "mode", "time(ms)", "req/s", "p50/p99(ms)", "shop calls", "discount calls", "price cache");
+        run("nocache", 0, zipf);
+        run("cache", 2_000, zipf);
+        run("small", 200, zipf);
+    }
+
+    // 1 ~ n 순위에 1/rank^exponent 비율로 뽑는다. ( 누적분포 + 이분 탐색 )
+    static final class Zipf {
+        final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 1; rank <= n; rank++) {
+                sum += 1.0 / Math.pow(rank, exponent);
+                cumulative[rank - 1] = sum;
+            }
+            for (int index = 0; index < n; index++) {
+                cumulative[index] /= sum;
+            }
+        }
+
+        int next() {
+            int index = java.util.Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+            return index >= 0 ? index : Math.min(cumulative.length - 1, -index - 1);
+        }
+    }
+
+    static void run(String mode, int cacheSize, Zipf zipf) throws Exception {
+        LongAdder shopCalls = new LongAdder();
+        LongAdder discountCalls = new LongAdder();
+        List<Shop> shops = new ArrayList<>();
+        for (int index = 0; index < SHOPS; index++) {
+            shops.add(new Shop("Shop-" + index, Latency.uniform(20L, 50L)) {
+                @Override
+                public String getPrice(String product) {
+                    shopCalls.increment();
+                    return super.getPrice(product);
+                }
+            });
+        }
+        DiscountService discountService = new DiscountService(Latency.fixed(20L)) {
+            @Override
+            public String applyDiscount(Quote quote) {
+                discountCalls.increment();
+                return super.applyDiscount(quote);
+            }
+        };
+
+        LatencyHistogram latency = new LatencyHistogram();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try (Bulkhead shopStage = new Bulkhead("shop", 64); Bulkhead discountStage = new Bulkhead("discount", 64)) {
+            PriceFinder finder = PriceFinder.bulkheaded(shops, discountService, shopStage, discountStage);
+            if (cacheSize > 0) {
+                finder = finder.cached(cacheSize, 10, TimeUnit.SECONDS);
+            }
+            PriceFinder target = finder;
+            long startNanos = System.nanoTime();
+            List<Future<?>> requests = new ArrayList<>(REQUESTS);
+            for (int request = 0; request < REQUESTS; request++) {
+                requests.add(clients.submit(() -> {
+                    long requestStart = System.nanoTime();
+                    target.findPrices("product-" + zipf.next());
+                    latency.record(System.nanoTime() - requestStart);
+                }));
+            }
+            for (Future<?> request : requests) {
+                request.get();
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            CacheStats priceStats = target.priceCacheStats();
+            System.out.printf("%-8s %10d %8.0f %14s %12d %16d  %s%n", mode, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    REQUESTS / (elapsedNanos / 1e9),
+                    TimeUnit.NANOSECONDS.toMillis(latency.percentile(50)) + "/" + TimeUnit.NANOSECONDS.toMillis(latency.percentile(99)),
+                    shopCalls.sum(), discountCalls.sum(), priceStats == null ? "-" : priceStats);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package threadtest.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import threadtest.shop.DiscountService;
+import threadtest.shop.Latency;
+import threadtest.shop.Quote;
+import threadtest.shop.QuoteCodec;
+import threadtest.shop.QuoteView;
+import threadtest.shop.Shop;
+
+/*
+ * 견적 파싱 / 할인 포맷 한번에 드는 시간과 할당량
+ *  - legacyParse  : 이전 Quote.parse ( split + Double.parseDouble + Code.valueOf )
+ *  - legacyFormat : 이전 DiscountService 포맷 ( double 할인 + String.format("%.2f") )
+ *  - quoteParse   : 지금 Quote.parse ( QuoteCodec + 상점 이름 String 하나 )
+ *  - viewParse / bytesParse : QuoteCodec 으로 재사용 QuoteView 에 파싱만 ( String / ASCII byte[] )
+ *  - viewFormat   : 파싱 + 할인 + 재사용 StringBuilder 에 "상점이름 price is 가격" 포맷
+ *  할당량은 -prof gc 의 gc.alloc.rate.norm ( 견적 하나당 바이트 ) 으로 본다.
+ *  실행 예 : java -jar ThreadBench/target/benchmarks.jar QuoteCodecBenchmark -prof gc
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class QuoteCodecBenchmark {
+
+    static final int QUOTES = 64;
+
+    String[] quotes;
+    byte[][] asciiQuotes;
+    QuoteView view;
+    StringBuilder builder;
+
+    @Setup
+    public void setUp() {
+        List<Shop> shops = Shop.many(QUOTES, Latency.none());
+        quotes = new String[QUOTES];
+        asciiQuotes = new byte[QUOTES][];
+        for (int index = 0; index < QUOTES; index++) {
+            quotes[index] = shops.get(index).getPrice("myPhone27S");
+            asciiQuotes[index] = quotes[index].getBytes(StandardCharsets.US_ASCII);
+        }
+        view = new QuoteView();
+        builder = new StringBuilder(64);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUOTES)
+    public void legacyParse(Blackhole blackhole) {
+        for (String quote : quotes) {
+            String[] split = quote.split(":");
+            blackhole.consume(split[0]);
+            blackhole.consume(Double.parseDouble(split[1]));
+            blackhole.consume(DiscountService.Code.valueOf(split[2]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUOTES)
+    public void legacyFormat(Blackhole blackhole) {
+        for (String quote : quotes) {
+            String[] split = quote.split(":");
+            double price = Double.parseDouble(split[1]) * (100 - DiscountService.Code.valueOf(split[2]).getPercentage()) / 100;
+            blackhole.consume(String.format("%s price is %.2f", split[0], price));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUOTES)
+    public void quoteParse(Blackhole blackhole) {
+        for (String quote : quotes) {
+            blackhole.consume(Quote.parse(quote));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUOTES)
+    public void viewParse(Blackhole blackhole) {
+        for (String quote : quotes) {
+            QuoteCodec.parse(quote, view);
+            blackhole.consume(view.priceCents());
+            blackhole.consume(view.discountCode());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUOTES)
+    public void bytesParse(Blackhole blackhole) {
+        for (byte[] quote : asciiQuotes) {
+            QuoteCodec.parse(quote, 0, quote.length, view);
+            blackhole.consume(view.priceCents());
+            blackhole.consume(view.discountCode());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUOTES)
+    public void viewFormat(Blackhole blackhole) {
+        for (String quote : quotes) {
+            builder.setLength(0);
+            blackhole.consume(QuoteCodec.appendDiscounted(builder, QuoteCodec.parse(quote, view)));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package threadtest.bench;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import threadtest.parallel.RangeReducer;
+
+/*
+ * RangeReducer 의 sequential / forkJoin / parallelStream 비교
+ *  - size        : 구간 길이 ( 10^3 ~ 10^9 ). 작은 구간에서는 나누는 비용 때문에 sequential 이 이긴다.
+ *  - parallelism : ForkJoinPool 쓰레드 수. 코어 수보다 크게 주면 나눠도 빨라지지 않는다.
+ *  - threshold   : 0 이면 RangeReducer.defaultThreshold ( 쓰레드당 8 조각 ), 아니면 그 길이 이하에서 나누기를 멈춤
+ *  계산은 "최종 합" 예제처럼 index 를 더하되, JIT 가 닫힌 식으로 바꾸지 못하도록 약간 섞는다.
+ *  sequential 은 SizeState 만, parallelStream 은 SizeState + PoolState 만 쓰므로 자기와 상관없는 param 조합마다 다시 돌지 않는다.
+ *  ( threshold 는 forkJoin 만 쓰는 ThresholdState 에 있다 )
+ *  실행 예 : java -jar ThreadBench/target/benchmarks.jar RangeReductionBenchmark -p parallelism=1,2,4,8
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RangeReductionBenchmark {
+
+    static final LongUnaryOperator MAPPER = index -> index ^ (index >>> 7);
+    static final LongBinaryOperator SUM = Long::sum;
+
+    @State(Scope.Benchmark)
+    public static class SizeState {
+        @Param({ "1000", "1000000", "1000000000" })
+        long size;
+    }
+
+    @State(Scope.Benchmark)
+    public static class PoolState {
+        @Param({ "1", "2", "4", "8" })
+        int parallelism;
+
+        ForkJoinPool pool;
+
+        @Setup
+        public void setup() {
+            pool = new ForkJoinPool(parallelism);
+        }
+
+        @TearDown
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ThresholdState {
+        @Param({ "0", "1000", "1000000" })
+        long threshold;
+
+        long threshold(long size, int parallelism) {
+            return threshold == 0 ? RangeReducer.defaultThreshold(size, parallelism) : threshold;
+        }
+    }
+
+    @Benchmark
+    public long sequential(SizeState sizeState) {
+        return RangeReducer.sequential(0, sizeState.size, MAPPER, 0L, SUM);
+    }
+
+    @Benchmark
+    public long forkJoin(SizeState sizeState, PoolState poolState, ThresholdState thresholdState) {
+        return RangeReducer.forkJoin(poolState.pool, 0, sizeState.size, thresholdState.threshold(sizeState.size, poolState.parallelism), MAPPER, 0L, SUM);
+    }
+
+    // parallel stream 은 나누는 기준을 스스로 정한다. ( threshold 를 받지 않음 )
+    @Benchmark
+    public long parallelStream(SizeState sizeState, PoolState poolState) {
+        return RangeReducer.parallelStream(poolState.pool, 0, sizeState.size, MAPPER, 0L, SUM);
+    }
+}
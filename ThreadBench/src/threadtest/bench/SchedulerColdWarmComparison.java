@@ -0,0 +1,175 @@
+package threadtest.bench;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import threadtest.lock.InMemoryLockStore;
+import threadtest.lock.JobLockService;
+import threadtest.lock.LockStore;
+import threadtest.schedule.JobContext;
+import threadtest.schedule.JobScheduler;
+import threadtest.schedule.RunReport;
+import threadtest.schedule.Trigger;
+import threadtest.worker.DeliveryDelayJob;
+import threadtest.worker.InMemoryDelayListSource;
+import threadtest.worker.StubSmartCaller;
+
+/*
+ * XFDeliveryDelayListWorker 를 실행마다 새 JVM 으로 띄울 때 ( cold ) 와 JobScheduler 안에서 반복 실행할 때 ( warm ) 비교
+ *  같은 작업 ( 목록 3개 x ROWS 행 조회 -> 행마다 movePageAlert ) 을
+ *   - cold : java 프로세스를 COLD_RUNS 번 새로 띄워서 main 처럼 풀 생성 -> 락 -> 실행 -> 풀 종료
+ *   - warm : JobScheduler 에 fixedDelay 로 등록해서 WARM_RUNS 번
+ *  출력
+ *   - process : 프로세스 시작부터 종료까지 ( cold 만, JVM 시작 / 종료 포함 )
+ *   - run     : 작업 본문 ( 풀 생성 / 종료 포함 ) 시간
+ *   - cpu     : cold 는 프로세스 전체 CPU, warm 은 실행 하나 동안의 프로세스 CPU ( JIT / GC 쓰레드 포함 )
+ *  마지막으로 겹침 방지 ( 두 스케줄러가 같은 락 저장소를 쓸 때 동시에 도는 실행 수 ) 와 cron 다음 시각을 보여준다.
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.SchedulerColdWarmComparison
+ */
+public class SchedulerColdWarmComparison {
+
+    static final String JOB = "XFDeliveryDelayListWorker";
+    static final int ROWS = 2_000;
+    static final int USERS = 200;
+    static final long PAGE_LATENCY_MILLIS = 5L;
+    static final long CALL_LATENCY_MICROS = 200L;
+    static final int COLD_RUNS = 5;
+    static final int WARM_RUNS = 20;
+
+    public static void main(String[] args) throws Exception {
+        Logger.getLogger("batch").setLevel(Level.OFF);
+        if (args.length > 0 && args[0].equals("once")) {
+            once();
+            return;
+        }
+        cold();
+        warm();
+        overlap();
+        cron();
+    }
+
+    static DeliveryDelayJob newJob() {
+        InMemoryDelayListSource fail = new InMemoryDelayListSource("fail", ROWS, USERS, PAGE_LATENCY_MILLIS);
+        InMemoryDelayListSource resend = new InMemoryDelayListSource("resend", ROWS, USERS, PAGE_LATENCY_MILLIS);
+        InMemoryDelayListSource notSend = new InMemoryDelayListSource("notSend", ROWS, USERS, PAGE_LATENCY_MILLIS);
+        return new DeliveryDelayJob(fail::searchAll, resend::searchAll, notSend::searchAll, new StubSmartCaller(CALL_LATENCY_MICROS, 0L));
+    }
+
+    // 자식 프로세스 : XFDeliveryDelayListWorker.main 처럼 한번 실행하고 "run(us) cpu(us)" 를 출력
+    static void once() throws Exception {
+        long start = System.nanoTime();
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        try (JobLockService lockService = new JobLockService(new InMemoryLockStore(), 30_000L);
+                JobLockService.JobLock lock = lockService.tryLock(JOB)) {
+            newJob().run(new JobContext(JOB, 1, executorService, lock));
+        } finally {
+            executorService.shutdown();
+            executorService.awaitTermination(60, TimeUnit.SECONDS);
+        }
+        long run = System.nanoTime() - start;
+        System.out.println(TimeUnit.NANOSECONDS.toMicros(run) + " " + TimeUnit.NANOSECONDS.toMicros(JobScheduler.processCpuNanos()));
+    }
+
+    static void cold() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+        System.out.printf("%-6s %4s %12s %10s %10s%n", "mode", "run", "process(ms)", "run(ms)", "cpu(ms)");
+        for (int index = 1; index <= COLD_RUNS; index++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(java, "-cp", classPath, SchedulerColdWarmComparison.class.getName(), "once")
+                    .redirectErrorStream(true).start();
+            String last = null;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    last = line;
+                }
+            }
+            if (process.waitFor() != 0 || last == null) {
+                throw new IllegalStateException("cold 실행 실패 : " + last);
+            }
+            long processNanos = System.nanoTime() - start;
+            String[] values = last.trim().split(" ");
+            System.out.printf("%-6s %4d %12d %10.1f %10.1f%n", "cold", index, TimeUnit.NANOSECONDS.toMillis(processNanos),
+                    Long.parseLong(values[0]) / 1000.0, Long.parseLong(values[1]) / 1000.0);
+        }
+    }
+
+    static void warm() throws Exception {
+        try (JobScheduler scheduler = new JobScheduler("bench", 10, new JobLockService(new InMemoryLockStore(), 30_000L))) {
+            JobScheduler.ScheduledJob job = scheduler.register(JOB, Trigger.fixedDelay(20, TimeUnit.MILLISECONDS), newJob());
+            while (job.getRunCount() < WARM_RUNS || job.isRunning()) {
+                Thread.sleep(10);
+            }
+            scheduler.unregister(JOB);
+            List<RunReport> reports = job.recentReports();
+            for (RunReport report : reports) {
+                if (report.runNumber() <= 3 || report.runNumber() % 5 == 0) {
+                    System.out.printf("%-6s %4d %12s %10.1f %10.1f%n", "warm", report.runNumber(), "-", report.wallMicros() / 1000.0, report.cpuMicros() / 1000.0);
+                }
+            }
+            List<RunReport> steady = reports.subList(reports.size() / 2, reports.size());
+            System.out.printf("warm 뒤쪽 %d회 중앙값 : run %.1fms, cpu %.1fms%n", steady.size(), median(steady, true) / 1000.0, median(steady, false) / 1000.0);
+        }
+    }
+
+    static double median(List<RunReport> reports, boolean wall) {
+        List<Long> values = new ArrayList<>();
+        reports.forEach(report -> values.add(wall ? report.wallMicros() : report.cpuMicros()));
+        values.sort(null);
+        return values.get(values.size() / 2);
+    }
+
+    // 두 스케줄러 ( 서버 두대 ) 가 같은 작업을 10ms 간격으로 예약. 락 저장소를 같이 쓰므로 동시에 도는 실행은 항상 1개
+    static void overlap() throws Exception {
+        LockStore store = new InMemoryLockStore();
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        try (JobLockService lockA = new JobLockService(store, 1_000L);
+                JobLockService lockB = new JobLockService(store, 1_000L);
+                JobScheduler schedulerA = new JobScheduler("server-a", 2, lockA);
+                JobScheduler schedulerB = new JobScheduler("server-b", 2, lockB)) {
+            List<JobScheduler.ScheduledJob> jobs = new ArrayList<>();
+            for (JobScheduler scheduler : List.of(schedulerA, schedulerB)) {
+                jobs.add(scheduler.register(JOB, Trigger.fixedDelay(10, TimeUnit.MILLISECONDS), context -> {
+                    maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(50);
+                    } finally {
+                        concurrent.decrementAndGet();
+                    }
+                }));
+            }
+            Thread.sleep(1_000);
+            // server-a 가 직접 실행하는 중에는 예약된 회차가 건너뛰어진다.
+            RunReport manual = jobs.get(0).runNow();
+            schedulerA.unregister(JOB);
+            schedulerB.unregister(JOB);
+            System.out.printf("%n겹침 방지 : 동시에 돈 실행 최대 %d개, server-a 실행 %d / 건너뜀 %d, server-b 실행 %d / 건너뜀 %d, runNow %s%n",
+                    maxConcurrent.get(), jobs.get(0).getRunCount(), jobs.get(0).getSkippedCount(), jobs.get(1).getRunCount(), jobs.get(1).getSkippedCount(),
+                    manual == null ? "건너뜀" : manual.wallMicros() / 1000 + "ms");
+        }
+    }
+
+    static void cron() {
+        Trigger trigger = Trigger.cron("0 9-18 * * 1-5");
+        long at = System.currentTimeMillis();
+        StringBuilder builder = new StringBuilder();
+        for (int index = 0; index < 3; index++) {
+            at = trigger.nextRunMillis(at);
+            builder.append(' ').append(Instant.ofEpochMilli(at).atZone(ZoneId.systemDefault()).toLocalDateTime());
+        }
+        System.out.println(trigger + " 다음 3회 :" + builder);
+    }
+}
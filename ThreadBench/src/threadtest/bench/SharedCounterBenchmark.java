@@ -0,0 +1,102 @@
+package threadtest.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import threadtest.shared.ConcurrentIntLongMap;
+import threadtest.shared.StripedCounter;
+
+/*
+ * 여러 쓰레드가 같은 공유 객체를 올릴 때 ( RunnableRun 생성자로 넣어 쓰는 공유 데이터 ) 비교
+ *  - 카운터 하나 : synchronized long / AtomicLong / LongAdder / StripedCounter
+ *  - user 별 카운트 ( 키 1024개 ) : synchronized HashMap<Integer, Long> / ConcurrentHashMap<Integer, Long>.merge / ConcurrentIntLongMap
+ *  쓰레드 수는 main 인자로 받아 1 ~ 64 를 차례로 돌린다. ( thrpt 는 모든 쓰레드 합계 )
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.SharedCounterBenchmark 1,4,16,64
+ *           ( jar 로 실행하면 java -jar ThreadBench/target/benchmarks.jar SharedCounterBenchmark -t 16 처럼 한 값씩 )
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SharedCounterBenchmark {
+
+    static final int KEYS = 1024;
+
+    long synchronizedValue;
+    final AtomicLong atomicLong = new AtomicLong();
+    final LongAdder longAdder = new LongAdder();
+    final StripedCounter stripedCounter = new StripedCounter();
+
+    final Map<Integer, Long> synchronizedMap = new HashMap<>();
+    final Map<Integer, Long> concurrentHashMap = new ConcurrentHashMap<>();
+    final ConcurrentIntLongMap intLongMap = new ConcurrentIntLongMap();
+
+    public static void main(String[] args) throws Exception {
+        String threads = args.length > 0 ? args[0] : "1,2,4,8,16,32,64";
+        for (String count : threads.split(",")) {
+            new Runner(new OptionsBuilder()
+                    .include(SharedCounterBenchmark.class.getSimpleName())
+                    .threads(Integer.parseInt(count.trim()))
+                    .build()).run();
+        }
+    }
+
+    @Benchmark
+    public long synchronizedCounter() {
+        synchronized (this) {
+            return ++synchronizedValue;
+        }
+    }
+
+    @Benchmark
+    public long atomicLong() {
+        return atomicLong.incrementAndGet();
+    }
+
+    @Benchmark
+    public void longAdder() {
+        longAdder.increment();
+    }
+
+    @Benchmark
+    public void stripedCounter() {
+        stripedCounter.increment();
+    }
+
+    @Benchmark
+    public Long synchronizedMap() {
+        int key = ThreadLocalRandom.current().nextInt(KEYS);
+        synchronized (synchronizedMap) {
+            return synchronizedMap.merge(key, 1L, Long::sum);
+        }
+    }
+
+    @Benchmark
+    public Long concurrentHashMap() {
+        return concurrentHashMap.merge(ThreadLocalRandom.current().nextInt(KEYS), 1L, Long::sum);
+    }
+
+    @Benchmark
+    public long intLongMap() {
+        return intLongMap.incrementAndGet(ThreadLocalRandom.current().nextInt(KEYS));
+    }
+}
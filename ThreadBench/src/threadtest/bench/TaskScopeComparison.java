@@ -0,0 +1,176 @@
+package threadtest.bench;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import threadtest.async.TaskScope;
+import threadtest.worker.DeliveryDelaySearch;
+
+/*
+ * 조회 하나가 실패할 때 ( fail list 가 FAIL_AFTER_MILLIS 에 SQLException ) 세가지 fan-out 비교
+ *  - allOf+exceptionally : XFDeliveryDelayListWorker 그대로 ( runSearchAsync ). 실패는 빈 목록이 되고 나머지는 끝까지 돈다.
+ *  - allOf               : exceptionally 없이 allOf().join(). 실패는 올라오지만 나머지가 끝날 때까지 기다린다.
+ *  - scope               : DeliveryDelaySearch.searchAll ( TaskScope.ShutdownOnFailure ). 실패 즉시 나머지를 interrupt 한다.
+ *  출력
+ *   - time   : 호출 시작부터 결과( 또는 예외 ) 를 받을 때까지
+ *   - wasted : 첫 실패 이후 나머지 조회가 쓰레드를 더 잡고 있던 시간의 합 ( 어차피 버릴 작업 )
+ *   - freed  : 호출 시작부터 풀 쓰레드가 전부 돌아올 때까지
+ *  마지막에 ShutdownOnSuccess ( 같은 조회를 여러 복제본에 보내고 먼저 성공한 것 사용 ) 도 한번 보여준다.
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.TaskScopeComparison
+ */
+public class TaskScopeComparison {
+
+    static final long FAIL_AFTER_MILLIS = 50L;
+    static final long SLOW_MILLIS = 1000L;
+    static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        // runSearchAsync 가 남기는 실패 로그는 측정 출력과 섞이지 않게 끈다.
+        Logger.getLogger("batch").setLevel(Level.OFF);
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        try {
+            System.out.printf("%-20s %10s %12s %10s  %s%n", "mode", "time(ms)", "wasted(ms)", "freed(ms)", "result");
+            for (int round = 0; round < ROUNDS; round++) {
+                measure("allOf+exceptionally", executorService, TaskScopeComparison::allOfExceptionally);
+                measure("allOf", executorService, TaskScopeComparison::allOf);
+                measure("scope", executorService, DeliveryDelaySearch::searchAll);
+            }
+            firstSuccess(executorService);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    interface FanOut {
+        Map<String, List<Map<String, Object>>> run(Map<String, Callable<List<Map<String, Object>>>> searches, ExecutorService executorService) throws Exception;
+    }
+
+    // 조회 하나. 10ms 씩 나눠 자면서 interrupt 되면 바로 멈춘다. ( JDBC 의 Statement.cancel 에 해당 )
+    static final class Search implements Callable<List<Map<String, Object>>> {
+        final String name;
+        final long millis;
+        final boolean fails;
+        final AtomicLong failedAt;
+        volatile long endNanos;
+
+        Search(String name, long millis, boolean fails, AtomicLong failedAt) {
+            this.name = name;
+            this.millis = millis;
+            this.fails = fails;
+            this.failedAt = failedAt;
+        }
+
+        @Override
+        public List<Map<String, Object>> call() throws Exception {
+            try {
+                long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+                while (System.nanoTime() < end) {
+                    Thread.sleep(10);
+                }
+                if (fails) {
+                    failedAt.compareAndSet(0L, System.nanoTime());
+                    throw new SQLException(name + " 조회 중 연결이 끊어졌습니다.");
+                }
+                List<Map<String, Object>> rows = new ArrayList<>();
+                rows.add(Map.of("docid", name + "-DOC0"));
+                return rows;
+            } finally {
+                endNanos = System.nanoTime();
+            }
+        }
+    }
+
+    static void measure(String mode, ExecutorService executorService, FanOut fanOut) throws Exception {
+        AtomicLong failedAt = new AtomicLong();
+        List<Search> searches = List.of(
+                new Search("fail list", FAIL_AFTER_MILLIS, true, failedAt),
+                new Search("resend list", SLOW_MILLIS, false, failedAt),
+                new Search("not send list", SLOW_MILLIS, false, failedAt));
+        Map<String, Callable<List<Map<String, Object>>>> byName = new LinkedHashMap<>();
+        searches.forEach(search -> byName.put(search.name, search));
+
+        long start = System.nanoTime();
+        String result;
+        try {
+            Map<String, List<Map<String, Object>>> results = fanOut.run(byName, executorService);
+            result = "ok " + sizes(results);
+        } catch (Exception e) {
+            result = e.getClass().getSimpleName() + " : " + e.getMessage();
+        }
+        long returned = System.nanoTime();
+        // 취소 / interrupt 된 조회가 실제로 빠져나올 때까지 기다린다.
+        while (searches.stream().anyMatch(search -> search.endNanos == 0L)) {
+            Thread.sleep(1);
+        }
+        long wasted = 0;
+        long freed = 0;
+        for (Search search : searches) {
+            freed = Math.max(freed, search.endNanos - start);
+            if (!search.fails && failedAt.get() != 0L) {
+                wasted += Math.max(0L, search.endNanos - failedAt.get());
+            }
+        }
+        System.out.printf("%-20s %10d %12d %10d  %s%n", mode, TimeUnit.NANOSECONDS.toMillis(returned - start),
+                TimeUnit.NANOSECONDS.toMillis(wasted), TimeUnit.NANOSECONDS.toMillis(freed), result);
+    }
+
+    static Map<String, List<Map<String, Object>>> allOfExceptionally(Map<String, Callable<List<Map<String, Object>>>> searches, ExecutorService executorService) {
+        Map<String, CompletableFuture<List<Map<String, Object>>>> futures = new LinkedHashMap<>();
+        searches.forEach((name, search) -> futures.put(name, DeliveryDelaySearch.runSearchAsync(search, executorService, name)));
+        return join(futures);
+    }
+
+    static Map<String, List<Map<String, Object>>> allOf(Map<String, Callable<List<Map<String, Object>>>> searches, ExecutorService executorService) {
+        Map<String, CompletableFuture<List<Map<String, Object>>>> futures = new LinkedHashMap<>();
+        searches.forEach((name, search) -> futures.put(name, CompletableFuture.supplyAsync(() -> {
+            try {
+                return search.call();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to fetch " + name + ": " + e.getMessage(), e);
+            }
+        }, executorService)));
+        return join(futures);
+    }
+
+    static Map<String, List<Map<String, Object>>> join(Map<String, CompletableFuture<List<Map<String, Object>>>> futures) {
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenApply(v -> {
+            Map<String, List<Map<String, Object>>> map = new LinkedHashMap<>();
+            futures.forEach((name, future) -> map.put(name, future.join()));
+            return map;
+        }).join();
+    }
+
+    static String sizes(Map<String, List<Map<String, Object>>> results) {
+        StringBuilder builder = new StringBuilder();
+        results.forEach((name, rows) -> builder.append(name).append('=').append(rows.size()).append(' '));
+        return builder.toString().trim();
+    }
+
+    // 같은 조회를 복제본 세곳에 보내고 먼저 성공한 결과를 쓴다. ( replica-a 는 20ms 에 실패, replica-c 가 80ms 에 성공 )
+    static void firstSuccess(ExecutorService executorService) throws Exception {
+        AtomicLong failedAt = new AtomicLong();
+        long start = System.nanoTime();
+        try (TaskScope.ShutdownOnSuccess<List<Map<String, Object>>> scope = TaskScope.shutdownOnSuccess(executorService)) {
+            scope.fork("replica-a", new Search("replica-a", 20L, true, failedAt));
+            Search slow = new Search("replica-b", SLOW_MILLIS, false, failedAt);
+            scope.fork("replica-b", slow);
+            scope.fork("replica-c", new Search("replica-c", 80L, false, failedAt));
+            List<Map<String, Object>> rows = scope.join().result();
+            long returned = System.nanoTime();
+            scope.close();
+            System.out.printf("%nfirst success : %s ( %d rows ) in %dms, replica-b stopped after %dms%n", scope.winner(), rows.size(),
+                    TimeUnit.NANOSECONDS.toMillis(returned - start), TimeUnit.NANOSECONDS.toMillis(slow.endNanos - start));
+        }
+    }
+}
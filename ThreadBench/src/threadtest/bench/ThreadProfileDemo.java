@@ -0,0 +1,132 @@
+package threadtest.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import threadtest.pool.CountingThreadFactory;
+import threadtest.profile.ThreadProfiler;
+
+/*
+ * ThreadProfiler 로 ThreadTest.java 예제들이 시간을 어디에 쓰는지 본다.
+ *  1. join   : ThreadRun ( 반복마다 sleep ) 을 띄워 두고, 주석의 sub1.start(); sub1.join(); sub2.start(); sub2.join(); 처럼
+ *              CPU 작업 두개를 차례로 돌린 다음 두개를 같이 돌린다. timeline 에서 sub1 이 끝나야 sub2 가 시작하는 것이 보인다.
+ *  2. pool   : 고정 풀 POOL_SIZE 개 쓰레드에 작업 JOBS 개. 작업 하나는
+ *              CPU 1ms -> synchronized 안에서 1ms ( 공유 카운터 ) -> ReentrantLock 안에서 1ms -> 원격 호출 흉내 sleep 3ms
+ *              작업별 표에서 wall 중 얼마가 blocked ( 모니터 ) / waited ( 락 + sleep ) / other ( CPU 차례 대기 ) 인지 나온다.
+ *  보고서는 <dir>/<이름>-profile.txt, 구간 CSV 는 <dir>/<이름>-timeline.csv ( jfr 을 주면 <dir>/<이름>.jfr 도 )
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.ThreadProfileDemo target/thread-profile jfr
+ */
+public class ThreadProfileDemo {
+
+    static final int POOL_SIZE = 4;
+    static final int JOBS = 200;
+    static final Object MONITOR = new Object();
+    static final ReentrantLock LOCK = new ReentrantLock();
+    static long shared;
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Path.of(args.length > 0 ? args[0] : "target/thread-profile");
+        boolean jfr = args.length > 1 && args[1].equals("jfr");
+        Files.createDirectories(dir);
+        profile("join", dir, jfr, ThreadProfileDemo::join);
+        profile("pool", dir, jfr, ThreadProfileDemo::pool);
+    }
+
+    interface Scenario {
+        void run(ThreadProfiler profiler) throws Exception;
+    }
+
+    static void profile(String name, Path dir, boolean jfr, Scenario scenario) throws Exception {
+        ThreadProfiler profiler = new ThreadProfiler(5L, TimeUnit.MILLISECONDS, thread -> !thread.startsWith("ForkJoinPool"));
+        if (jfr) {
+            profiler.recordJfr(dir.resolve(name + ".jfr"));
+        }
+        try (profiler) {
+            profiler.start();
+            scenario.run(profiler);
+            profiler.stop();
+            profiler.writeReport(dir.resolve(name + "-profile.txt"));
+            profiler.writeTimelineCsv(dir.resolve(name + "-timeline.csv"));
+            System.out.printf("===== %s =====%n%s%n%s%n%s", name, profiler.summary(), profiler.timeline(80), profiler.jfrSummary());
+        }
+    }
+
+    static void join(ThreadProfiler profiler) throws Exception {
+        // ThreadRun : 10번 반복하며 매번 sleep ( 1000ms 대신 50ms )
+        Thread threadRun = new Thread(() -> {
+            for (int index = 0; index < 10; index++) {
+                sleep(50L);
+            }
+        }, "ThreadRun");
+        threadRun.start();
+
+        Runnable task = profiler.wrap("sum", () -> spin(TimeUnit.MILLISECONDS.toNanos(150L)));
+        Thread sub1 = new Thread(task, "sub1");
+        Thread sub2 = new Thread(task, "sub2");
+        sub1.start();
+        sub1.join();
+        sub2.start();
+        sub2.join();
+
+        // 같이 돌리면 ( CPU 가 둘 이상일 때 ) 절반 시간에 끝난다.
+        Thread sub3 = new Thread(task, "sub3");
+        Thread sub4 = new Thread(task, "sub4");
+        sub3.start();
+        sub4.start();
+        sub3.join();
+        sub4.join();
+        threadRun.join();
+    }
+
+    static void pool(ThreadProfiler profiler) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(POOL_SIZE, new CountingThreadFactory("job"));
+        try {
+            Runnable job = profiler.wrap("job", () -> {
+                spin(TimeUnit.MILLISECONDS.toNanos(1L));
+                synchronized (MONITOR) {
+                    spin(TimeUnit.MILLISECONDS.toNanos(1L));
+                    shared++;
+                }
+                LOCK.lock();
+                try {
+                    spin(TimeUnit.MILLISECONDS.toNanos(1L));
+                } finally {
+                    LOCK.unlock();
+                }
+                sleep(3L);
+            });
+            List<Future<?>> futures = new ArrayList<>();
+            for (int index = 0; index < JOBS; index++) {
+                futures.add(executorService.submit(job));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+            executorService.awaitTermination(10L, TimeUnit.SECONDS);
+        }
+    }
+
+    static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() - end < 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package threadtest.bench;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import threadtest.worker.DeliveryDelayAlerts;
+import threadtest.worker.StubSmartCaller;
+import threadtest.worker.UserAlertDigest;
+
+/*
+ * 지연 문서가 일부 사용자에게 몰려 있을 때 ( Zipf 분포 ) 행마다 알림 vs 사용자별 요약 알림
+ *  - fail / resend / notSend 각 ROWS 행, 사용자 USERS 명. resend 의 일부는 fail 과 같은 docid ( 중복 )
+ *  - perRow : 주석 예제처럼 sendAlertsAsync 를 목록마다 한번씩 ( 행 1개 = movePageAlert 1번 )
+ *  - digest : UserAlertDigest.group 으로 합친 뒤 사용자마다 1번
+ *  - 풀은 newFixedThreadPool(10), StubSmartCaller 는 원격 호출 1번에 CALL_LATENCY_MICROS
+ *  출력 : 원격 호출 수, 사용자 한명이 받은 최대 알림 수, group 에 걸린 시간, 전체 시간
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.UserDigestComparison 1.0
+ *           ( 인자는 Zipf 지수. 클수록 소수 사용자에게 더 몰린다 )
+ */
+public class UserDigestComparison {
+
+    static final int ROWS = 5_000;
+    static final int USERS = 2_000;
+    static final int DUPLICATE_EVERY = 20;
+    static final long CALL_LATENCY_MICROS = 2_000L;
+
+    public static void main(String[] args) throws Exception {
+        double exponent = args.length > 0 ? Double.parseDouble(args[0]) : 1.0;
+        PriceCacheComparison.Zipf zipf = new PriceCacheComparison.Zipf(USERS, exponent);
+        Map<UserAlertDigest.Kind, List<Map<String, Object>>> lists = new EnumMap<>(UserAlertDigest.Kind.class);
+        for (UserAlertDigest.Kind kind : UserAlertDigest.Kind.values()) {
+            lists.put(kind, rows(kind, zipf));
+        }
+        Map<String, UserAlertDigest.Digest> sample = UserAlertDigest.group(lists);
+        UserAlertDigest.Digest top = sample.values().stream().max((a, b) -> Integer.compare(a.getTotal(), b.getTotal())).orElseThrow();
+        System.out.printf("zipf exponent %.2f, %d users, 3 lists x %d rows, 알림을 받을 사용자 %d명%n", exponent, USERS, ROWS, sample.size());
+        System.out.println("가장 많은 사용자 ( " + top.getTotal() + "건 ) : " + top.message());
+        System.out.printf("%n%-8s %12s %14s %10s %10s%n", "mode", "remote calls", "max per user", "group(ms)", "time(ms)");
+        for (int round = 0; round < 3; round++) {
+            perRow(lists);
+            digest(lists);
+        }
+    }
+
+    // 같은 행 데이터 모양 ( InMemoryDelayListSource 와 같은 키 ) 에 사용자만 Zipf 로 뽑는다.
+    static List<Map<String, Object>> rows(UserAlertDigest.Kind kind, PriceCacheComparison.Zipf zipf) {
+        List<Map<String, Object>> rows = new ArrayList<>(ROWS);
+        for (int index = 0; index < ROWS; index++) {
+            int user = zipf.next();
+            // resend 의 일부는 fail 에도 있는 문서 ( 재발송 요청 후 다시 실패 )
+            boolean duplicate = kind == UserAlertDigest.Kind.RESEND && index % DUPLICATE_EVERY == 0;
+            Map<String, Object> row = new HashMap<>();
+            row.put("docid", (duplicate ? UserAlertDigest.Kind.FAIL : kind) + "-DOC" + index);
+            row.put("user_id", "user" + user);
+            row.put("user_kid", "K" + user);
+            row.put("user_name", "사용자" + user);
+            row.put("title", kind + " 지연 문서 제목 " + index);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static void perRow(Map<UserAlertDigest.Kind, List<Map<String, Object>>> lists) throws InterruptedException {
+        StubSmartCaller smartCaller = new StubSmartCaller(CALL_LATENCY_MICROS, 0L);
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        Map<String, Integer> perUser = new HashMap<>();
+        lists.values().forEach(list -> list.forEach(row -> perUser.merge((String) row.get("user_id"), 1, Integer::sum)));
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        lists.forEach((kind, list) -> futures.add(DeliveryDelayAlerts.sendAlertsAsync(list, kind.getMessage(), smartCaller, executorService)));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        long elapsed = System.nanoTime() - start;
+        executorService.shutdown();
+        executorService.awaitTermination(10, TimeUnit.SECONDS);
+        System.out.printf("%-8s %12d %14d %10s %10d%n", "perRow", smartCaller.getCallCount(), perUser.values().stream().mapToInt(Integer::intValue).max().orElse(0),
+                "-", TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    static void digest(Map<UserAlertDigest.Kind, List<Map<String, Object>>> lists) throws InterruptedException {
+        StubSmartCaller smartCaller = new StubSmartCaller(CALL_LATENCY_MICROS, 0L);
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        long start = System.nanoTime();
+        Map<String, UserAlertDigest.Digest> digests = UserAlertDigest.group(lists);
+        long grouped = System.nanoTime();
+        UserAlertDigest.sendDigestsAsync(digests, smartCaller, executorService).join();
+        long elapsed = System.nanoTime() - start;
+        executorService.shutdown();
+        executorService.awaitTermination(10, TimeUnit.SECONDS);
+        System.out.printf("%-8s %12d %14d %10.1f %10d%n", "digest", smartCaller.getCallCount(), 1, (grouped - start) / 1e6, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+}
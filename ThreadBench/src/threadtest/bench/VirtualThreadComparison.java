@@ -0,0 +1,115 @@
+package threadtest.bench;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import threadtest.pool.CountingThreadFactory;
+import threadtest.pool.PoolType;
+
+/*
+ * newCachedThreadPool 과 가상 쓰레드 풀에 블록되는 작업을 동시에 N 개 (기본 10,000 / 100,000) 띄워 비교한다.
+ *  - 모든 작업이 동시에 떠 있는 시점에 heap / RSS 증가량을 재서 작업 1건당 메모리를 구한다.
+ *  - 그 뒤 작업을 풀어주고 (각 작업은 task1 처럼 Thread.sleep(10)) 전부 끝날 때까지의 처리량을 잰다.
+ *
+ *  JMH 로 재기에는 한번 실행이 너무 무거워서 main 으로 실행하는 측정기로 만들었다.
+ *  실행 예 : java -cp ThreadBench/target/benchmarks.jar threadtest.bench.VirtualThreadComparison 10000,100000 cached,virtual
+ *  ( cached 로 100,000 개는 OS 쓰레드 한도(ulimit -u, 메모리)에 걸려 실패할 수 있다. 실패도 결과로 출력한다. )
+ */
+public class VirtualThreadComparison {
+
+    static final long TASK_SLEEP_MILLIS = 10L;
+
+    public static void main(String[] args) throws Exception {
+        String counts = args.length > 0 ? args[0] : "10000,100000";
+        String modes = args.length > 1 ? args[1] : "cached,virtual";
+
+        System.out.printf("%-8s %8s %12s %14s %14s %10s %12s%n",
+                "mode", "tasks", "threads", "heap/task(B)", "rss/task(B)", "time(ms)", "tasks/s");
+        for (String count : counts.split(",")) {
+            for (String mode : modes.split(",")) {
+                run(PoolType.of(mode), Integer.parseInt(count.trim()));
+            }
+        }
+    }
+
+    static void run(PoolType poolType, int taskCount) throws InterruptedException {
+        CountingThreadFactory threadFactory = new CountingThreadFactory(poolType.name().toLowerCase(), poolType.baseThreadFactory());
+        ExecutorService executorService = poolType.create(threadFactory);
+        CountDownLatch started = new CountDownLatch(taskCount);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(taskCount);
+
+        long heapBefore = usedHeap();
+        long rssBefore = rss();
+        long startNanos = System.nanoTime();
+        int submitted = 0;
+        try {
+            for (; submitted < taskCount; submitted++) {
+                executorService.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                        Thread.sleep(TASK_SLEEP_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        finished.countDown();
+                    }
+                });
+            }
+        } catch (Throwable e) {
+            // 플랫폼 쓰레드는 OS 한도에 걸리면 OutOfMemoryError( unable to create native thread ) 가 난다.
+            System.out.printf("%-8s %8d  failed after %d tasks : %s%n", poolType, taskCount, submitted, e);
+            release.countDown();
+            shutdown(executorService);
+            return;
+        }
+
+        started.await();
+        long heapPerTask = (usedHeap() - heapBefore) / taskCount;
+        long rssPerTask = rssBefore < 0 ? -1 : (rss() - rssBefore) / taskCount;
+
+        release.countDown();
+        finished.await();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        System.out.printf("%-8s %8d %12d %14d %14d %10d %12.0f%n",
+                poolType, taskCount, threadFactory.getCreatedCount(), heapPerTask, rssPerTask,
+                elapsedMillis, taskCount * 1000.0 / Math.max(1, elapsedMillis));
+        shutdown(executorService);
+    }
+
+    static void shutdown(ExecutorService executorService) throws InterruptedException {
+        executorService.shutdown();
+        if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
+            executorService.shutdownNow();
+        }
+    }
+
+    static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // 플랫폼 쓰레드 스택은 heap 밖(native)에 잡히므로 리눅스에서는 프로세스 RSS 도 같이 본다.
+    static long rss() {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (Exception e) {
+            return -1;
+        }
+        return -1;
+    }
+}
@@ -1,3 +1,5 @@
+import threadtest.log.AsyncConsole;
+
 public class RunnableRun implements Runnable {
 
     private int temp;
@@ -9,7 +11,7 @@ public class RunnableRun implements Runnable {
     @Override
     public void run() {
         for (int i = 0; i < 10; i++) {
-            System.out.println(temp+i);
+            AsyncConsole.println(temp+i);
         }
     }
 }
@@ -1,9 +1,11 @@
+import threadtest.log.AsyncConsole;
+
 public class ThreadRun extends Thread{
     @Override
     public void run() {
         super.run();
                 for (int i = 0; i < 10; i++) {
-            System.out.println(i);
+            AsyncConsole.println(i);
             try {
                 Thread.sleep(1000);
             } catch (InterruptedException e) {
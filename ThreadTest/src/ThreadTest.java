@@ -8,6 +8,7 @@
  * 
  * 3. 공유 데이터(객체)
  *  Runnable 인터페이스로 구현된 객체의 생성자에 공유 데이터를 주입하여 사용함
+ *  여러 쓰레드가 같이 올리는 카운터 / user 별 카운트는 threadtest.shared.StripedCounter, ConcurrentIntLongMap 참고
  * 
  * 4. 쓰레드 풀
  *  1. 자동으로 스레드 수 생성
@@ -19,10 +20,17 @@
  *  4. 완전 수동
  *      ThreadPoolExecutor( 코어 스레드 수, 최대 스레드 개수, 놀고 있는 시간, 놀고있는 시간 단위, 작업 큐 )
  *      ExecutorService executorServiceWithCustom = new ThreadPoolExecutor(3, 100, 120L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+ *      몰리면 바로 100개까지 늘고 한가해져도 120초 동안 쓰레드를 들고 있다. 부하에 따라 크기를 조절하는 버전은
+ *      threadtest.pool.AdaptiveThreadPoolExecutor ( 실행 인자 adaptive ) 참고
  *  5. 단일 쓰레드
  *      ExecutorService executorServiceSingle = Executors.newSingleThreadExecutor():
  *      이 메서드는 단일 스레드로 작업을 실행합니다. 
  *      하나의 작업이 완료되기 전까지 다른 작업이 실행되지 않습니다. 주로 작업 순서를 보장해야 할 때 사용됩니다.
+ *  6. 가상 쓰레드 ( Java 21 )
+ *      ExecutorService executorServiceVirtual = Executors.newVirtualThreadPerTaskExecutor();
+ *      작업마다 가벼운 가상 쓰레드를 만든다. sleep / IO 로 블록되면 OS 쓰레드를 반납하므로
+ *      블록되는 작업이 많을 때 newCachedThreadPool 처럼 OS 쓰레드가 수천개씩 생기지 않는다.
+ *      ( 실행 인자로 virtual 을 주면 아래 main 이 가상 쓰레드로 실행된다. threadtest.pool.PoolType 참고 )
  * 
  * 
  * 5. 쓰레드풀 종류
@@ -86,10 +94,16 @@
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import threadtest.async.Completions;
+import threadtest.log.AsyncConsole;
+import threadtest.pool.GracefulShutdown;
+import threadtest.pool.PoolType;
+
 public class ThreadTest {
     public static void main(String[] args) {
         // ThreadRun t = new ThreadRun();
@@ -103,6 +117,8 @@ public class ThreadTest {
         // System.out.println(999 - i);
         // }
 
+        // 아래 "최종 합" 을 구간으로 나눠 여러 쓰레드로 더하는 버전은 threadtest.parallel.RangeReducer 참고
+        // ( ThreadRun / sub1, sub2 join 처럼 쓰레드가 실행 / 대기 / sleep 중 어디에 시간을 쓰는지 보려면 threadtest.profile.ThreadProfiler 참고 )
         // Runnable task = new Runnable() {
         // @Override
         // public void run() {
@@ -126,13 +142,16 @@ public class ThreadTest {
         // }
 
         // 스레드 풀 생성
-        // 자동으로 스레드 수 생성
-        ExecutorService executorServiceWithCached = Executors.newCachedThreadPool();
+        // 자동으로 스레드 수 생성 ( Executors.newCachedThreadPool() )
+        // 실행 인자로 virtual 을 주면 Executors.newVirtualThreadPerTaskExecutor() 로 실행
+        PoolType poolType = args.length > 0 ? PoolType.of(args[0]) : PoolType.CACHED;
+        ExecutorService executorService = poolType.create();
 
         // Runable 구현 객체 ( 익명구현객체 사용 )
+        // System.out.println 은 synchronized 라서 여러 쓰레드가 같은 락을 두고 경쟁한다. 비동기 출력(AsyncConsole)으로 대신함
         Runnable task1 = () -> {
             for (int index = 0; index < 100; index++) {
-                System.out.println("working");
+                AsyncConsole.println("working");
                 try {
                     Thread.sleep(10);
                 } catch (InterruptedException e) {
@@ -146,7 +165,7 @@ public class ThreadTest {
             Boolean isFinish = true;
 
             for (int index = 0; index < 100; index++) {
-                System.out.println("working Call");
+                AsyncConsole.println("working Call");
                 try {
                     Thread.sleep(10);
                 } catch (InterruptedException e) {
@@ -158,37 +177,47 @@ public class ThreadTest {
         };
 
         // 1. 리턴 값이 없는 단순 Runnable를 처리합니다.
-        executorServiceWithCached.execute(task1);
+        executorService.execute(task1);
 
         // 2. 리턴 가능한 Callable도 넣을 수 있는 메서드 입니다.
-        Future<Boolean> returnBoolean = executorServiceWithCached.submit(task2);
+        // Future<Boolean> returnBoolean = executorService.submit(task2);
+        CompletableFuture<Boolean> returnBoolean = Completions.submit(executorService, task2);
 
-        // main스레드의 작업이 멈추지 않기 위해 새로운 스레드로 구성
-        executorServiceWithCached.execute(() -> {
-            try {
-                if (returnBoolean.get()) {
-                    System.out.println("working end");
-                } else {
-                    System.out.println("working fail");
-                }
-            } catch (Exception e) {
-            }
-        });
-
-        // main스레드의 작업이 멈추지 않기 위해 새로운 스레드로 구성
-        // executorServiceWithCached.execute(() -> {
+        // main스레드의 작업이 멈추지 않기 위해 새로운 스레드로 구성 ( 예전 방식 )
+        //  returnBoolean.get() 에서 결과가 나올 때까지 풀 쓰레드 하나가 그대로 블록된다.
+        // executorService.execute(() -> {
         //     try {
-        //         // 만약 특정 시간 내에 끝났는지 확인하려는 경우
-        //         if (returnBoolean.get(1, TimeUnit.SECONDS)) {
+        //         if (returnBoolean.get()) {
         //             System.out.println("working end");
+        //         } else {
+        //             System.out.println("working fail");
         //         }
         //     } catch (Exception e) {
-        //         System.out.println("working fail");
         //     }
         // });
 
+        // 기다리는 쓰레드 없이 완료 콜백만 등록한다. task2 를 끝낸 쓰레드가 이어서 실행함
+        Completions.onComplete(returnBoolean, isFinish -> {
+            if (isFinish) {
+                AsyncConsole.println("working end");
+            } else {
+                AsyncConsole.println("working fail");
+            }
+        }, e -> AsyncConsole.println("working fail"));
+
+        // 만약 특정 시간 내에 끝났는지 확인하려는 경우 ( returnBoolean.get(1, TimeUnit.SECONDS) 와 동일 )
+        // 시간이 지나면 TimeoutException 으로 실패 콜백이 호출된다.
+        // ( 여러 작업 중 제한 시간 안에 끝난 것만 모으거나 느린 호출을 다시 보내는 예는 threadtest.shop.PriceFinder.findPricesWithin / threadtest.async.Hedger 참고 )
+        // CompletableFuture<Boolean> returnBoolean = Completions.submit(executorService, task2, 1, TimeUnit.SECONDS);
+        // Completions.onComplete(returnBoolean,
+        //         isFinish -> System.out.println("working end"),
+        //         e -> System.out.println("working fail"));
+
         // 처리할 task가 여러개일 경우 아래와 같이 한번에 처리 및 실행 (submit) 후에
         // get()을 통해 순차적으로 결과를 받으면 된다.
+        // ( 실제 동작하는 코드는 threadtest.fanout.FanOutWorker, PoolType.VIRTUAL 로 가상 쓰레드 실행 가능 )
+        // taskList 가 아주 크다면 futureList 와 작업 큐가 끝없이 커지므로
+        // threadtest.fanout.BoundedSubmitter 로 동시에 실행되는 작업 수를 제한하고 결과는 끝나는 대로 처리한다.
         // ArrayList<Future<HashMap<String,String>>> futureList = new ArrayList<>();
 		// ArrayList<Callable<HashMap<String,String>>> taskList = new ArrayList<>();
         // for (int index = 0; index < taskList.size(); index++) {
@@ -197,6 +226,8 @@ public class ThreadTest {
         //     futureList.add( returnMap );
         // }
         
+        // 아래처럼 submit 순서대로 get() 하면 앞의 작업 하나가 느릴 때 뒤의 결과가 전부 기다린다.
+        // 끝난 순서대로 받으려면 ExecutorCompletionService 사용 ( threadtest.fanout.CompletionFanOutWorker )
         // for (int index = 0; index < futureList.size(); index++) {
         //     Future<HashMap<String,String>> returnMap = futureList.get(index);
         //     HashMap<String, String> weatherMap = returnMap.get();
@@ -217,7 +248,13 @@ public class ThreadTest {
         // 작업 큐에 대기하고 있는 모든 작업이 끝난 뒤 스레드를 종료한다.
         // 더 이상 새로운 작업을 받지 않음.
         // 이미 큐에 있는 작업들은 끝날 때까지 실행함.
-        executorServiceWithCached.shutdown();
+        // executorService.shutdown();
+
+        // 위의 shutdown() 은 기다리지 않고 바로 리턴한다. 아래 주석의 shutdown / awaitTermination / shutdownNow 순서를
+        // GracefulShutdown 으로 묶어서 실행하고, 걸린 시간과 버려진 작업 수를 로그로 남긴다.
+        // ( 가상 쓰레드는 항상 데몬 쓰레드라서 main 이 기다려주지 않으면 JVM 이 바로 종료된다. )
+        // JVM 종료 시에도 같은 순서로 닫으려면 GracefulShutdown.defaults().registerShutdownHook("ThreadTest", executorService)
+        GracefulShutdown.defaults().shutdown("ThreadTest", executorService);
 
 
         // executorService.shutdown();
@@ -235,6 +272,9 @@ public class ThreadTest {
 }
 /* 
 CompletableFuture 을 이용해 아래와 같이 짬
+( sendAlertsAsync 와 알림을 묶어서 보내는 방식은 threadtest.worker.DeliveryDelayAlerts / AlertBatcher 참고 )
+( 실행마다 JVM 과 쓰레드 풀을 새로 만들지 않고 한 프로세스 안에서 주기적으로 돌리는 방식은 threadtest.schedule.JobScheduler / threadtest.worker.DeliveryDelayJob 참고 )
+( 알림 도중 죽었을 때 이미 보낸 문서는 건너뛰고 이어서 보내는 방식은 threadtest.journal.SentJournal / DeliveryDelayAlerts.sendAlertsJournaled / DeliveryDelayJob 참고 )
 
 public class XFDeliveryDelayListWorker {
 
@@ -245,6 +285,8 @@ public class XFDeliveryDelayListWorker {
         ExecutorService executorService = Executors.newFixedThreadPool(10);
 		try {
             // 현재 상태를 체크 한다.
+            // ( isLock 후 setLock 은 동시에 시작하면 둘 다 통과할 수 있고, 죽으면 락이 영원히 남는다.
+            //   lease 방식의 threadtest.lock.JobLockService 참고 )
 			if(XFSchWorkManager.isLock("XFDeliveryDelayListWorker")) {
 				throw new IOException("XFDeliveryDelayListWorker 가 이미 실행중입니다.");
 			} else {
@@ -259,6 +301,8 @@ public class XFDeliveryDelayListWorker {
             CompletableFuture<List<Map<String, Object>>> resendFuture = runSearchAsync(manager::searchListAboutResend, executorService, "resend list");
             CompletableFuture<List<Map<String, Object>>> notSendFuture = runSearchAsync(manager::searchListAboutNotSend, executorService, "not send list");
             
+            // ( exceptionally 가 실패를 빈 목록으로 바꾸므로 조회 하나가 실패해도 나머지는 끝까지 돌고 알림도 그대로 나간다.
+            //   실패하면 나머지를 취소하고 실패를 올리는 버전은 threadtest.worker.DeliveryDelaySearch.searchAll / threadtest.async.TaskScope 참고 )
             // CompletableFuture.allOf(failFuture, resendFuture, notSendFuture).join();
             // List<Map<String, Object>> searchListAboutFail = failFuture.join();
             // List<Map<String, Object>> searchListAboutResend = resendFuture.join();
@@ -283,8 +327,12 @@ public class XFDeliveryDelayListWorker {
                 return;
             }
 
+            // ( 알림 서비스가 느려지면 10개 쓰레드가 그대로 두드려서 타임아웃만 늘어난다. 호출 수를 조절하고 재시도하는 버전은
+            //   threadtest.worker.LimitedSmartCaller / threadtest.limit 참고 )
             ISmartCaller smartCaller = new SmartCaller();
 
+            // ( 세 목록에 같은 사용자가 여러번 나오면 그 사용자는 문서마다 알림을 받는다. 사용자별로 합쳐서 1건씩 보내는 버전은
+            //   threadtest.worker.UserAlertDigest 참고 )
             CompletableFuture<Void> failAlertFuture = sendAlertsAsync(searchListAboutFail, "3일이 지난 발송 실패 문서들이 존재합니다. 확인 바랍니다.", smartCaller, executorService);
             CompletableFuture<Void> resendAlertFuture = sendAlertsAsync(searchListAboutResend, "3일이 지난 재발송 요청 문서들이 존재합니다. 확인 바랍니다.", smartCaller, executorService);
             CompletableFuture<Void> notSendAlertFuture = sendAlertsAsync(searchListAboutNotSend, "3일이 지난 미수신 문서들이 존재합니다. 확인 바랍니다.", smartCaller, executorService);
@@ -368,6 +416,7 @@ public class XFDeliveryDelayListWorker {
 
 /* 
 2번쨰 예시
+( 실제 코드로 옮긴 것은 threadtest.shop.PriceFinder, 원격 호출마다 쓰레드 풀을 나눈 버전은 threadtest.shop.Bulkhead 참고 )
 
 질문하신 코드와 설명을 바탕으로 `findPrices` 메서드의 동작을 단계별로 쉽게 풀어서 설명드리겠습니다. 이 코드는 Java의 `CompletableFuture`를 사용하여 여러 상점에서 제품 가격을 비동기적으로 조회하고, 할인된 최종 가격을 계산하는 예제입니다. 설명이 이해하기 어려웠다고 하셨으니, 핵심 개념을 명확히 하고 코드의 각 부분이 무엇을 하는지, 왜 그렇게 설계되었는지 자세히 설명하겠습니다.
 
@@ -444,6 +493,7 @@ public class XFDeliveryDelayListWorker {
 - **왜 `thenApply`인가?**:
   - `Quote.parse`는 단순한 데이터 변환 작업이므로 별도 스레드에서 실행할 필요가 없습니다.
   - `thenApply`는 이전 작업의 결과를 받아 즉시 처리하므로 적합합니다.
+  ( 상점이 많으면 이 변환도 상점마다 split / parseDouble / String.format 객체를 만든다. 중간 String 없이 센트 단위로 파싱하는 버전은 threadtest.shop.QuoteCodec 참고 )
 
 #### 4. 세 번째 `map`: 할인된 가격 계산
 ```java
@@ -0,0 +1,62 @@
+package threadtest.async;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/*
+ * Future.get() 으로 결과를 기다리는 "감시 쓰레드" 대신 완료 콜백을 등록하는 도우미
+ *
+ *  기존 방식 : executorService.execute(() -> returnBoolean.get() ...)
+ *      결과를 기다리는 동안 풀 쓰레드 하나가 통째로 블록된다. 기다리는 Future 가 N 개면 쓰레드도 N 개.
+ *  콜백 방식 : Completions.submit(executorService, task2).thenAccept(...)
+ *      작업을 끝낸 쓰레드가 이어서 콜백을 실행하므로 기다리기만 하는 쓰레드가 없다.
+ */
+public final class Completions {
+
+    private Completions() {
+    }
+
+    // Callable 을 CompletableFuture 로 실행한다. ( checked 예외는 CompletionException 으로 감싼다 )
+    public static <T> CompletableFuture<T> submit(Executor executor, Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    // returnBoolean.get(1, TimeUnit.SECONDS) 와 같은 제한 시간
+    //  시간 안에 끝나지 않으면 TimeoutException 으로 완료된다. ( 실행중인 작업 자체를 멈추지는 않는다 )
+    public static <T> CompletableFuture<T> submit(Executor executor, Callable<T> task, long timeout, TimeUnit unit) {
+        return submit(executor, task).orTimeout(timeout, unit);
+    }
+
+    // 성공 / 실패 콜백을 한번에 등록한다. 실패 콜백에는 CompletionException 을 벗긴 원래 예외가 넘어간다.
+    public static <T> CompletableFuture<Void> onComplete(CompletableFuture<T> future, Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        return future.handle((result, throwable) -> {
+            if (throwable == null) {
+                onSuccess.accept(result);
+            } else {
+                onFailure.accept(unwrap(throwable));
+            }
+            return null;
+        });
+    }
+
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,142 @@
+package threadtest.async;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import threadtest.pool.LatencyHistogram;
+
+/*
+ * 느린 호출을 한번 더 보내는 ( hedged request ) 도우미
+ *
+ *  호출을 보내고 hedge 지연 시간 안에 끝나지 않으면 같은 호출을 한번 더 보내서 ( 다른 복제본 ) 먼저 성공한 결과를 쓴다.
+ *  hedge 지연 시간은 지금까지 성공한 호출 시간의 percentile ( 기본 p95 ) 이다.
+ *   - 호출 100번 중 5번 정도만 두번 나가므로 부하는 약 5% 늘고, 느린 꼬리( p99 ) 는 크게 줄어든다.
+ *   - 표본이 MIN_SAMPLES 개가 안 되면 initialDelay 를 쓴다.
+ *  첫 호출이 실패하면 기다리지 않고 바로 한번 더 보낸다. 두 번 다 실패하면 마지막 실패로 끝난다.
+ *  진 쪽 Future 는 cancel 한다. ( supplyAsync 로 돌고 있는 작업 자체가 멈추지는 않는다 )
+ */
+public class Hedger {
+
+    static final int MIN_SAMPLES = 100;
+
+    private final double percentile;
+    private final long initialDelayNanos;
+    private final long minDelayNanos;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    public Hedger(double percentile, long initialDelay, long minDelay, TimeUnit unit) {
+        this.percentile = percentile;
+        this.initialDelayNanos = unit.toNanos(initialDelay);
+        this.minDelayNanos = unit.toNanos(minDelay);
+    }
+
+    // p95, 표본이 모이기 전에는 initialDelay
+    public Hedger(long initialDelay, TimeUnit unit) {
+        this(95.0, initialDelay, 1L, unit);
+    }
+
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> attempt) {
+        calls.increment();
+        HedgedCall<T> call = new HedgedCall<>(attempt);
+        call.attempt(false);
+        long delayNanos = hedgeDelayNanos();
+        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(call::hedge);
+        return call.result;
+    }
+
+    public long hedgeDelayNanos() {
+        if (latencies.getCount() < MIN_SAMPLES) {
+            return initialDelayNanos;
+        }
+        return Math.max(minDelayNanos, latencies.percentile(percentile));
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getHedged() {
+        return hedged.sum();
+    }
+
+    // 두번째 호출이 먼저 성공한 수
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("호출 %d, 다시 보냄 %d ( %.1f%% ), 다시 보낸 쪽이 이김 %d, 지연 p%.0f=%dms", getCalls(), getHedged(),
+                getCalls() == 0 ? 0.0 : getHedged() * 100.0 / getCalls(), getHedgeWins(), percentile, TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos()));
+    }
+
+    private final class HedgedCall<T> {
+        final Supplier<CompletableFuture<T>> supplier;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final List<CompletableFuture<T>> attempts = new CopyOnWriteArrayList<>();
+        final AtomicBoolean hedgeIssued = new AtomicBoolean();
+        final AtomicInteger failures = new AtomicInteger();
+
+        HedgedCall(Supplier<CompletableFuture<T>> supplier) {
+            this.supplier = supplier;
+            // 결과가 정해지면 남은 호출은 취소
+            result.whenComplete((value, error) -> attempts.forEach(attempt -> attempt.cancel(false)));
+        }
+
+        void hedge() {
+            if (!result.isDone() && hedgeIssued.compareAndSet(false, true)) {
+                hedged.increment();
+                attempt(true);
+            }
+        }
+
+        void attempt(boolean isHedge) {
+            long startNanos = System.nanoTime();
+            CompletableFuture<T> future;
+            try {
+                future = supplier.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            attempts.add(future);
+            if (result.isDone()) {
+                future.cancel(false);
+            }
+            future.whenComplete((value, error) -> {
+                if (error == null) {
+                    latencies.record(System.nanoTime() - startNanos);
+                    if (result.complete(value) && isHedge) {
+                        hedgeWins.increment();
+                    }
+                    return;
+                }
+                if (result.isDone()) {
+                    if (error instanceof CancellationException && !isHedge) {
+                        // 다시 보낸 쪽에 져서 취소된 첫 호출. 첫 호출 시작부터 적어도 이만큼은 걸렸다는 값으로 남겨야
+                        // percentile 이 빠른 쪽으로만 쏠리지 않는다. ( 진 hedge 호출은 늦게 시작해서 몇 ms 짜리 값이 되므로
+                        // 남기면 p95 가 내려가고 hedge 가 더 자주 나가므로 남기지 않는다 )
+                        latencies.record(System.nanoTime() - startNanos);
+                    }
+                    return;
+                }
+                if (!isHedge) {
+                    // 첫 호출이 실패 : 기다리지 않고 바로 다시 보낸다.
+                    hedge();
+                }
+                if (failures.incrementAndGet() >= 2) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package threadtest.async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * 여러 작업을 한 묶음으로 띄우고 묶음 단위로 끝내는 scope ( Java 21 의 StructuredTaskScope 는 preview 라서 직접 구현 )
+ *
+ *  XFDeliveryDelayListWorker 는 fail / resend / notSend 조회를 CompletableFuture.allOf 로 묶는데
+ *   - exceptionally 가 실패를 빈 목록으로 바꿔서, 하나가 실패해도 나머지는 끝까지 돌고 실패는 로그에만 남는다.
+ *   - 실패를 그대로 두더라도 allOf 는 나머지가 끝날 때까지 기다리고, 남은 작업을 멈추지 않는다.
+ *  scope 는
+ *   - fork 한 작업이 끝날 때마다 정책( ShutdownOnFailure / ShutdownOnSuccess ) 에 알려서
+ *   - 정책이 shutdown() 을 부르면 아직 안 끝난 작업을 취소 ( 실행중이면 interrupt ) 해서 쓰레드를 바로 돌려준다.
+ *   - close() 는 fork 한 작업의 쓰레드가 전부 빠져나올 때까지 기다린다. ( scope 밖으로 작업이 새지 않음 )
+ *
+ *  사용 예
+ *      try (TaskScope.ShutdownOnFailure scope = TaskScope.shutdownOnFailure(executorService)) {
+ *          TaskScope.Subtask<List<Map<String, Object>>> fail = scope.fork("fail list", manager::searchListAboutFail);
+ *          TaskScope.Subtask<List<Map<String, Object>>> resend = scope.fork("resend list", manager::searchListAboutResend);
+ *          scope.join().throwIfFailed();   // 실패하면 "fail list 실패 : ..." ExecutionException
+ *          fail.result(); resend.result();
+ *      }
+ */
+public class TaskScope implements AutoCloseable {
+
+    // fork 한 작업 하나. 이름( 조회 메소드 이름 등 ) 을 같이 들고 있어서 실패 메시지에 쓴다.
+    //  Future 가 아니다. 기다리는 것은 scope.join() 이 하고, 여기서는 끝난 결과만 꺼낸다. ( StructuredTaskScope.Subtask 와 같은 방식 )
+    //  상태는 Future.State ( RUNNING / SUCCESS / FAILED / CANCELLED )
+    public static final class Subtask<T> {
+        private final String name;
+        private final TaskScope scope;
+        // 쓰레드가 run() 에 들어갔는지. 시작 전에 취소된 작업은 close() 가 기다리지 않는다.
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        // executor 에 넘기는 실제 작업 ( 밖으로 내보내지 않는다 )
+        private final FutureTask<T> task;
+
+        Subtask(String name, Callable<T> callable, TaskScope scope) {
+            this.name = name;
+            this.scope = scope;
+            this.task = new FutureTask<>(callable) {
+                @Override
+                public void run() {
+                    if (!claimed.compareAndSet(false, true)) {
+                        return;
+                    }
+                    try {
+                        super.run();
+                    } finally {
+                        scope.threadExited();
+                    }
+                }
+
+                @Override
+                protected void done() {
+                    scope.completed(Subtask.this);
+                }
+            };
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public Future.State state() {
+            return task.state();
+        }
+
+        // 성공한 결과. 기다리지 않는다. 성공하지 않았으면 IllegalStateException
+        public T result() {
+            if (state() != Future.State.SUCCESS) {
+                throw new IllegalStateException(name + " : " + state());
+            }
+            return task.resultNow();
+        }
+
+        public Throwable exception() {
+            return state() == Future.State.FAILED ? task.exceptionNow() : null;
+        }
+
+        boolean isDone() {
+            return task.isDone();
+        }
+
+        boolean isCancelled() {
+            return task.isCancelled();
+        }
+
+        void cancelFromScope() {
+            if (claimed.compareAndSet(false, true)) {
+                // 아직 시작 전 : 실행되지 않게 막고 바로 빠진 것으로 센다.
+                task.cancel(false);
+                scope.threadExited();
+            } else {
+                task.cancel(true);
+            }
+        }
+    }
+
+    private final Executor executor;
+    private final List<Subtask<?>> subtasks = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private int unfinished;
+    private int running;
+    private boolean shutdown;
+    private boolean closed;
+
+    public TaskScope(Executor executor) {
+        this.executor = executor;
+    }
+
+    public static ShutdownOnFailure shutdownOnFailure(Executor executor) {
+        return new ShutdownOnFailure(executor);
+    }
+
+    public static <T> ShutdownOnSuccess<T> shutdownOnSuccess(Executor executor) {
+        return new ShutdownOnSuccess<>(executor);
+    }
+
+    public <T> Subtask<T> fork(String name, Callable<T> task) {
+        Subtask<T> subtask = new Subtask<>(name, task, this);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("scope 가 이미 닫혔습니다.");
+            }
+            subtasks.add(subtask);
+            unfinished++;
+            running++;
+            if (shutdown) {
+                // shutdown 뒤에 fork 한 작업은 실행하지 않는다.
+                subtask.cancelFromScope();
+                return subtask;
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            executor.execute(subtask.task);
+        } catch (RejectedExecutionException e) {
+            subtask.cancelFromScope();
+            throw e;
+        }
+        return subtask;
+    }
+
+    // 모든 작업이 끝나거나 정책이 shutdown 할 때까지 기다린다.
+    public TaskScope join() throws InterruptedException {
+        lock.lock();
+        try {
+            while (unfinished > 0 && !shutdown) {
+                changed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    public TaskScope joinUntil(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (unfinished > 0 && !shutdown) {
+                if (remaining <= 0) {
+                    shutdownLocked();
+                    throw new TimeoutException("scope 제한 시간 " + timeout + " " + unit + " 초과");
+                }
+                remaining = changed.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    // 아직 안 끝난 작업을 전부 취소한다. 실행중인 작업은 interrupt 된다.
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdownLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return shutdown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // shutdown 하고 fork 한 작업의 쓰레드가 전부 빠져나올 때까지 기다린다.
+    @Override
+    public void close() {
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            closed = true;
+            shutdownLocked();
+            while (running > 0) {
+                try {
+                    changed.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 정책 : 작업 하나가 성공 / 실패로 끝났을 때 호출된다. 작업을 실행한 쓰레드에서 불린다.
+    protected void handleComplete(Subtask<?> subtask) {
+    }
+
+    protected List<Subtask<?>> subtasks() {
+        lock.lock();
+        try {
+            return new ArrayList<>(subtasks);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void shutdownLocked() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        for (Subtask<?> subtask : subtasks) {
+            if (!subtask.isDone()) {
+                subtask.cancelFromScope();
+            }
+        }
+        changed.signalAll();
+    }
+
+    private void completed(Subtask<?> subtask) {
+        // shutdown 으로 취소된 작업까지 정책에 알릴 필요는 없다.
+        if (!subtask.isCancelled()) {
+            handleComplete(subtask);
+        }
+        lock.lock();
+        try {
+            unfinished--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void threadExited() {
+        lock.lock();
+        try {
+            running--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 하나라도 실패하면 나머지를 취소한다. 첫 실패를 작업 이름과 함께 전달
+    public static class ShutdownOnFailure extends TaskScope {
+        private volatile Subtask<?> firstFailure;
+
+        public ShutdownOnFailure(Executor executor) {
+            super(executor);
+        }
+
+        @Override
+        public ShutdownOnFailure join() throws InterruptedException {
+            super.join();
+            return this;
+        }
+
+        @Override
+        public ShutdownOnFailure joinUntil(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+            super.joinUntil(timeout, unit);
+            return this;
+        }
+
+        @Override
+        protected void handleComplete(Subtask<?> subtask) {
+            if (subtask.state() == Future.State.FAILED) {
+                synchronized (this) {
+                    if (firstFailure == null) {
+                        firstFailure = subtask;
+                    }
+                }
+                shutdown();
+            }
+        }
+
+        public Subtask<?> failedSubtask() {
+            return firstFailure;
+        }
+
+        public void throwIfFailed() throws ExecutionException {
+            Subtask<?> failure = firstFailure;
+            if (failure != null) {
+                Throwable cause = failure.exception();
+                throw new ExecutionException(failure.name() + " 실패 : " + cause.getMessage(), cause);
+            }
+        }
+    }
+
+    // 하나라도 성공하면 그 결과를 쓰고 나머지를 취소한다. ( 같은 조회를 여러 곳에 보내고 가장 빠른 것을 쓸 때 )
+    public static class ShutdownOnSuccess<T> extends TaskScope {
+        private volatile Subtask<? extends T> firstSuccess;
+
+        public ShutdownOnSuccess(Executor executor) {
+            super(executor);
+        }
+
+        @Override
+        public ShutdownOnSuccess<T> join() throws InterruptedException {
+            super.join();
+            return this;
+        }
+
+        @Override
+        public ShutdownOnSuccess<T> joinUntil(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+            super.joinUntil(timeout, unit);
+            return this;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void handleComplete(Subtask<?> subtask) {
+            if (subtask.state() == Future.State.SUCCESS) {
+                synchronized (this) {
+                    if (firstSuccess == null) {
+                        firstSuccess = (Subtask<? extends T>) subtask;
+                    }
+                }
+                shutdown();
+            }
+        }
+
+        // 먼저 성공한 결과. 모두 실패했으면 작업별 실패를 suppressed 로 붙여서 던진다.
+        public T result() throws ExecutionException {
+            Subtask<? extends T> success = firstSuccess;
+            if (success != null) {
+                return success.result();
+            }
+            ExecutionException failure = new ExecutionException("성공한 작업이 없습니다.", null);
+            for (Subtask<?> subtask : subtasks()) {
+                Throwable cause = subtask.state() == Future.State.FAILED ? subtask.exception() : new CancellationException(subtask.name() + " 취소");
+                failure.addSuppressed(new ExecutionException(subtask.name() + " 실패 : " + cause.getMessage(), cause));
+            }
+            throw failure;
+        }
+
+        public String winner() {
+            Subtask<? extends T> success = firstSuccess;
+            return success == null ? null : success.name();
+        }
+    }
+}
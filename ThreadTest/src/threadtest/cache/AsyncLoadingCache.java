@@ -0,0 +1,229 @@
+package threadtest.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import threadtest.pool.LatencyHistogram;
+
+/*
+ * 값을 CompletableFuture 로 들고 있는 캐시 ( shop.getPrice / applyDiscount 처럼 느린 원격 호출 결과용 )
+ *
+ *  - 같은 키 요청이 동시에 들어오면 원격 호출은 한번만 하고 나머지는 같은 Future 를 받는다. ( 요청 합치기 )
+ *  - 값은 불러오기가 끝난 시점부터 ttl 동안만 쓴다. 불러오는 중인 값은 만료되지 않는다.
+ *  - 불러오기가 실패하면 캐시에서 빼서 다음 요청이 다시 불러오게 한다. ( 실패를 캐시하지 않음 )
+ *  - 최대 maximumSize 개. 넘치면 가장 오래 안 쓴 것부터 뺀다. ( LRU )
+ *  - 호출하는 쪽에는 캐시가 들고 있는 Future 의 copy() 를 준다. 한 호출자가 cancel / complete 해도 캐시 값과 다른 호출자는 그대로다.
+ *
+ *  키를 해시해서 segment 여러개로 나누고, segment 마다 접근 순서 LinkedHashMap + 락을 둔다.
+ *  ( 락 하나로 전체 LRU 를 유지하면 get 마다 모든 쓰레드가 줄을 선다. 대신 LRU 는 segment 안에서만 정확하다. )
+ */
+public class AsyncLoadingCache<K, V> {
+
+    static final int DEFAULT_SEGMENTS = 16;
+
+    private static final class Entry<V> {
+        final CompletableFuture<V> future;
+        // 완료 전에는 Long.MAX_VALUE ( 만료되지 않음 )
+        volatile long expiresAtNanos = Long.MAX_VALUE;
+
+        Entry(CompletableFuture<V> future) {
+            this.future = future;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAtNanos != Long.MAX_VALUE && now - expiresAtNanos >= 0;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        final ReentrantLock lock = new ReentrantLock();
+        final int capacity;
+        final LinkedHashMap<K, Entry<V>> map;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.map = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        // lock 을 잡은 상태에서 호출. 뺀 개수를 돌려준다.
+        int evictIfNeeded() {
+            int evicted = 0;
+            Iterator<Map.Entry<K, Entry<V>>> iterator = map.entrySet().iterator();
+            while (map.size() > capacity && iterator.hasNext()) {
+                Entry<V> eldest = iterator.next().getValue();
+                // 불러오는 중인 값은 빼지 않는다. ( 빼면 같은 키를 또 불러오게 된다 )
+                if (eldest.future.isDone()) {
+                    iterator.remove();
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+    }
+
+    private final Function<? super K, CompletableFuture<V>> loader;
+    private final long ttlNanos;
+    private final Segment<K, V>[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+
+    // loader : 키 하나를 불러오는 비동기 호출. get(key, loader) 로 요청마다 다른 loader 를 줄 수도 있다.
+    public AsyncLoadingCache(int maximumSize, long ttl, TimeUnit unit, Function<? super K, CompletableFuture<V>> loader) {
+        this(maximumSize, ttl, unit, DEFAULT_SEGMENTS, loader);
+    }
+
+    // 기본 loader 없이 get(key, loader) 로만 쓸 때
+    public AsyncLoadingCache(int maximumSize, long ttl, TimeUnit unit) {
+        this(maximumSize, ttl, unit, DEFAULT_SEGMENTS, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public AsyncLoadingCache(int maximumSize, long ttl, TimeUnit unit, int segmentCount, Function<? super K, CompletableFuture<V>> loader) {
+        if (maximumSize < 1 || segmentCount < 1) {
+            throw new IllegalArgumentException("maximumSize=" + maximumSize + ", segmentCount=" + segmentCount);
+        }
+        this.loader = loader;
+        this.ttlNanos = unit.toNanos(ttl);
+        int count = Math.min(segmentCount, maximumSize);
+        this.segments = new Segment[count];
+        for (int index = 0; index < count; index++) {
+            // 나머지는 앞 segment 들에 하나씩 더 준다.
+            segments[index] = new Segment<>(maximumSize / count + (index < maximumSize % count ? 1 : 0));
+        }
+    }
+
+    public CompletableFuture<V> get(K key) {
+        return get(key, loader);
+    }
+
+    public CompletableFuture<V> get(K key, Function<? super K, CompletableFuture<V>> loader) {
+        Objects.requireNonNull(key);
+        Segment<K, V> segment = segmentFor(key);
+        Entry<V> created;
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.map.get(key);
+            if (entry != null) {
+                if (!entry.future.isDone()) {
+                    coalesced.increment();
+                    return entry.future.copy();
+                }
+                if (!entry.isExpired(System.nanoTime())) {
+                    hits.increment();
+                    return entry.future.copy();
+                }
+                segment.map.remove(key);
+                expirations.increment();
+            }
+            created = new Entry<>(new CompletableFuture<>());
+            segment.map.put(key, created);
+            evictions.add(segment.evictIfNeeded());
+            misses.increment();
+        } finally {
+            segment.lock.unlock();
+        }
+        // 원격 호출은 락 밖에서
+        load(segment, key, created, loader);
+        return created.future.copy();
+    }
+
+    // 값이 있고 만료되지 않았으면 그 값, 아니면 null ( 불러오지 않는다 )
+    public V getIfPresent(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.map.get(key);
+            if (entry == null || !entry.future.isDone() || entry.future.isCompletedExceptionally() || entry.isExpired(System.nanoTime())) {
+                return null;
+            }
+            return entry.future.getNow(null);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.map.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.map.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), coalesced.sum(), misses.sum(), loadFailures.sum(), evictions.sum(), expirations.sum(),
+                TimeUnit.NANOSECONDS.toMicros(loadLatency.percentile(50)), TimeUnit.NANOSECONDS.toMicros(loadLatency.percentile(99)));
+    }
+
+    private void load(Segment<K, V> segment, K key, Entry<V> entry, Function<? super K, CompletableFuture<V>> loader) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<V> loading;
+        try {
+            loading = Objects.requireNonNull(loader.apply(key), "loader 가 null 을 돌려줬습니다.");
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((value, error) -> {
+            long now = System.nanoTime();
+            loadLatency.record(now - startNanos);
+            if (error == null) {
+                entry.expiresAtNanos = now + ttlNanos;
+                entry.future.complete(value);
+                return;
+            }
+            loadFailures.increment();
+            // 실패는 캐시하지 않는다. 그 사이에 다른 값으로 바뀌었으면 건드리지 않음
+            segment.lock.lock();
+            try {
+                segment.map.remove(key, entry);
+            } finally {
+                segment.lock.unlock();
+            }
+            entry.future.completeExceptionally(error);
+        });
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[Math.floorMod(hash, segments.length)];
+    }
+}
@@ -0,0 +1,28 @@
+package threadtest.cache;
+
+/*
+ * AsyncLoadingCache 의 누적 통계 ( stats() 를 부른 시점의 값 )
+ *  hits       : 완료된 값이 있어서 바로 돌려준 수
+ *  coalesced  : 같은 키를 누가 이미 불러오는 중이라 그 Future 를 같이 받은 수 ( 원격 호출 없음 )
+ *  misses     : 새로 불러온 수 ( = 원격 호출 수 )
+ *  loadP50 / loadP99 : 불러오기 한번에 걸린 시간 ( 마이크로초 )
+ */
+public record CacheStats(long hits, long coalesced, long misses, long loadFailures, long evictions, long expirations,
+        long loadP50Micros, long loadP99Micros) {
+
+    public long requests() {
+        return hits + coalesced + misses;
+    }
+
+    // 원격 호출 없이 끝난 비율 ( 합쳐진 요청 포함 )
+    public double hitRate() {
+        long requests = requests();
+        return requests == 0 ? 0.0 : (double) (hits + coalesced) / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("요청 %d, hit %.1f%% ( hit %d, 합쳐짐 %d ), miss %d, 실패 %d, 밀려남 %d, 만료 %d, load p50/p99 %d/%dus",
+                requests(), hitRate() * 100, hits, coalesced, misses, loadFailures, evictions, expirations, loadP50Micros, loadP99Micros);
+    }
+}
@@ -0,0 +1,119 @@
+package threadtest.fanout;
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/*
+ * 동시에 실행중인 작업 수(in-flight)를 maxInFlight 개로 제한하면서 taskList 를 흘려보낸다.
+ *
+ *  FanOutWorker 처럼 taskList 를 전부 submit 하면 작업 큐와 futureList 가 taskList 크기만큼 커진다.
+ *  여기서는 Semaphore 로 자리를 잡은 작업만 넘기고, 결과는 끝나는 순서대로 onResult 로 바로 넘긴 뒤 버린다.
+ *  그래서 메모리는 taskList 크기와 상관없이 maxInFlight 개 분량만 쓴다. ( taskList 는 Iterator 로 지연 생성 가능 )
+ *
+ *  자리가 없을 때 정책
+ *   BLOCK       : 자리가 날 때까지 호출 쓰레드가 기다린다.
+ *   CALLER_RUNS : 호출 쓰레드가 직접 작업을 실행한다. ( ThreadPoolExecutor.CallerRunsPolicy 와 같은 방식 )
+ *
+ *  onResult 는 작업을 끝낸 쓰레드에서 호출되므로 thread-safe 해야 한다.
+ *  작업 하나라도 예외가 나면 더 이상 submit 하지 않고, 실행중인 작업이 끝나길 기다린 뒤 ExecutionException 을 던진다.
+ *  executor 가 작업을 거절해도 ( RejectedExecutionException ) 마찬가지로 실행중인 작업이 끝난 뒤에 던진다.
+ *  자리를 기다리다 interrupt 되면 남은 작업은 건너뛰게 하고, 실행중인 작업이 끝난 뒤 interrupt 상태를 되살려 InterruptedException 을 던진다.
+ *  ( submitAll 이 돌아온 뒤에는 onResult 가 더 불리지 않는다 )
+ */
+public class BoundedSubmitter<T> {
+
+    public enum Policy {
+        BLOCK, CALLER_RUNS
+    }
+
+    private final Executor executor;
+    private final int maxInFlight;
+    private final Policy policy;
+
+    public BoundedSubmitter(Executor executor, int maxInFlight, Policy policy) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight 는 1 이상이어야 합니다. : " + maxInFlight);
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.policy = policy;
+    }
+
+    public void submitAll(Iterable<? extends Callable<T>> taskList, Consumer<? super T> onResult) throws InterruptedException, ExecutionException {
+        submitAll(taskList.iterator(), onResult);
+    }
+
+    public void submitAll(Iterator<? extends Callable<T>> tasks, Consumer<? super T> onResult) throws InterruptedException, ExecutionException {
+        Semaphore window = new Semaphore(maxInFlight);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        RejectedExecutionException rejected = null;
+        InterruptedException interrupted = null;
+
+        while (tasks.hasNext() && failure.get() == null) {
+            Callable<T> task = tasks.next();
+
+            if (policy == Policy.CALLER_RUNS && !window.tryAcquire()) {
+                runTask(task, onResult, failure);
+                continue;
+            }
+            if (policy == Policy.BLOCK) {
+                try {
+                    window.acquire();
+                } catch (InterruptedException e) {
+                    // 이미 넘긴 작업 중 아직 시작하지 않은 것은 runTask 에서 건너뛴다.
+                    failure.compareAndSet(null, e);
+                    interrupted = e;
+                    break;
+                }
+            }
+
+            try {
+                executor.execute(() -> {
+                    try {
+                        runTask(task, onResult, failure);
+                    } finally {
+                        window.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                window.release();
+                rejected = e;
+                break;
+            }
+        }
+
+        // 실행중인 작업이 모두 끝날 때까지 대기 ( 자리를 전부 돌려받으면 끝난 것 )
+        //  여기서 interrupt 되어도 기다린다. ( 돌아온 뒤에 onResult 가 불리면 안 되므로 ) interrupt 상태는 남는다.
+        window.acquireUninterruptibly(maxInFlight);
+        window.release(maxInFlight);
+
+        if (interrupted != null) {
+            Thread.currentThread().interrupt();
+            throw interrupted;
+        }
+        if (rejected != null) {
+            throw rejected;
+        }
+        Throwable throwable = failure.get();
+        if (throwable != null) {
+            throw new ExecutionException(throwable);
+        }
+    }
+
+    private void runTask(Callable<T> task, Consumer<? super T> onResult, AtomicReference<Throwable> failure) {
+        if (failure.get() != null) {
+            return;
+        }
+        try {
+            onResult.accept(task.call());
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package threadtest.fanout;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+import threadtest.pool.GracefulShutdown;
+import threadtest.pool.PoolType;
+
+/*
+ * FanOutWorker 와 같은 일을 하지만 결과를 "끝난 순서대로" 받는다.
+ *
+ *  FanOutWorker 는 futureList 를 submit 순서대로 get() 하므로 첫번째 API 가 느리면
+ *  이미 끝난 나머지 결과도 그 뒤에서 기다린다. ( head-of-line blocking )
+ *  ExecutorCompletionService 는 끝난 작업부터 take() 로 꺼내 주므로 느린 작업 하나가 나머지를 막지 않는다.
+ *
+ *  - resultMap 은 ConcurrentHashMap 이고, 작업을 끝낸 쓰레드가 바로 넣는다.
+ *    ConcurrentHashMap 은 null key 를 못 넣으므로 "key" 가 없는 결과는 resultMap 에는 빼고 onEach 로만 넘긴다.
+ *  - onEach 는 호출 쓰레드에서 끝난 순서대로 호출된다.
+ *  - null 이 오거나 예외가 나면 그 즉시 shutdownNow() 로 나머지 작업을 멈추고 예외를 던진다.
+ */
+public class CompletionFanOutWorker {
+
+    private final PoolType poolType;
+
+    public CompletionFanOutWorker(PoolType poolType) {
+        this.poolType = poolType;
+    }
+
+    public ConcurrentHashMap<String, HashMap<String, String>> run(List<Callable<HashMap<String, String>>> taskList) throws Exception {
+        return run(taskList, weatherMap -> {
+        });
+    }
+
+    public ConcurrentHashMap<String, HashMap<String, String>> run(List<Callable<HashMap<String, String>>> taskList, Consumer<HashMap<String, String>> onEach) throws Exception {
+        ConcurrentHashMap<String, HashMap<String, String>> resultMap = new ConcurrentHashMap<>();
+        ExecutorService executorService = poolType.create();
+        CompletionService<HashMap<String, String>> completionService = new ExecutorCompletionService<>(executorService);
+        try {
+            for (int index = 0; index < taskList.size(); index++) {
+                Callable<HashMap<String, String>> task = taskList.get(index);
+                completionService.submit(() -> {
+                    HashMap<String, String> weatherMap = task.call();
+                    if (weatherMap == null) {
+                        throw new Exception("api를 받아오지 못했습니다.");
+                    }
+                    String key = weatherMap.get("key");
+                    if (key != null) {
+                        resultMap.put(key, weatherMap);
+                    }
+                    return weatherMap;
+                });
+            }
+
+            for (int index = 0; index < taskList.size(); index++) {
+                HashMap<String, String> weatherMap = completionService.take().get();
+                onEach.accept(weatherMap);
+            }
+        } catch (ExecutionException e) {
+            GracefulShutdown.defaults().shutdownNow("CompletionFanOutWorker", executorService);
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        } catch (Exception e) {
+            GracefulShutdown.defaults().shutdownNow("CompletionFanOutWorker", executorService);
+            throw e;
+        } finally {
+            if (!executorService.isShutdown()) {
+                GracefulShutdown.defaults().shutdown("CompletionFanOutWorker", executorService);
+            }
+        }
+        return resultMap;
+    }
+}
@@ -0,0 +1,67 @@
+package threadtest.fanout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import threadtest.pool.GracefulShutdown;
+import threadtest.pool.PoolType;
+
+/*
+ * ThreadTest.main 에 주석으로 남겨둔 futureList / taskList 패턴을 실제 코드로 옮긴 것
+ *  1. taskList 의 Callable 을 전부 submit 하고 futureList 에 모은다.
+ *  2. futureList 를 순서대로 get() 해서 weatherMap.get("key") 로 resultMap 에 넣는다.
+ *  3. null 이 오거나 예외가 나면 shutdownNow() 로 실행중인 쓰레드를 전부 멈춘다.
+ *
+ *  PoolType 으로 실행 모드를 고른다. API 호출처럼 블록되는 작업이 많다면 VIRTUAL 이 유리하다.
+ */
+public class FanOutWorker {
+
+    private final PoolType poolType;
+
+    public FanOutWorker(PoolType poolType) {
+        this.poolType = poolType;
+    }
+
+    public HashMap<String, HashMap<String, String>> run(List<Callable<HashMap<String, String>>> taskList) throws Exception {
+        return run(taskList, weatherMap -> {
+        });
+    }
+
+    // onEach : 결과 하나를 받을 때마다 호출 ( submit 한 순서대로 )
+    public HashMap<String, HashMap<String, String>> run(List<Callable<HashMap<String, String>>> taskList, Consumer<HashMap<String, String>> onEach) throws Exception {
+        HashMap<String, HashMap<String, String>> resultMap = new HashMap<>();
+        ExecutorService executorService = poolType.create();
+        try {
+            ArrayList<Future<HashMap<String, String>>> futureList = new ArrayList<>();
+            for (int index = 0; index < taskList.size(); index++) {
+                Callable<HashMap<String, String>> task = taskList.get(index);
+                Future<HashMap<String, String>> returnMap = executorService.submit(task);
+                futureList.add(returnMap);
+            }
+
+            for (int index = 0; index < futureList.size(); index++) {
+                Future<HashMap<String, String>> returnMap = futureList.get(index);
+                HashMap<String, String> weatherMap = returnMap.get();
+                if (weatherMap != null) {
+                    resultMap.put(weatherMap.get("key"), weatherMap);
+                    onEach.accept(weatherMap);
+                } else {
+                    throw new Exception("api를 받아오지 못했습니다.");
+                }
+            }
+        } catch (Exception e) {
+            GracefulShutdown.defaults().shutdownNow("FanOutWorker", executorService);
+            throw e;
+        } finally {
+            if (!executorService.isShutdown()) {
+                GracefulShutdown.defaults().shutdown("FanOutWorker", executorService);
+            }
+        }
+        return resultMap;
+    }
+}
@@ -0,0 +1,364 @@
+package threadtest.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import threadtest.shared.LongHashSet;
+
+/*
+ * 알림을 보낸 문서를 기록하는 append-only 저널 ( 중간에 죽은 실행을 이어서 하기 위한 체크포인트 )
+ *
+ *  기록 단위는 ( 목록 종류, user_id, docid ) 이다. 같은 문서라도 목록이 다르거나 받는 사람이 다르면 따로 기록한다.
+ *  파일 구조 : 헤더 16 byte ( magic, version, epoch ) + 레코드 16 byte 씩 ( ( 목록, user_id, docid ) 의 64bit 해시 key, 검사값 )
+ *   - 파일을 REGION_BYTES 단위로 mmap 해서 레코드는 메모리 쓰기 한번으로 끝난다. ( write 시스템 콜 없음 )
+ *   - 프로세스가 죽어도 ( kill -9 포함 ) 이미 쓴 레코드는 OS 페이지 캐시에 남아 파일에 반영된다.
+ *     서버 자체가 죽는 경우까지 남기려면 sync 로 force ( fsync ) 해야 한다.
+ *  group commit : sync 를 부른 쓰레드 중 하나가 그때까지 쓰인 레코드 전부를 force 하고 나머지는 그 결과를 기다린다.
+ *   ( force 하는 동안 들어온 레코드는 다음 force 한번에 같이 들어가므로 몰릴수록 force 1번에 묶이는 레코드가 많아진다 )
+ *  열 때 레코드를 처음부터 읽어 key 를 LongHashSet 에 올린다. 검사값이 안 맞는 레코드 ( 쓰다가 끊긴 끝부분 ) 에서 멈추고 그 자리부터 이어 쓴다.
+ *  원문 대신 해시를 저장하므로 서로 다른 기록이 같은 key 가 되면 ( 2^64 분의 1 수준 ) 보내지 않은 문서를 보낸 것으로 볼 수 있다.
+ *  실행 한번 ( DeliveryDelayJob 은 날짜별 ) 에 파일 하나를 쓰고, 실행이 끝까지 돌면 reset 으로 비운다.
+ *   - 검사값에 헤더의 epoch 를 섞는다. reset 은 epoch 를 올리고 헤더만 force 하므로 그 뒤로는 이전 레코드가 전부 무효가 된다.
+ *     ( 레코드를 0 으로 덮는 방식은 mmap 페이지가 어떤 순서로 디스크에 내려갈지 몰라서 도중에 죽으면 이전 기록 일부가 살아난다 )
+ *
+ *  사용 예
+ *      try (SentJournal journal = new SentJournal(Path.of("XFDeliveryDelayListWorker-2024-05-01.journal"))) {
+ *          if (!journal.contains("FAIL", userId, docid)) {
+ *              smartCaller.movePageAlert(...);
+ *              journal.markSent("FAIL", userId, docid);   // 보낸 뒤 기록 : 그 사이에 죽으면 다음 실행에서 한번 더 보낸다. ( 최소 한번 )
+ *          }
+ *          ...
+ *          journal.reset();   // 다 보냈으면 다음 실행은 처음부터
+ *      }
+ */
+public class SentJournal implements AutoCloseable {
+
+    static final int MAGIC = 0x534A4E4C;
+    // 2 : key 가 docid 에서 ( 목록, user_id, docid ) 로 바뀜
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 16;
+    static final long CHECK_SALT = 0x5DEECE66DL;
+    public static final int DEFAULT_REGION_BYTES = 4 << 20;
+
+    private final Path file;
+    private final int regionBytes;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+    private final LongHashSet index = new LongHashSet(1024);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final int recovered;
+    // reset 할 때마다 1 씩 올라간다. ( 헤더 8 ~ 15 byte )
+    private long epoch;
+    private long writePosition;
+    private long durablePosition;
+    private boolean flushing;
+    private boolean closed;
+    private long appends;
+    private long forces;
+
+    public SentJournal(Path file) throws IOException {
+        this(file, DEFAULT_REGION_BYTES);
+    }
+
+    public SentJournal(Path file, int regionBytes) throws IOException {
+        if (regionBytes < HEADER_BYTES + RECORD_BYTES || regionBytes % RECORD_BYTES != 0) {
+            throw new IllegalArgumentException("regionBytes 는 " + RECORD_BYTES + " 의 배수여야 합니다 : " + regionBytes);
+        }
+        this.file = file;
+        this.regionBytes = regionBytes;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.recovered = recover();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // 보낸 것으로 기록하고 디스크에 반영될 때까지 기다린다.
+    public void markSent(String kind, String userId, CharSequence docid) throws IOException {
+        sync(append(kind, userId, docid));
+    }
+
+    // 기록만 하고 기다리지 않는다. 돌려준 위치를 sync 에 넘기면 그때까지 디스크에 반영된다.
+    //  이미 기록된 것이면 다시 쓰지 않는다.
+    public long append(String kind, String userId, CharSequence docid) throws IOException {
+        long key = keyOf(kind, userId, docid);
+        lock.lock();
+        try {
+            ensureOpen();
+            if (!index.add(key)) {
+                return writePosition;
+            }
+            MappedByteBuffer region = regionFor(writePosition);
+            int offset = (int) (writePosition % regionBytes);
+            // 검사값을 나중에 쓴다. 중간에 끊기면 검사값이 안 맞아서 복구 때 버려진다.
+            region.putLong(offset, key);
+            region.putLong(offset + Long.BYTES, check(key));
+            writePosition += RECORD_BYTES;
+            appends++;
+            return writePosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // position 까지 쓴 레코드가 디스크에 반영될 때까지 기다린다. ( group commit )
+    public void sync(long position) throws IOException {
+        lock.lock();
+        try {
+            while (durablePosition < position) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                // 이 쓰레드가 대표로 지금까지 쓰인 것 전부를 force 한다.
+                flushing = true;
+                long from = durablePosition;
+                long to = writePosition;
+                lock.unlock();
+                try {
+                    force(from, to);
+                } finally {
+                    lock.lock();
+                    flushing = false;
+                    flushed.signalAll();
+                }
+                durablePosition = Math.max(durablePosition, to);
+                forces++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean contains(String kind, String userId, CharSequence docid) {
+        long key = keyOf(kind, userId, docid);
+        lock.lock();
+        try {
+            return index.contains(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 지금까지 쓴 기록을 모두 지운다. ( 실행이 끝까지 돈 뒤에 불러서 다음 실행이 처음부터 보내게 한다 )
+    //  epoch 8 byte 를 바꿔 쓰고 헤더만 force 한다. 도중에 죽으면 이전 기록이 전부 남거나 ( reset 전 ) 전부 무효가 된다. ( reset 후 )
+    //  이전 레코드는 파일에 그대로 두고 새 레코드가 그 위에 덮어쓴다.
+    public void reset() throws IOException {
+        lock.lock();
+        try {
+            ensureOpen();
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            // 헤더보다 늦게 디스크에 닿는 이전 레코드가 있어도 이전 epoch 검사값이라 무효
+            MappedByteBuffer first = regions.get(0);
+            first.putLong(8, epoch + 1);
+            first.force(0, HEADER_BYTES);
+            epoch++;
+            index.clear();
+            writePosition = HEADER_BYTES;
+            durablePosition = HEADER_BYTES;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 기록 수
+    public int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 열 때 파일에서 읽어 들인 레코드 수
+    public int getRecoveredCount() {
+        return recovered;
+    }
+
+    // 이번에 연 뒤로 force 한 횟수 ( appends / forces 가 force 1번에 묶인 평균 레코드 수 )
+    public long getForceCount() {
+        lock.lock();
+        try {
+            return forces;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAppendCount() {
+        lock.lock();
+        try {
+            return appends;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 다음 레코드를 쓸 파일 위치
+    public long getWritePosition() {
+        lock.lock();
+        try {
+            return writePosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        long position;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            position = writePosition;
+        } finally {
+            lock.unlock();
+        }
+        sync(position);
+        lock.lock();
+        try {
+            closed = true;
+            regions.clear();
+        } finally {
+            lock.unlock();
+        }
+        channel.close();
+    }
+
+    // ( 목록, user_id, docid ) -> 64bit key ( 세 값을 '\0' 으로 이어 붙인 FNV-1a 후 섞기. 문자열을 새로 만들지 않는다 )
+    public static long keyOf(String kind, String userId, CharSequence docid) {
+        // 구분자 '\0' 은 xor 해도 그대로라 곱하기만 한다.
+        long hash = fnv(0xcbf29ce484222325L, kind) * 0x100000001b3L;
+        hash = fnv(hash, userId) * 0x100000001b3L;
+        return mix(fnv(hash, docid));
+    }
+
+    private static long fnv(long hash, CharSequence value) {
+        for (int index = 0; index < value.length(); index++) {
+            hash ^= value.charAt(index);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private int recover() throws IOException {
+        long size = channel.size();
+        int regionCount = (int) Math.max(1, (size + regionBytes - 1) / regionBytes);
+        for (int index = 0; index < regionCount; index++) {
+            regions.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) index * regionBytes, regionBytes));
+        }
+        MappedByteBuffer first = regions.get(0);
+        if (size == 0 || first.getInt(0) == 0) {
+            first.putInt(0, MAGIC);
+            first.putInt(4, VERSION);
+            first.putLong(8, 0L);
+            first.force(0, HEADER_BYTES);
+        } else if (first.getInt(0) != MAGIC || first.getInt(4) != VERSION) {
+            throw new IOException(file + " 는 SentJournal 파일이 아닙니다. ( magic " + Integer.toHexString(first.getInt(0)) + " )");
+        }
+        epoch = first.getLong(8);
+        long position = HEADER_BYTES;
+        int count = 0;
+        long end = (long) regionCount * regionBytes;
+        while (position < end) {
+            MappedByteBuffer region = regions.get((int) (position / regionBytes));
+            int offset = (int) (position % regionBytes);
+            long key = region.getLong(offset);
+            if (region.getLong(offset + Long.BYTES) != check(key)) {
+                break;
+            }
+            index.add(key);
+            count++;
+            position += RECORD_BYTES;
+        }
+        writePosition = position;
+        durablePosition = position;
+        clearTornTail(position, end);
+        return count;
+    }
+
+    // 끊긴 레코드가 남긴 쓰레기를 지운다. ( 뒤에 이어 쓸 레코드와 섞이지 않게, reset 전 레코드도 여기서 한번 지워진다 )
+    private void clearTornTail(long position, long end) {
+        long cleared = position;
+        while (cleared < end) {
+            MappedByteBuffer region = regions.get((int) (cleared / regionBytes));
+            int offset = (int) (cleared % regionBytes);
+            if (region.getLong(offset) == 0L && region.getLong(offset + Long.BYTES) == 0L) {
+                break;
+            }
+            region.putLong(offset, 0L);
+            region.putLong(offset + Long.BYTES, 0L);
+            cleared += RECORD_BYTES;
+        }
+        if (cleared > position) {
+            force(position, cleared);
+        }
+    }
+
+    private MappedByteBuffer regionFor(long position) throws IOException {
+        int regionIndex = (int) (position / regionBytes);
+        while (regions.size() <= regionIndex) {
+            // 파일 끝을 넘겨서 map 하면 파일이 그만큼 늘어난다. ( 늘어난 부분은 0 )
+            regions.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) regions.size() * regionBytes, regionBytes));
+        }
+        return regions.get(regionIndex);
+    }
+
+    private void force(long from, long to) {
+        List<MappedByteBuffer> snapshot;
+        lock.lock();
+        try {
+            snapshot = new ArrayList<>(regions);
+        } finally {
+            lock.unlock();
+        }
+        for (long position = from; position < to;) {
+            int regionIndex = (int) (position / regionBytes);
+            int offset = (int) (position % regionBytes);
+            int length = (int) Math.min(regionBytes - offset, to - position);
+            snapshot.get(regionIndex).force(offset, length);
+            position += length;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException(file + " 저널이 이미 닫혔습니다.");
+        }
+    }
+
+    // epoch 가 다르면 같은 key 라도 검사값이 달라진다.
+    private long check(long key) {
+        return mix(key ^ CHECK_SALT ^ epoch * 0x9E3779B97F4A7C15L) | 1L;
+    }
+
+    // murmur3 fmix64
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
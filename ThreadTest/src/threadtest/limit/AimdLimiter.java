@@ -0,0 +1,195 @@
+package threadtest.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * 응답 시간과 실패를 보고 동시 호출 수 상한을 스스로 조절하는 limiter ( TCP 혼잡 제어의 AIMD )
+ *
+ *  받는 쪽이 감당할 수 있는 동시 호출 수는 미리 알 수 없고 상황에 따라 바뀐다.
+ *   - 성공했고 응답 시간이 최소 응답 시간 x tolerance 안이면 : limit += 1 / limit ( 한 바퀴에 1 씩 늘림 )
+ *   - 실패했거나 응답 시간이 그보다 길면 ( 받는 쪽에 줄이 생기기 시작 ) : limit *= backoffRatio
+ *  동시에 나갔던 호출들이 한꺼번에 실패해도 한번만 줄이도록, 마지막으로 줄인 뒤에 시작한 호출의 결과로만 줄인다.
+ *  최소 응답 시간은 WINDOW 개 표본마다 그 구간의 최소값 쪽으로 1/RTT_RISE 만큼만 올린다.
+ *   ( 운 좋게 빨랐던 값 하나에 계속 묶이지 않게 하되, 계속 과부하인 구간의 느린 값으로 한번에 올라가 기준이 느슨해지지 않게 )
+ *
+ *  사용 예
+ *      AimdLimiter.Permit permit = limiter.acquire();
+ *      try {
+ *          call();
+ *          permit.success();
+ *      } catch (Exception e) {
+ *          permit.dropped();
+ *      }
+ */
+public class AimdLimiter {
+
+    static final int WINDOW = 100;
+    static final int RTT_RISE = 8;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private long lastDecreaseNanos = System.nanoTime();
+    private long increases;
+    private long decreases;
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, 1.5, 0.9);
+    }
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit || tolerance < 1.0 || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("initialLimit=" + initialLimit + ", minLimit=" + minLimit + ", maxLimit=" + maxLimit
+                    + ", tolerance=" + tolerance + ", backoffRatio=" + backoffRatio);
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+    }
+
+    // 동시 호출 수가 limit 아래로 내려갈 때까지 기다린다.
+    public Permit acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                released.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+        return new Permit(System.nanoTime());
+    }
+
+    // timeout 안에 자리가 안 나면 null
+    public Permit tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return null;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+        return new Permit(System.nanoTime());
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return String.format("limit %d ( 늘림 %d, 줄임 %d ), 최소 응답 %s", (int) limit, increases, decreases,
+                    minRttNanos == Long.MAX_VALUE ? "-" : String.format("%.1fms", minRttNanos / 1_000_000.0));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long startNanos, boolean ok, boolean sample) {
+        long rtt = System.nanoTime() - startNanos;
+        lock.lock();
+        try {
+            inFlight--;
+            if (sample) {
+                if (ok) {
+                    recordRtt(rtt);
+                }
+                if (ok && rtt <= minRttNanos * tolerance) {
+                    // 꽉 찬 상태에서 성공했을 때만 늘린다. ( 한가할 때 성공해도 받는 쪽 여유를 알 수 없음 )
+                    if (inFlight + 1 >= (int) limit && limit < maxLimit) {
+                        limit = Math.min(maxLimit, limit + 1.0 / limit);
+                        increases++;
+                    }
+                } else if (startNanos - lastDecreaseNanos > 0) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseNanos = System.nanoTime();
+                    decreases++;
+                }
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordRtt(long rtt) {
+        if (rtt < minRttNanos) {
+            minRttNanos = rtt;
+        }
+        windowMinRttNanos = Math.min(windowMinRttNanos, rtt);
+        if (++windowSamples >= WINDOW) {
+            if (windowMinRttNanos > minRttNanos) {
+                minRttNanos += (windowMinRttNanos - minRttNanos) / RTT_RISE;
+            }
+            windowMinRttNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+
+    // 호출 한번의 자리. success / dropped / ignore 중 하나를 정확히 한번 부른다.
+    public final class Permit {
+        private final long startNanos;
+        private boolean released;
+
+        Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        public void success() {
+            finish(true, true);
+        }
+
+        // 실패 / 타임아웃 / 과부하 응답 : limit 을 줄인다.
+        public void dropped() {
+            finish(false, true);
+        }
+
+        // 받는 쪽 상태와 상관없는 실패 ( 잘못된 요청 등 ) : 자리만 돌려준다.
+        public void ignore() {
+            finish(false, false);
+        }
+
+        private void finish(boolean ok, boolean sample) {
+            if (released) {
+                throw new IllegalStateException("이미 돌려준 자리입니다.");
+            }
+            released = true;
+            release(startNanos, ok, sample);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package threadtest.limit;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 재시도 사이 대기 시간 ( 지수 증가 + full jitter )
+ *  attempt 번째 재시도는 0 ~ min(cap, base x 2^attempt) 사이에서 무작위로 기다린다.
+ *  모두 같은 시간만큼 기다리면 실패한 호출들이 같은 순간에 다시 몰려서 또 실패한다. ( 무작위로 흩어 놓는다 )
+ */
+public class Backoff {
+
+    private final long baseNanos;
+    private final long capNanos;
+    private final int maxAttempts;
+
+    // maxAttempts : 첫 호출을 포함한 최대 시도 횟수
+    public Backoff(long base, long cap, TimeUnit unit, int maxAttempts) {
+        if (base <= 0 || cap < base || maxAttempts < 1) {
+            throw new IllegalArgumentException("base=" + base + ", cap=" + cap + ", maxAttempts=" + maxAttempts);
+        }
+        this.baseNanos = unit.toNanos(base);
+        this.capNanos = unit.toNanos(cap);
+        this.maxAttempts = maxAttempts;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    // retry : 1 부터 ( 첫 재시도 )
+    public long delayNanos(int retry) {
+        long ceiling = baseNanos << Math.min(retry - 1, 30);
+        if (ceiling <= 0 || ceiling > capNanos) {
+            ceiling = capNanos;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public void sleep(int retry) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(delayNanos(retry));
+    }
+}
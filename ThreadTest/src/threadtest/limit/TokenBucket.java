@@ -0,0 +1,77 @@
+package threadtest.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * 초당 호출 수 상한 ( token bucket )
+ *  초당 permitsPerSecond 개씩 토큰이 차고 최대 burst 개까지 모인다. 호출 1번에 토큰 1개
+ *  토큰 개수를 따로 세지 않고 "다음 토큰이 생기는 시각" 하나만 AtomicLong 으로 들고 CAS 로 예약한다. ( GCRA )
+ *   - 한참 쉬었으면 burst 개까지는 바로 통과하고
+ *   - 그 뒤로는 1/permitsPerSecond 간격으로 줄을 세운다.
+ *  acquire 는 자기 차례까지 기다리고, tryAcquire 는 기다려야 하면 바로 false
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong nextFreeNanos;
+    private final AtomicLong waited = new AtomicLong();
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond=" + permitsPerSecond + ", burst=" + burst);
+        }
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.nextFreeNanos = new AtomicLong(System.nanoTime() - toleranceNanos);
+    }
+
+    // 토큰을 하나 예약하고 그 시각까지 기다린다. 기다린 시간 ( 나노초 ) 을 돌려준다.
+    public long acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return 0L;
+        }
+        waited.incrementAndGet();
+        long deadline = System.nanoTime() + waitNanos;
+        for (long remaining = waitNanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException("토큰 대기 중 interrupt");
+            }
+        }
+        return waitNanos;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long current = nextFreeNanos.get();
+            long start = Math.max(current, now - toleranceNanos);
+            if (start > now) {
+                return false;
+            }
+            if (nextFreeNanos.compareAndSet(current, start + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    // 바로 못 받고 기다린 호출 수
+    public long getWaitedCount() {
+        return waited.get();
+    }
+
+    private long reserve() {
+        while (true) {
+            long now = System.nanoTime();
+            long current = nextFreeNanos.get();
+            long start = Math.max(current, now - toleranceNanos);
+            if (nextFreeNanos.compareAndSet(current, start + intervalNanos)) {
+                return start - now;
+            }
+        }
+    }
+}
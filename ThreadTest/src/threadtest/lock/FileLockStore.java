@@ -0,0 +1,116 @@
+package threadtest.lock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * 파일로 락 상태를 보관하는 LockStore ( 같은 서버의 여러 JVM / 스케줄러가 공유 )
+ *  락 이름마다 "<name>.lock" 파일 하나를 두고 "owner token expiresAtMillis" 한 줄을 기록한다.
+ *  읽고 쓰는 동안은 FileChannel.lock() 으로 다른 프로세스를 막고,
+ *  같은 JVM 안의 쓰레드끼리는 synchronized 로 막는다. ( 한 JVM 에서 같은 파일을 두번 lock 하면 예외가 나기 때문 )
+ *  owner 가 "-" 이면 비어 있는 상태이다. ( 마지막 token 은 남겨둔다 ) 그래서 owner 에는 공백이 들어가면 안된다.
+ */
+public class FileLockStore implements LockStore {
+
+    private record State(String owner, long token, long expiresAtMillis) {
+
+        Lease toLease(String name) {
+            return owner.equals("-") ? null : new Lease(name, owner, token, expiresAtMillis);
+        }
+    }
+
+    private interface Update<T> {
+        T apply(State state, State[] next);
+    }
+
+    private final Path directory;
+
+    public FileLockStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public Lease tryAcquire(String name, String owner, long ttlMillis, long nowMillis) throws IOException {
+        if (owner.equals("-") || owner.chars().anyMatch(Character::isWhitespace)) {
+            throw new IllegalArgumentException("owner 에 공백이나 '-' 만 쓸 수는 없습니다. : " + owner);
+        }
+        return update(name, (state, next) -> {
+            Lease lease = state.toLease(name);
+            if (lease != null && !lease.isExpired(nowMillis)) {
+                return null;
+            }
+            next[0] = new State(owner, state.token() + 1, nowMillis + ttlMillis);
+            return next[0].toLease(name);
+        });
+    }
+
+    @Override
+    public Lease renew(Lease lease, long ttlMillis, long nowMillis) throws IOException {
+        return update(lease.name(), (state, next) -> {
+            if (!isHolder(state, lease) || nowMillis >= state.expiresAtMillis()) {
+                return null;
+            }
+            next[0] = new State(lease.owner(), lease.token(), nowMillis + ttlMillis);
+            return next[0].toLease(lease.name());
+        });
+    }
+
+    @Override
+    public boolean release(Lease lease) throws IOException {
+        return update(lease.name(), (state, next) -> {
+            if (!isHolder(state, lease)) {
+                return false;
+            }
+            next[0] = new State("-", state.token(), 0L);
+            return true;
+        });
+    }
+
+    @Override
+    public Lease current(String name, long nowMillis) throws IOException {
+        Lease lease = update(name, (state, next) -> state.toLease(name));
+        return lease == null || lease.isExpired(nowMillis) ? null : lease;
+    }
+
+    private static boolean isHolder(State state, Lease lease) {
+        return state.owner().equals(lease.owner()) && state.token() == lease.token();
+    }
+
+    private synchronized <T> T update(String name, Update<T> update) throws IOException {
+        Path path = directory.resolve(name + ".lock");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                FileLock fileLock = channel.lock()) {
+            State state = read(channel);
+            State[] next = new State[1];
+            T result = update.apply(state, next);
+            if (next[0] != null) {
+                write(channel, next[0]);
+            }
+            return result;
+        }
+    }
+
+    private static State read(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        channel.read(buffer, 0);
+        String line = new String(buffer.array(), StandardCharsets.UTF_8).trim();
+        if (line.isEmpty()) {
+            return new State("-", 0L, 0L);
+        }
+        String[] parts = line.split(" ");
+        return new State(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+    }
+
+    private static void write(FileChannel channel, State state) throws IOException {
+        byte[] bytes = (state.owner() + " " + state.token() + " " + state.expiresAtMillis() + "\n").getBytes(StandardCharsets.UTF_8);
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap(bytes), 0);
+        channel.force(false);
+    }
+}
@@ -0,0 +1,69 @@
+package threadtest.lock;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * 한 JVM 안에서만 쓰는 LockStore ( 테스트 / 로컬 실행용 )
+ *  ConcurrentHashMap.compute 가 키 단위로 원자적으로 실행되는 것을 이용한다.
+ *  락을 풀어도 마지막 token 은 남겨두어 다음 token 이 항상 더 크도록 한다.
+ */
+public class InMemoryLockStore implements LockStore {
+
+    private record Entry(Lease lease, long lastToken) {
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public Lease tryAcquire(String name, String owner, long ttlMillis, long nowMillis) {
+        Lease[] acquired = new Lease[1];
+        entries.compute(name, (key, old) -> {
+            if (old != null && old.lease() != null && !old.lease().isExpired(nowMillis)) {
+                return old;
+            }
+            long token = (old == null ? 0 : old.lastToken()) + 1;
+            acquired[0] = new Lease(name, owner, token, nowMillis + ttlMillis);
+            return new Entry(acquired[0], token);
+        });
+        return acquired[0];
+    }
+
+    @Override
+    public Lease renew(Lease lease, long ttlMillis, long nowMillis) {
+        Lease[] renewed = new Lease[1];
+        entries.computeIfPresent(lease.name(), (key, old) -> {
+            if (isHolder(old, lease) && !old.lease().isExpired(nowMillis)) {
+                renewed[0] = new Lease(lease.name(), lease.owner(), lease.token(), nowMillis + ttlMillis);
+                return new Entry(renewed[0], old.lastToken());
+            }
+            return old;
+        });
+        return renewed[0];
+    }
+
+    @Override
+    public boolean release(Lease lease) {
+        boolean[] released = new boolean[1];
+        entries.computeIfPresent(lease.name(), (key, old) -> {
+            if (isHolder(old, lease)) {
+                released[0] = true;
+                return new Entry(null, old.lastToken());
+            }
+            return old;
+        });
+        return released[0];
+    }
+
+    @Override
+    public Lease current(String name, long nowMillis) {
+        Entry entry = entries.get(name);
+        if (entry == null || entry.lease() == null || entry.lease().isExpired(nowMillis)) {
+            return null;
+        }
+        return entry.lease();
+    }
+
+    private static boolean isHolder(Entry entry, Lease lease) {
+        return entry.lease() != null && entry.lease().token() == lease.token() && entry.lease().owner().equals(lease.owner());
+    }
+}
@@ -0,0 +1,136 @@
+package threadtest.lock;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/*
+ * XFSchWorkManager.isLock / setLock / setUnLock 을 대신하는 작업 락
+ *
+ *  1. tryLock 은 확인과 설정을 LockStore 에서 한번에 처리하므로 두 스케줄러가 동시에 잡을 수 없다.
+ *  2. 락은 ttl 동안만 유효한 lease 이다. 잡고 있는 동안은 heartbeat 쓰레드가 ttl/3 마다 갱신한다.
+ *     실행이 죽으면 갱신이 멈추고 ttl 이 지나면 다음 실행이 락을 가져간다. ( 수동으로 풀 필요 없음 )
+ *  3. 락을 잡을 때마다 token 이 커진다. 외부 자원에 쓸 때 token 을 같이 넘기면
+ *     락을 잃고도 늦게 동작하는 이전 실행의 쓰기를 자원 쪽에서 거절할 수 있다.
+ *
+ *  사용 예
+ *      try (JobLockService.JobLock lock = lockService.tryLock("XFDeliveryDelayListWorker")) {
+ *          if (lock == null) {
+ *              throw new IOException("XFDeliveryDelayListWorker 가 이미 실행중입니다.");
+ *          }
+ *          ...
+ *          lock.checkHeld();  // 중요한 쓰기 전에 아직 락을 잡고 있는지 확인
+ *      }
+ */
+public class JobLockService implements AutoCloseable {
+
+    private static final Logger _logger = Logger.getLogger("batch");
+
+    private final LockStore store;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final String owner;
+    private final ScheduledExecutorService heartbeat;
+
+    public JobLockService(LockStore store, long ttlMillis) {
+        this(store, ttlMillis, System::currentTimeMillis);
+    }
+
+    public JobLockService(LockStore store, long ttlMillis, LongSupplier clock) {
+        this.store = store;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        // pid@host + 임의값 ( 같은 프로세스 안에서 서비스를 여러개 만들어도 구분되도록 )
+        this.owner = ManagementFactory.getRuntimeMXBean().getName().replaceAll("\\s", "_") + ":" + UUID.randomUUID().toString().substring(0, 8);
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "job-lock-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // 락을 잡으면 JobLock, 이미 다른 실행이 잡고 있으면 null
+    public JobLock tryLock(String jobName) throws Exception {
+        Lease lease = store.tryAcquire(jobName, owner, ttlMillis, clock.getAsLong());
+        if (lease == null) {
+            return null;
+        }
+        JobLock lock = new JobLock(lease);
+        long period = Math.max(1, ttlMillis / 3);
+        lock.renewal = heartbeat.scheduleWithFixedDelay(lock::renew, period, period, TimeUnit.MILLISECONDS);
+        return lock;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    @Override
+    public void close() {
+        heartbeat.shutdownNow();
+    }
+
+    public class JobLock implements AutoCloseable {
+
+        private volatile Lease lease;
+        private volatile boolean lost;
+        private volatile ScheduledFuture<?> renewal;
+
+        private JobLock(Lease lease) {
+            this.lease = lease;
+        }
+
+        public long getToken() {
+            return lease.token();
+        }
+
+        public Lease getLease() {
+            return lease;
+        }
+
+        // 갱신에 실패했거나 만료 시각이 지났으면 false
+        public boolean isHeld() {
+            return !lost && !lease.isExpired(clock.getAsLong());
+        }
+
+        public void checkHeld() {
+            if (!isHeld()) {
+                throw new IllegalStateException(lease.name() + " 락을 잃었습니다. ( token " + lease.token() + " )");
+            }
+        }
+
+        private void renew() {
+            if (lost) {
+                return;
+            }
+            try {
+                Lease renewed = store.renew(lease, ttlMillis, clock.getAsLong());
+                if (renewed == null) {
+                    lost = true;
+                    renewal.cancel(false);
+                    _logger.warning(lease.name() + " 락 갱신 실패 : 다른 실행이 락을 가져갔거나 만료되었습니다.");
+                } else {
+                    lease = renewed;
+                }
+            } catch (Exception e) {
+                // 저장소 오류는 다음 주기에 다시 시도한다. 그 사이 만료되면 isHeld() 가 false 가 된다.
+                _logger.warning(lease.name() + " 락 갱신 중 오류 : " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (renewal != null) {
+                renewal.cancel(false);
+            }
+            if (!lost) {
+                store.release(lease);
+            }
+        }
+    }
+}
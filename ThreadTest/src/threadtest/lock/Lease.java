@@ -0,0 +1,14 @@
+package threadtest.lock;
+
+/*
+ * 작업 락을 잡은 기록
+ *  token : 락을 새로 잡을 때마다 1씩 증가하는 번호 ( fencing token )
+ *      락을 잃은 뒤에도 늦게 동작하는 이전 실행을 막을 때, 자원 쪽에서 더 큰 token 만 받아주면 된다.
+ *  expiresAtMillis : 이 시각까지 갱신(renew)하지 않으면 다른 실행이 락을 가져갈 수 있다.
+ */
+public record Lease(String name, String owner, long token, long expiresAtMillis) {
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -0,0 +1,21 @@
+package threadtest.lock;
+
+/*
+ * 락 상태를 보관하는 저장소
+ *  XFSchWorkManager.isLock() 후 setLock() 처럼 "확인 후 설정" 을 나눠 하면 두 스케줄러가 동시에 둘 다 통과할 수 있다.
+ *  여기의 메서드들은 확인과 설정을 한번에 ( 원자적으로 ) 처리해야 한다.
+ */
+public interface LockStore {
+
+    // 락이 비어 있거나 만료되었으면 owner 로 잡고 Lease 를 돌려준다. 이미 누가 잡고 있으면 null
+    Lease tryAcquire(String name, String owner, long ttlMillis, long nowMillis) throws Exception;
+
+    // 아직 lease 의 주인이고 만료 전이면 만료 시각을 늘린다. 락을 잃었다면 null
+    Lease renew(Lease lease, long ttlMillis, long nowMillis) throws Exception;
+
+    // lease 의 주인일 때만 락을 푼다.
+    boolean release(Lease lease) throws Exception;
+
+    // 현재 락을 잡고 있는 lease ( 없거나 만료되었으면 null )
+    Lease current(String name, long nowMillis) throws Exception;
+}
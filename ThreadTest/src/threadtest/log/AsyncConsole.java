@@ -0,0 +1,159 @@
+package threadtest.log;
+
+import java.io.PrintStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * System.out.println 대신 쓰는 비동기 콘솔 출력
+ *
+ *  PrintStream 의 println 은 synchronized 라서 여러 쓰레드가 동시에 찍으면 모두 같은 락에서 줄을 선다.
+ *  ( ThreadRun, RunnableRun, task1 / task2 를 병렬로 돌려도 실제로는 락 경합을 재는 셈이 된다. )
+ *
+ *  여기서는 각 쓰레드가 lock-free 큐 ( ConcurrentLinkedQueue ) 에 문자열만 넣고 바로 돌아간다.
+ *  출력 전용 쓰레드 하나가 큐를 비우면서 여러 줄을 한번에 모아 print / flush 한다.
+ *   - 같은 쓰레드가 찍은 줄의 순서는 유지된다. ( 쓰레드끼리의 순서는 원래도 보장되지 않음 )
+ *   - 큐에 capacity 개가 쌓이면 ( 출력 쓰레드가 못 따라오면 ) 넣으려던 쓰레드가 직접 한 묶음을 출력한다.
+ *     ( ThreadPoolExecutor.CallerRunsPolicy 와 같은 방식, 메모리 무한 증가 방지 )
+ *     큐에서 꺼내 출력하는 부분은 drainLock 으로 한번에 한 쓰레드만 하므로 순서가 섞이지 않는다.
+ *   - 출력 쓰레드는 데몬이다. 기본 콘솔은 JVM 종료 시 남은 줄을 모두 찍고 끝난다.
+ *   - 출력 쓰레드는 큐가 비면 park 해서 기다리고, write 가 unpark 로 깨운다. ( 주기적으로 깨어나 확인하지 않음 )
+ *     flush 는 묶음이 출력될 때마다 signal 되는 Condition 에서 기다린다.
+ *
+ *  사용 : AsyncConsole.println("working");
+ */
+public class AsyncConsole implements AutoCloseable {
+
+    static final int MAX_BATCH = 1024;
+
+    private static final AsyncConsole CONSOLE = new AsyncConsole(System.out, 64 * 1024);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(CONSOLE::close, "async-console-flush"));
+    }
+
+    public static void println(Object x) {
+        CONSOLE.write(String.valueOf(x));
+    }
+
+    // 지금까지 println 한 줄이 모두 출력될 때까지 기다린다.
+    public static void flushConsole() {
+        CONSOLE.flush();
+    }
+
+    private final PrintStream out;
+    private final int capacity;
+    private final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final ReentrantLock drainLock = new ReentrantLock();
+    // 묶음 하나를 출력할 때마다 signalAll ( flush 대기용 )
+    private final Condition drained = drainLock.newCondition();
+    private final StringBuilder batch = new StringBuilder(16 * 1024);
+    private final Thread writer;
+    private volatile long written;
+    private volatile boolean running = true;
+    private volatile boolean writerParked;
+    // 출력 쓰레드가 끝나면 drainLock 안에서 true 로 바꾸고 signalAll ( flush 가 끝난 쓰레드를 기다리지 않게 )
+    private boolean writerExited;
+
+    public AsyncConsole(PrintStream out, int capacity) {
+        this.out = out;
+        this.capacity = capacity;
+        this.writer = new Thread(this::drainLoop, "async-console");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public void write(String line) {
+        while (submitted.get() - written >= capacity) {
+            drainBatch();
+        }
+        queue.offer(line);
+        submitted.incrementAndGet();
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    public void flush() {
+        long target = submitted.get();
+        drainLock.lock();
+        try {
+            while (written < target) {
+                if (writerExited) {
+                    // close 뒤에 들어온 줄은 직접 출력한다.
+                    drainBatch();
+                    continue;
+                }
+                LockSupport.unpark(writer);
+                drained.awaitUninterruptibly();
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // 남은 줄을 모두 출력하고 출력 쓰레드를 끝낸다.
+    @Override
+    public void close() {
+        flush();
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        try {
+            while (running || !queue.isEmpty()) {
+                if (drainBatch() > 0) {
+                    continue;
+                }
+                // writerParked 를 먼저 쓰고 큐를 다시 본다. write 는 큐에 넣은 뒤 writerParked 를 보므로 둘 중 하나는 상대를 본다.
+                writerParked = true;
+                if (queue.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                writerParked = false;
+            }
+        } finally {
+            // 루프를 나온 뒤 ( 또는 출력 중 예외로 ) 들어온 줄은 flush 가 직접 출력하도록 깨운다.
+            drainLock.lock();
+            try {
+                writerExited = true;
+                drained.signalAll();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    // 큐에서 최대 MAX_BATCH 줄을 꺼내 한번에 출력한다. 출력한 줄 수를 돌려준다.
+    private int drainBatch() {
+        drainLock.lock();
+        try {
+            int count = 0;
+            String line;
+            while (count < MAX_BATCH && (line = queue.poll()) != null) {
+                batch.append(line).append(System.lineSeparator());
+                count++;
+            }
+            if (count > 0) {
+                out.print(batch);
+                out.flush();
+                batch.setLength(0);
+                written += count;
+                drained.signalAll();
+            }
+            return count;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+}
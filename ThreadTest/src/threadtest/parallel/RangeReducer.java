@@ -0,0 +1,101 @@
+package threadtest.parallel;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+/*
+ * [from, to) 정수 구간을 mapper 로 바꾼 뒤 combiner 로 줄이는 ( reduce ) 작업
+ *
+ *  ThreadTest.main 주석의 "최종 합" 작업 ( for 로 index 를 더해가는 것 ) 이나 RunnableRun ( temp + i ) 처럼
+ *  구간을 나눌 수 있는 계산을 세가지 방식으로 실행한다.
+ *   - sequential     : 한 쓰레드에서 for 루프 ( 비교 기준 )
+ *   - forkJoin       : RecursiveTask 로 구간을 반씩 나눠 threshold 이하가 되면 직접 계산.
+ *                      놀고 있는 쓰레드가 다른 쓰레드 큐에서 작업을 훔쳐가므로 ( work-stealing ) 나눈 조각이 고르게 퍼진다.
+ *   - parallelStream : LongStream.range(..).parallel() 에 같은 mapper / combiner 를 적용
+ *  값은 long 그대로 다룬다. ( LongUnaryOperator / LongBinaryOperator, 박싱 없음 )
+ *  int 구간은 long 으로 넓혀서 넘기면 된다.
+ *
+ *  combiner 는 결합 법칙이 성립해야 하고 identity 는 항등원이어야 한다. ( 합이면 0, 곱이면 1 )
+ */
+public final class RangeReducer {
+
+    // 조각이 너무 작으면 fork / join 비용이 계산보다 커진다. 쓰레드당 조각 수의 목표치
+    static final int SPLITS_PER_THREAD = 8;
+    static final long MIN_THRESHOLD = 10_000L;
+
+    private RangeReducer() {
+    }
+
+    public static long sequential(long from, long to, LongUnaryOperator mapper, long identity, LongBinaryOperator combiner) {
+        long result = identity;
+        for (long index = from; index < to; index++) {
+            result = combiner.applyAsLong(result, mapper.applyAsLong(index));
+        }
+        return result;
+    }
+
+    public static long forkJoin(ForkJoinPool pool, long from, long to, long threshold,
+            LongUnaryOperator mapper, long identity, LongBinaryOperator combiner) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold : " + threshold);
+        }
+        return pool.invoke(new RangeTask(from, to, threshold, mapper, identity, combiner));
+    }
+
+    // 쓰레드 수에 맞춰 threshold 를 정한다.
+    public static long forkJoin(ForkJoinPool pool, long from, long to, LongUnaryOperator mapper, long identity, LongBinaryOperator combiner) {
+        return forkJoin(pool, from, to, defaultThreshold(to - from, pool.getParallelism()), mapper, identity, combiner);
+    }
+
+    // parallel stream 은 호출한 쓰레드가 속한 ForkJoinPool 에서 돈다. pool 안에서 실행해서 쓰레드 수를 맞춘다.
+    public static long parallelStream(ForkJoinPool pool, long from, long to, LongUnaryOperator mapper, long identity, LongBinaryOperator combiner) {
+        return pool.submit(() -> LongStream.range(from, to).parallel().map(mapper).reduce(identity, combiner)).join();
+    }
+
+    public static long defaultThreshold(long length, int parallelism) {
+        return Math.max(MIN_THRESHOLD, length / ((long) parallelism * SPLITS_PER_THREAD));
+    }
+
+    // 0 + 1 + ... + (n - 1)
+    public static long sumOfIndexes(ForkJoinPool pool, long n) {
+        return forkJoin(pool, 0, n, LongUnaryOperator.identity(), 0L, Long::sum);
+    }
+
+    static final class RangeTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final long threshold;
+        private final LongUnaryOperator mapper;
+        private final long identity;
+        private final LongBinaryOperator combiner;
+
+        RangeTask(long from, long to, long threshold, LongUnaryOperator mapper, long identity, LongBinaryOperator combiner) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.mapper = mapper;
+            this.identity = identity;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= threshold) {
+                return sequential(from, to, mapper, identity, combiner);
+            }
+            long middle = from + (to - from) / 2;
+            RangeTask left = new RangeTask(from, middle, threshold, mapper, identity, combiner);
+            RangeTask right = new RangeTask(middle, to, threshold, mapper, identity, combiner);
+            // 왼쪽은 큐에 넣어 다른 쓰레드가 훔쳐갈 수 있게 하고, 오른쪽은 지금 쓰레드가 바로 계산
+            left.fork();
+            long rightResult = right.compute();
+            return combiner.applyAsLong(left.join(), rightResult);
+        }
+    }
+}
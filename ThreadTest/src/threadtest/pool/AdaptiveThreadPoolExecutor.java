@@ -0,0 +1,211 @@
+package threadtest.pool;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/*
+ * 부하를 보고 쓰레드 수를 스스로 조절하는 풀
+ *
+ *  ThreadTest.java 상단의 "완전 수동" 풀 ( 3, 100, 120초, SynchronousQueue ) 은
+ *   - 몰리는 순간 바로 100개까지 쓰레드를 만들고 ( 그 이상은 거절 )
+ *   - 한가해져도 120초 동안 놀고 있는 쓰레드를 들고 있다.
+ *  고정 풀은 반대로 부하가 바뀌어도 그대로다.
+ *
+ *  이 풀은 큐( LinkedBlockingQueue )를 두고 core == max 크기를 controlPeriod 마다 다시 정한다.
+ *   1. Little's law : 필요한 동시 실행 수 = 도착률(건/초) x 작업 1건 실행 시간(초)
+ *      + 큐에 쌓인 작업을 다음 주기 안에 비울 만큼
+ *   2. 블록 비율 상한 : 코어 수 x 목표 사용률 / (1 - 블록 비율)
+ *      블록 비율은 작업의 ( 벽시계 시간 - CPU 시간 ) / 벽시계 시간. CPU 만 쓰는 작업에 쓰레드를 늘려봐야 의미가 없다.
+ *   3. hill-climbing 보정 : 큐가 밀린 상태에서 쓰레드를 늘렸는데 처리량이 늘지 않았으면 직전 크기로 되돌린다.
+ *  한 주기에 늘릴 때는 최대 2배, 줄일 때는 최대 25% 씩만 움직여서 흔들리지 않게 한다.
+ *
+ *  지표( 대기 / 실행 시간, 거절 수 등 ) 는 InstrumentedThreadPoolExecutor 그대로 사용한다.
+ */
+public class AdaptiveThreadPoolExecutor extends InstrumentedThreadPoolExecutor {
+
+    private static final Logger _logger = Logger.getLogger("batch");
+
+    // Little's law 로 구한 값에 곱하는 여유분
+    static final double HEADROOM = 1.2;
+    // 늘렸는데 처리량이 이만큼도 늘지 않으면 되돌린다.
+    static final double MIN_GAIN = 1.05;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final int minThreads;
+    private final int maxThreads;
+    private final double targetUtilization;
+    private final int cores = Runtime.getRuntime().availableProcessors();
+    private final boolean cpuTimeSupported = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+    private final ScheduledExecutorService controller;
+
+    // 작업 시작 시점의 쓰레드 CPU 시간 ( 작업은 한 쓰레드에서 시작하고 끝나므로 ThreadLocal 로 충분 )
+    private final ThreadLocal<long[]> startTimes = ThreadLocal.withInitial(() -> new long[2]);
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder measuredTasks = new LongAdder();
+    private final LongAdder wallNanos = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+
+    // 아래는 controller 쓰레드 하나에서만 읽고 쓴다. ( volatile 은 getter 용 )
+    private long lastNanos = System.nanoTime();
+    private long lastArrivals;
+    private long lastCompleted;
+    private int lastDirection;
+    private int previousSize;
+    private boolean lastBacklogged;
+    private volatile int targetSize;
+    private volatile double blockingRatio;
+    private volatile double throughput;
+
+    public AdaptiveThreadPoolExecutor(String name, int minThreads, int maxThreads) {
+        this(name, minThreads, maxThreads, 0.9, 200, TimeUnit.MILLISECONDS, Executors.defaultThreadFactory());
+    }
+
+    public AdaptiveThreadPoolExecutor(String name, int minThreads, int maxThreads, double targetUtilization,
+            long controlPeriod, TimeUnit unit, ThreadFactory threadFactory) {
+        super(name, minThreads, minThreads, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory, new AbortPolicy());
+        if (minThreads < 1 || maxThreads < minThreads) {
+            throw new IllegalArgumentException("minThreads=" + minThreads + ", maxThreads=" + maxThreads);
+        }
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.targetUtilization = targetUtilization;
+        this.targetSize = minThreads;
+        this.previousSize = minThreads;
+        this.controller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name + "-sizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        controller.scheduleAtFixedRate(this::adjust, controlPeriod, controlPeriod, unit);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        arrivals.increment();
+        super.execute(command);
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        long[] start = startTimes.get();
+        start[0] = System.nanoTime();
+        start[1] = cpuTimeSupported ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0L;
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        long[] start = startTimes.get();
+        wallNanos.add(System.nanoTime() - start[0]);
+        if (cpuTimeSupported) {
+            cpuNanos.add(THREAD_MX_BEAN.getCurrentThreadCpuTime() - start[1]);
+        }
+        measuredTasks.increment();
+        super.afterExecute(r, t);
+    }
+
+    @Override
+    protected void terminated() {
+        controller.shutdownNow();
+        super.terminated();
+    }
+
+    // controlPeriod 마다 controller 쓰레드에서 실행
+    void adjust() {
+        try {
+            resize(nextSize());
+        } catch (RuntimeException e) {
+            // 예외가 나가면 scheduleAtFixedRate 가 조용히 멈추므로 여기서 잡는다.
+            _logger.warning(getName() + " 크기 조절 실패 : " + e);
+        }
+    }
+
+    private int nextSize() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-3, (now - lastNanos) / 1e9);
+        long arrived = arrivals.sum();
+        long completed = getCompletedTaskCount();
+        long tasks = measuredTasks.sumThenReset();
+        long wall = wallNanos.sumThenReset();
+        long cpu = cpuNanos.sumThenReset();
+        double arrivalRate = (arrived - lastArrivals) / seconds;
+        double currentThroughput = (completed - lastCompleted) / seconds;
+        int backlog = getQueue().size();
+        int size = targetSize;
+
+        int next;
+        if (tasks == 0) {
+            // 끝난 작업이 없다 : 한가하면 줄이고, 긴 작업이 돌고 있으면 그대로 둔다.
+            next = backlog == 0 && getActiveCount() == 0 ? minThreads : size;
+        } else {
+            double runSeconds = wall / 1e9 / tasks;
+            blockingRatio = cpuTimeSupported && wall > 0 ? Math.min(0.99, Math.max(0.0, 1.0 - (double) cpu / wall)) : 0.9;
+            // 1. Little's law : 도착하는 만큼 + 밀린 만큼을 한 주기 안에 처리할 동시 실행 수
+            double demand = (arrivalRate + backlog / seconds) * runSeconds * HEADROOM;
+            // 2. 블록 비율로 구한 상한
+            double cpuCap = cores * targetUtilization / (1.0 - blockingRatio);
+            next = (int) Math.ceil(Math.min(demand, cpuCap));
+        }
+
+        // 3. hill-climbing : 밀린 상태에서 늘렸는데 처리량이 그대로면 직전 크기로
+        boolean backlogged = backlog > 0;
+        if (lastDirection > 0 && lastBacklogged && backlogged && currentThroughput < throughput * MIN_GAIN) {
+            next = Math.min(next, previousSize);
+        }
+
+        next = Math.min(next, size * 2 + 1);
+        next = Math.max(next, size - Math.max(1, size / 4));
+        next = Math.max(minThreads, Math.min(maxThreads, next));
+
+        lastNanos = now;
+        lastArrivals = arrived;
+        lastCompleted = completed;
+        lastBacklogged = backlogged;
+        lastDirection = Integer.compare(next, size);
+        previousSize = size;
+        throughput = currentThroughput;
+        return next;
+    }
+
+    private void resize(int next) {
+        int size = targetSize;
+        if (next == size) {
+            return;
+        }
+        // core <= max 를 항상 지키도록 늘릴 때는 max 먼저, 줄일 때는 core 먼저 바꾼다.
+        if (next > size) {
+            setMaximumPoolSize(next);
+            setCorePoolSize(next);
+        } else {
+            setCorePoolSize(next);
+            setMaximumPoolSize(next);
+        }
+        targetSize = next;
+        _logger.fine(() -> String.format("%s 쓰레드 %d -> %d ( 블록 비율 %.2f, 처리량 %.0f/s )", getName(), size, next, blockingRatio, throughput));
+    }
+
+    @Override
+    public String dump() {
+        return String.format("%s target=%d blocking=%.2f throughput=%.0f/s", super.dump(), targetSize, blockingRatio, throughput);
+    }
+
+    public int getTargetPoolSize() {
+        return targetSize;
+    }
+
+    public double getBlockingRatio() {
+        return blockingRatio;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+}
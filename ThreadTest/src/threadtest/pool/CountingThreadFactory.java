@@ -0,0 +1,39 @@
+package threadtest.pool;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * 쓰레드 풀이 실제로 몇 개의 쓰레드를 만들었는지 세는 ThreadFactory
+ *  - newCachedThreadPool 처럼 필요할 때마다 쓰레드를 만드는 풀과
+ *    newFixedThreadPool 처럼 한번 만들고 재사용하는 풀의 차이를 숫자로 확인하기 위해 사용
+ */
+public class CountingThreadFactory implements ThreadFactory {
+
+    private final ThreadFactory delegate;
+    private final AtomicLong created = new AtomicLong();
+    private final String prefix;
+
+    public CountingThreadFactory(String prefix) {
+        this(prefix, Executors.defaultThreadFactory());
+    }
+
+    // 가상 쓰레드를 세고 싶다면 Thread.ofVirtual().factory() 를 넘긴다.
+    public CountingThreadFactory(String prefix, ThreadFactory delegate) {
+        this.prefix = prefix;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread thread = delegate.newThread(r);
+        thread.setName(prefix + "-" + created.incrementAndGet());
+        return thread;
+    }
+
+    // 지금까지 생성한 쓰레드 수
+    public long getCreatedCount() {
+        return created.get();
+    }
+}
@@ -0,0 +1,100 @@
+package threadtest.pool;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/*
+ * ThreadTest.java 의 "5. 쓰레드풀 종료" 3가지를 순서대로 묶은 종료 도우미
+ *
+ *  1. shutdown()          : 새 작업을 더 받지 않는다.
+ *  2. awaitTermination()  : drainTimeout 동안 큐에 남은 작업이 끝나길 기다린다.
+ *  3. shutdownNow()       : 그래도 안 끝나면 실행중인 쓰레드를 interrupt 하고, 시작도 못한 작업 목록을 돌려받는다.
+ *                           interruptTimeout 동안 한번 더 기다린다.
+ *
+ *  끝나면 걸린 시간 / 정상 종료 여부 / 버려진 작업 수를 Report 로 돌려주고 로그로 남긴다.
+ *  registerShutdownHook 으로 JVM 종료 ( Ctrl+C, kill ) 때에도 같은 순서로 종료되도록 할 수 있다.
+ */
+public class GracefulShutdown {
+
+    private static final Logger _logger = Logger.getLogger("batch");
+
+    // drainMillis : 종료에 걸린 시간, terminated : 모든 쓰레드가 끝났는지, abandonedTasks : shutdownNow 가 돌려준 작업 수
+    public record Report(String name, long drainMillis, boolean terminated, int abandonedTasks) {
+
+        @Override
+        public String toString() {
+            return name + " 종료 : " + drainMillis + "ms, " + (terminated ? "정상 종료" : "종료되지 않은 쓰레드 있음")
+                    + ", 버려진 작업 " + abandonedTasks + "건";
+        }
+    }
+
+    private final long drainTimeout;
+    private final long interruptTimeout;
+    private final TimeUnit unit;
+
+    public GracefulShutdown(long drainTimeout, long interruptTimeout, TimeUnit unit) {
+        this.drainTimeout = drainTimeout;
+        this.interruptTimeout = interruptTimeout;
+        this.unit = unit;
+    }
+
+    // 예제 코드에서 쓰던 값 ( 60초 대기 후 shutdownNow )
+    public static GracefulShutdown defaults() {
+        return new GracefulShutdown(60, 5, TimeUnit.SECONDS);
+    }
+
+    public Report shutdown(String name, ExecutorService executorService) {
+        long start = System.nanoTime();
+        int abandoned = 0;
+        boolean terminated = false;
+
+        executorService.shutdown();
+        try {
+            terminated = executorService.awaitTermination(drainTimeout, unit);
+            if (!terminated) {
+                abandoned = drainNow(executorService);
+                terminated = executorService.awaitTermination(interruptTimeout, unit);
+            }
+        } catch (InterruptedException e) {
+            // 기다리는 중에 종료 요청을 받으면 바로 멈추고 interrupt 상태는 되살려 둔다.
+            abandoned = drainNow(executorService);
+            Thread.currentThread().interrupt();
+        }
+
+        Report report = new Report(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), terminated, abandoned);
+        if (report.terminated() && report.abandonedTasks() == 0) {
+            _logger.info(report.toString());
+        } else {
+            _logger.warning(report.toString());
+        }
+        return report;
+    }
+
+    // 예외가 난 경우처럼 기다리지 않고 바로 멈춰야 할 때 ( 예전 catch 블록의 shutdownNow() )
+    public Report shutdownNow(String name, ExecutorService executorService) {
+        long start = System.nanoTime();
+        int abandoned = drainNow(executorService);
+        boolean terminated = false;
+        try {
+            terminated = executorService.awaitTermination(interruptTimeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Report report = new Report(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), terminated, abandoned);
+        _logger.warning(report.toString());
+        return report;
+    }
+
+    public Thread registerShutdownHook(String name, ExecutorService executorService) {
+        Thread hook = new Thread(() -> shutdown(name, executorService), name + "-shutdown-hook");
+        Runtime.getRuntime().addShutdownHook(hook);
+        return hook;
+    }
+
+    private static int drainNow(ExecutorService executorService) {
+        List<Runnable> notStarted = executorService.shutdownNow();
+        return notStarted.size();
+    }
+}
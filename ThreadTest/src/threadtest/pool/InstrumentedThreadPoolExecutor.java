@@ -0,0 +1,288 @@
+package threadtest.pool;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/*
+ * 지표를 남기는 ThreadPoolExecutor
+ *
+ *  지연이 "큐에서 기다려서" 인지 "실행이 느려서" 인지 나눠 보기 위해
+ *   - execute() 시점에 작업이 들어온 시각을 기록하고
+ *   - beforeExecute 에서 큐 대기 시간, afterExecute 에서 실행 시간을 LatencyHistogram 에 기록한다.
+ *  작업을 다른 Runnable 로 감싸지 않는다. ( getQueue / shutdownNow / remove 가 넘긴 작업 그대로를 본다 )
+ *   - submit / invokeAll 작업은 newTaskFor 가 만드는 TimedFutureTask 에 들어온 시각을 같이 둔다.
+ *   - execute 로 바로 들어온 작업은 작업 객체( identity ) -> 들어온 시각 맵에 둔다.
+ *     같은 Runnable 객체가 큐에 동시에 두번 이상 들어가면 첫번째 시각만 남으므로 그 작업들의 대기 시간은 빠진다.
+ *  거절 수 ( RejectedExecutionHandler 를 감싸서 ), 예외로 끝난 작업 수, 큐 길이, active / largest 쓰레드 수를 같이 본다.
+ *
+ *  registerMBean()    : JMX 에 "threadtest:type=ThreadPool,name=<name>" 으로 등록
+ *  startPeriodicDump(): period 마다 dump() 문자열을 로그로 남김 ( 풀이 종료되면 같이 멈춤 )
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor implements ThreadPoolMetricsMXBean {
+
+    private static final Logger _logger = Logger.getLogger("batch");
+
+    // submit 으로 들어온 작업. 큐에 들어간 시각을 같이 들고 있다.
+    private static final class TimedFutureTask<T> extends FutureTask<T> {
+        volatile long enqueuedNanos;
+
+        TimedFutureTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        TimedFutureTask(Runnable runnable, T result) {
+            super(runnable, result);
+        }
+    }
+
+    // execute 로 들어온 작업의 맵 키 ( 작업이 equals 를 재정의했더라도 객체 자체로 구분 )
+    private static final class IdentityKey {
+        final Runnable task;
+
+        IdentityKey(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof IdentityKey key && key.task == task;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(task);
+        }
+    }
+
+    private final String name;
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+    private final LatencyHistogram runHistogram = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final ConcurrentHashMap<IdentityKey, Long> enqueuedAt = new ConcurrentHashMap<>();
+    // 작업 시작 시각 ( 작업은 한 쓰레드에서 시작하고 끝나므로 ThreadLocal 로 충분 )
+    private final ThreadLocal<long[]> startNanos = ThreadLocal.withInitial(() -> new long[1]);
+    private ScheduledExecutorService dumpScheduler;
+    private ObjectName objectName;
+
+    public InstrumentedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+            BlockingQueue<Runnable> workQueue) {
+        this(name, corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, Executors.defaultThreadFactory(), new AbortPolicy());
+    }
+
+    public InstrumentedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+            BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory, RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+        this.name = name;
+        // 거절 정책을 감싸서 거절 수를 센다. ( 원래 정책은 그대로 실행 )
+        super.setRejectedExecutionHandler(countingHandler(handler));
+    }
+
+    @Override
+    public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+        super.setRejectedExecutionHandler(countingHandler(handler));
+    }
+
+    private RejectedExecutionHandler countingHandler(RejectedExecutionHandler handler) {
+        return (r, executor) -> {
+            rejected.increment();
+            forget(r);
+            handler.rejectedExecution(r, executor);
+        };
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new TimedFutureTask<>(callable);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new TimedFutureTask<>(runnable, value);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long now = System.nanoTime();
+        if (command instanceof TimedFutureTask<?> timed) {
+            timed.enqueuedNanos = now;
+        } else if (command != null) {
+            enqueuedAt.putIfAbsent(new IdentityKey(command), now);
+        }
+        super.execute(command);
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        long now = System.nanoTime();
+        startNanos.get()[0] = now;
+        long enqueuedNanos;
+        if (r instanceof TimedFutureTask<?> timed) {
+            enqueuedNanos = timed.enqueuedNanos;
+        } else {
+            Long at = enqueuedAt.remove(new IdentityKey(r));
+            enqueuedNanos = at == null ? 0L : at;
+        }
+        if (enqueuedNanos != 0L) {
+            waitHistogram.record(now - enqueuedNanos);
+        }
+        super.beforeExecute(t, r);
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        runHistogram.record(System.nanoTime() - startNanos.get()[0]);
+        // submit() 으로 들어온 작업의 예외는 FutureTask 안에 잡혀 있어서 t 가 null 이다. execute() 작업만 센다.
+        if (t != null) {
+            failed.increment();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> remaining = super.shutdownNow();
+        remaining.forEach(this::forget);
+        return remaining;
+    }
+
+    @Override
+    public boolean remove(Runnable task) {
+        boolean removed = super.remove(task);
+        if (removed) {
+            forget(task);
+        }
+        return removed;
+    }
+
+    // 실행되지 않고 빠지는 execute 작업의 들어온 시각을 지운다.
+    private void forget(Runnable task) {
+        if (!(task instanceof TimedFutureTask<?>)) {
+            enqueuedAt.remove(new IdentityKey(task));
+        }
+    }
+
+    @Override
+    protected void terminated() {
+        super.terminated();
+        if (dumpScheduler != null) {
+            dumpScheduler.shutdownNow();
+            _logger.info(dump());
+        }
+        unregisterMBean();
+    }
+
+    public synchronized InstrumentedThreadPoolExecutor registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName("threadtest:type=ThreadPool,name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            _logger.warning(name + " JMX 등록 실패 : " + e.getMessage());
+        }
+        return this;
+    }
+
+    private synchronized void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (Exception e) {
+            _logger.warning(name + " JMX 해제 실패 : " + e.getMessage());
+        }
+        objectName = null;
+    }
+
+    public synchronized InstrumentedThreadPoolExecutor startPeriodicDump(long period, TimeUnit unit) {
+        if (dumpScheduler == null) {
+            dumpScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, name + "-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumpScheduler.scheduleAtFixedRate(() -> _logger.info(dump()), period, period, unit);
+        }
+        return this;
+    }
+
+    @Override
+    public String dump() {
+        return String.format("[%s] queue=%d active=%d pool=%d largest=%d completed=%d rejected=%d failed=%d"
+                + " wait(p50/p99)=%d/%dus run(p50/p99)=%d/%dus",
+                name, getQueueDepth(), getActiveCount(), getPoolSize(), getLargestPoolSize(), getCompletedTaskCount(),
+                getRejectedCount(), getFailedCount(), getWaitP50Micros(), getWaitP99Micros(), getRunP50Micros(), getRunP99Micros());
+    }
+
+    @Override
+    public void resetLatencies() {
+        waitHistogram.reset();
+        runHistogram.reset();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getWaitHistogram() {
+        return waitHistogram;
+    }
+
+    public LatencyHistogram getRunHistogram() {
+        return runHistogram;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    @Override
+    public long getWaitP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(waitHistogram.percentile(50));
+    }
+
+    @Override
+    public long getWaitP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(waitHistogram.percentile(99));
+    }
+
+    @Override
+    public long getRunP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(runHistogram.percentile(50));
+    }
+
+    @Override
+    public long getRunP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(runHistogram.percentile(99));
+    }
+}
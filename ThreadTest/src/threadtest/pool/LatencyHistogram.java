@@ -0,0 +1,80 @@
+package threadtest.pool;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * HdrHistogram 과 같은 방식 ( 로그 구간 + 구간 안을 균등 분할 ) 의 가벼운 나노초 히스토그램
+ *  - 2의 거듭제곱 구간마다 SUB_BUCKETS(16) 칸으로 나누므로 오차는 약 6% 이내
+ *  - 칸마다 LongAdder 를 써서 여러 쓰레드가 동시에 기록해도 경합이 적다.
+ *  - 기록은 할당 없이 배열 인덱스 계산 + add 한번
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 48;
+
+    private final LongAdder[] counts = new LongAdder[(MAX_EXPONENT + 1) * SUB_BUCKETS];
+    private final LongAdder total = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int index = 0; index < counts.length; index++) {
+            counts[index] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        counts[indexOf(Math.max(0, nanos))].increment();
+        total.increment();
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    // percentile : 0 ~ 100. 해당 칸의 가장 큰 값을 돌려준다. 기록이 없으면 0
+    public long percentile(double percentile) {
+        long count = total.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index].sum();
+            if (seen >= target) {
+                return highestValueOf(index);
+            }
+        }
+        return highestValueOf(counts.length - 1);
+    }
+
+    public void reset() {
+        for (LongAdder count : counts) {
+            count.reset();
+        }
+        total.reset();
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return (MAX_EXPONENT + 1) * SUB_BUCKETS - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        long lowest = (1L << exponent) + ((long) subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
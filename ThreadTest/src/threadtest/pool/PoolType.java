@@ -0,0 +1,89 @@
+package threadtest.pool;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ThreadTest.java 상단 주석 "4. 쓰레드 풀" 에 나오는 5가지 풀을 그대로 생성한다.
+ *  벤치마크나 예제에서 풀 종류를 이름으로 골라 쓸 수 있도록 enum 으로 묶음
+ *  + 비교용으로 Java 21 가상 쓰레드 풀(VIRTUAL), 크기를 스스로 조절하는 풀(ADAPTIVE)을 추가
+ */
+public enum PoolType {
+
+    // 1. 자동으로 스레드 수 생성
+    CACHED {
+        @Override
+        public ExecutorService create(ThreadFactory threadFactory) {
+            return Executors.newCachedThreadPool(threadFactory);
+        }
+    },
+    // 2. 원하는 개수만큼 생성
+    FIXED_2 {
+        @Override
+        public ExecutorService create(ThreadFactory threadFactory) {
+            return Executors.newFixedThreadPool(2, threadFactory);
+        }
+    },
+    // 3. 최대치로 생성
+    FIXED_MAX {
+        @Override
+        public ExecutorService create(ThreadFactory threadFactory) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), threadFactory);
+        }
+    },
+    // 4. 완전 수동 ( 코어 3, 최대 100, 120초, SynchronousQueue )
+    CUSTOM {
+        @Override
+        public ExecutorService create(ThreadFactory threadFactory) {
+            return new ThreadPoolExecutor(3, 100, 120L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), threadFactory);
+        }
+    },
+    // 5. 단일 쓰레드
+    SINGLE {
+        @Override
+        public ExecutorService create(ThreadFactory threadFactory) {
+            return Executors.newSingleThreadExecutor(threadFactory);
+        }
+    },
+    // 6. 가상 쓰레드 ( Executors.newVirtualThreadPerTaskExecutor() 와 동일 )
+    //  작업마다 가상 쓰레드를 하나씩 만든다. sleep / IO 로 블록되면 OS 쓰레드(캐리어)를 놓아주므로
+    //  블록되는 작업이 수천 ~ 수십만개여도 OS 쓰레드는 CPU 코어 수 정도만 사용한다.
+    VIRTUAL {
+        @Override
+        public ExecutorService create(ThreadFactory threadFactory) {
+            return Executors.newThreadPerTaskExecutor(threadFactory);
+        }
+
+        @Override
+        public ThreadFactory baseThreadFactory() {
+            return Thread.ofVirtual().factory();
+        }
+    },
+    // 7. CUSTOM 과 같은 범위( 3 ~ 100 )에서 처리량 / 블록 비율을 보고 크기를 조절 ( AdaptiveThreadPoolExecutor 참고 )
+    ADAPTIVE {
+        @Override
+        public ExecutorService create(ThreadFactory threadFactory) {
+            return new AdaptiveThreadPoolExecutor("adaptive", 3, 100, 0.9, 200L, TimeUnit.MILLISECONDS, threadFactory);
+        }
+    };
+
+    public abstract ExecutorService create(ThreadFactory threadFactory);
+
+    // 풀이 기본으로 사용하는 ThreadFactory ( CountingThreadFactory 로 감쌀 때 사용 )
+    public ThreadFactory baseThreadFactory() {
+        return Executors.defaultThreadFactory();
+    }
+
+    public ExecutorService create() {
+        return create(baseThreadFactory());
+    }
+
+    // "cached", "virtual" 처럼 소문자로 들어온 실행 인자도 받아준다.
+    public static PoolType of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,34 @@
+package threadtest.pool;
+
+/*
+ * JMX ( jconsole, VisualVM 등 ) 로 보는 쓰레드 풀 지표
+ *  Wait : 큐에서 기다린 시간, Run : 실제 실행 시간 ( 마이크로초 )
+ */
+public interface ThreadPoolMetricsMXBean {
+
+    int getQueueDepth();
+
+    int getActiveCount();
+
+    int getPoolSize();
+
+    int getLargestPoolSize();
+
+    long getCompletedTaskCount();
+
+    long getRejectedCount();
+
+    long getFailedCount();
+
+    long getWaitP50Micros();
+
+    long getWaitP99Micros();
+
+    long getRunP50Micros();
+
+    long getRunP99Micros();
+
+    String dump();
+
+    void resetLatencies();
+}
@@ -0,0 +1,63 @@
+package threadtest.pool;
+
+/*
+ * ThreadTest.main 의 task1 / task2 모양을 흉내낸 작업 종류
+ *  - task1, task2 는 Thread.sleep(10) 을 100번 반복 (약 1초) 하므로 그대로 쓰면 측정이 너무 느리다.
+ *    반복 횟수와 sleep 시간을 줄여서 "모양" 만 유지한다.
+ *  - System.out.println 은 PrintStream 락 경합이 결과를 덮어버리므로 측정용 작업에서는 뺀다.
+ */
+public enum Workload {
+
+    // CPU 만 사용하는 작업
+    CPU {
+        @Override
+        public long run() {
+            return spin(CPU_ITERATIONS);
+        }
+    },
+    // task1 / task2 처럼 sleep (IO 대기) 만 하는 작업
+    SLEEP {
+        @Override
+        public long run() {
+            for (int index = 0; index < SLEEP_REPEAT; index++) {
+                sleepQuietly(SLEEP_MILLIS);
+            }
+            return SLEEP_REPEAT;
+        }
+    },
+    // 계산과 대기를 번갈아 하는 작업
+    MIXED {
+        @Override
+        public long run() {
+            long sum = 0;
+            for (int index = 0; index < SLEEP_REPEAT; index++) {
+                sum += spin(CPU_ITERATIONS / SLEEP_REPEAT);
+                sleepQuietly(SLEEP_MILLIS);
+            }
+            return sum;
+        }
+    };
+
+    public static final int CPU_ITERATIONS = 200_000;
+    public static final int SLEEP_REPEAT = 5;
+    public static final long SLEEP_MILLIS = 1L;
+
+    // 작업을 한번 실행하고 최적화로 사라지지 않도록 계산값을 돌려준다.
+    public abstract long run();
+
+    public static long spin(int iterations) {
+        long sum = 0;
+        for (int index = 0; index < iterations; index++) {
+            sum += (sum ^ index) * 31 + index;
+        }
+        return sum;
+    }
+
+    static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
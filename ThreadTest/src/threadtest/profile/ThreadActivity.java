@@ -0,0 +1,68 @@
+package threadtest.profile;
+
+import java.lang.management.ThreadInfo;
+
+/*
+ * 샘플 한번에 본 쓰레드가 무엇을 하고 있었는지
+ *  Thread.State 를 그대로 쓰면 sleep / 락 대기 / 할 일 없이 큐에서 기다림 이 전부 WAITING, TIMED_WAITING 으로 섞인다.
+ *  스택 맨 위 프레임과 park 대상( lockName ) 으로 한번 더 나눈다.
+ *   - RUNNING 은 RUNNABLE 그대로라서 소켓 / 파일 IO 를 기다리는 시간, CPU 차례를 기다리는 시간도 들어간다.
+ */
+public enum ThreadActivity {
+
+    RUNNING('R', "실행"),
+    // synchronized 진입 대기 ( 모니터 경합 )
+    BLOCKED('B', "모니터 대기"),
+    // ReentrantLock / ReentrantReadWriteLock 을 얻으려고 park
+    LOCKED('L', "락 대기"),
+    // wait / join / 조건 없이 park ( 큐 take 처럼 할 일이 없는 경우 포함 )
+    WAITING('W', "대기"),
+    SLEEPING('S', "sleep"),
+    // 시간 제한이 있는 wait / join / park ( 풀 쓰레드의 keepAlive poll 등 )
+    TIMED_WAITING('T', "시간 대기");
+
+    private final char symbol;
+    private final String label;
+
+    ThreadActivity(char symbol, String label) {
+        this.symbol = symbol;
+        this.label = label;
+    }
+
+    public char symbol() {
+        return symbol;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    // 스택 깊이 1 이상으로 얻은 ThreadInfo. NEW / TERMINATED 는 null
+    public static ThreadActivity of(ThreadInfo info) {
+        switch (info.getThreadState()) {
+            case RUNNABLE:
+                return RUNNING;
+            case BLOCKED:
+                return BLOCKED;
+            case WAITING:
+            case TIMED_WAITING:
+                StackTraceElement[] stack = info.getStackTrace();
+                if (stack.length > 0 && stack[0].getClassName().equals("java.lang.Thread") && stack[0].getMethodName().startsWith("sleep")) {
+                    return SLEEPING;
+                }
+                if (isLock(info.getLockName())) {
+                    return LOCKED;
+                }
+                return info.getThreadState() == Thread.State.WAITING ? WAITING : TIMED_WAITING;
+            default:
+                return null;
+        }
+    }
+
+    // park 대상이 락 자체 ( Sync ) 이면 락 경합, Condition 이면 신호를 기다리는 것
+    static boolean isLock(String lockName) {
+        return lockName != null
+                && (lockName.startsWith("java.util.concurrent.locks.ReentrantLock$") || lockName.startsWith("java.util.concurrent.locks.ReentrantReadWriteLock$"))
+                && !lockName.contains("ConditionObject");
+    }
+}
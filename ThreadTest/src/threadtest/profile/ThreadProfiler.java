@@ -0,0 +1,535 @@
+package threadtest.profile;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+/*
+ * 쓰레드가 실행 / 모니터 대기 / 락 대기 / sleep / 대기 중 어디에 시간을 쓰는지 보는 샘플링 프로파일러
+ *
+ *  interval 마다 ThreadMXBean.getThreadInfo( 스택 깊이 1 ) 로 쓰레드 상태를 읽어 ThreadActivity 로 나누고 쓰레드별로 쌓는다.
+ *   - 쓰레드별 CPU 시간, 모니터 경합( blocked ) / 대기( waited ) 횟수와 시간은 ThreadMXBean 누적값의 시작 ~ 끝 차이
+ *     ( start 에서 thread contention monitoring 을 켜고 stop 에서 원래대로 돌려놓는다 )
+ *   - BLOCKED / LOCKED 샘플은 어떤 락을 누가 잡고 있었는지도 센다.
+ *   - 샘플 한번은 쓰레드 수십개 기준 0.1 ~ 0.3ms ( safepoint 포함 ). 10ms 간격이면 1 ~ 3%
+ *     ( 보고서의 샘플링 비용은 샘플러 쓰레드의 CPU 시간. CPU 가 모자라면 벽시계 시간은 다른 쓰레드 차례를 기다린 시간까지 들어간다 )
+ *  wrap(name, task) 로 감싼 작업은 건별로 벽시계 / CPU / blocked / waited 시간을 재서
+ *   나머지 ( 벽시계 - 셋의 합 ) 를 IO 나 CPU 차례 대기로 본다. ( 풀 작업이 어디서 시간을 잃는지 )
+ *  recordJfr(file) 을 주면 같은 구간을 JFR 로도 남긴다. ( 모니터 진입 / park / sleep 이벤트 + 감싼 작업마다 threadtest.ProfiledTask 이벤트 )
+ *  가상 쓰레드는 ThreadMXBean 에 보이지 않으므로 JFR 쪽에서만 볼 수 있다.
+ *
+ *  사용 예
+ *      try (ThreadProfiler profiler = new ThreadProfiler(10, TimeUnit.MILLISECONDS, name -> name.startsWith("job-")).start()) {
+ *          executorService.execute(profiler.wrap("alert", task));
+ *          ...
+ *          profiler.stop();
+ *          profiler.writeReport(Path.of("thread-profile.txt"));
+ *      }
+ */
+public class ThreadProfiler implements AutoCloseable {
+
+    private static final Logger _logger = Logger.getLogger("batch");
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    static final String SAMPLER_NAME = "thread-profiler";
+    // JVM 이 띄우는 쓰레드는 항상 뺀다.
+    static final Set<String> SYSTEM_THREADS = Set.of("Reference Handler", "Finalizer", "Signal Dispatcher", "Attach Listener",
+            "Common-Cleaner", "Notification Thread", "process reaper", SAMPLER_NAME);
+    static final int TIMELINE_WIDTH = 100;
+    static final int TOP_LOCKS = 5;
+    static final Duration JFR_THRESHOLD = Duration.ofMillis(1);
+
+    @Name("threadtest.ProfiledTask")
+    @Label("Profiled Task")
+    @Category("threadtest")
+    @StackTrace(false)
+    static final class ProfiledTaskEvent extends Event {
+        @Label("Task")
+        String task;
+    }
+
+    // 쓰레드 하나의 샘플들. 샘플러 쓰레드에서만 쓰고 보고서는 같은 락을 잡고 읽는다.
+    private static final class ThreadTrack {
+        final int firstSample;
+        String name;
+        int lastSample;
+        // 샘플 순서대로 ThreadActivity.ordinal() + 1 ( 0 은 그 샘플에 없었음 )
+        byte[] activities = new byte[64];
+        final int[] counts = new int[ThreadActivity.values().length];
+        final Map<String, Integer> locks = new HashMap<>();
+        long firstCpuNanos = -1L;
+        long lastCpuNanos = -1L;
+        long firstBlockedCount;
+        long lastBlockedCount;
+        long firstBlockedMillis;
+        long lastBlockedMillis;
+        long firstWaitedCount;
+        long lastWaitedCount;
+        long firstWaitedMillis;
+        long lastWaitedMillis;
+
+        ThreadTrack(ThreadInfo info, int sample) {
+            this.firstSample = sample;
+            this.firstBlockedCount = info.getBlockedCount();
+            this.firstBlockedMillis = info.getBlockedTime();
+            this.firstWaitedCount = info.getWaitedCount();
+            this.firstWaitedMillis = info.getWaitedTime();
+        }
+
+        void record(int sample, ThreadActivity activity, ThreadInfo info, long cpuNanos) {
+            int offset = sample - firstSample;
+            if (offset >= activities.length) {
+                activities = Arrays.copyOf(activities, Math.max(activities.length * 2, offset + 1));
+            }
+            activities[offset] = (byte) (activity.ordinal() + 1);
+            counts[activity.ordinal()]++;
+            name = info.getThreadName();
+            lastSample = sample;
+            if (activity == ThreadActivity.BLOCKED || activity == ThreadActivity.LOCKED) {
+                String owner = info.getLockOwnerName();
+                locks.merge(owner == null ? info.getLockName() : info.getLockName() + " ( 잡은 쓰레드 " + owner + " )", 1, Integer::sum);
+            }
+            if (cpuNanos >= 0) {
+                if (firstCpuNanos < 0) {
+                    firstCpuNanos = cpuNanos;
+                }
+                lastCpuNanos = cpuNanos;
+            }
+            lastBlockedCount = info.getBlockedCount();
+            lastBlockedMillis = info.getBlockedTime();
+            lastWaitedCount = info.getWaitedCount();
+            lastWaitedMillis = info.getWaitedTime();
+        }
+
+        ThreadActivity activityAt(int sample) {
+            int offset = sample - firstSample;
+            if (offset < 0 || offset >= activities.length || activities[offset] == 0) {
+                return null;
+            }
+            return ThreadActivity.values()[activities[offset] - 1];
+        }
+
+        int samples() {
+            int total = 0;
+            for (int count : counts) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
+    // wrap 으로 감싼 작업 이름별 누적
+    private static final class TaskStats {
+        final LongAdder count = new LongAdder();
+        final LongAdder wallNanos = new LongAdder();
+        final LongAdder cpuNanos = new LongAdder();
+        final LongAdder blockedMillis = new LongAdder();
+        final LongAdder waitedMillis = new LongAdder();
+    }
+
+    private final long intervalNanos;
+    private final Predicate<String> threadFilter;
+    private final boolean cpuTimeSupported = THREAD_MX_BEAN.isThreadCpuTimeSupported();
+    private final boolean contentionSupported = THREAD_MX_BEAN.isThreadContentionMonitoringSupported();
+    private final Map<Long, ThreadTrack> tracks = new LinkedHashMap<>();
+    private final Map<String, TaskStats> tasks = new ConcurrentHashMap<>();
+    // 샘플마다 시작 시점으로부터 지난 시간
+    private long[] sampleNanos = new long[1024];
+    private int sampleCount;
+    // 샘플러 쓰레드가 쓴 CPU 시간
+    private long samplingNanos;
+    private long startNanos;
+    private long stopNanos;
+    private boolean contentionWasEnabled;
+    private ScheduledExecutorService sampler;
+    private Path jfrFile;
+    private Recording recording;
+
+    // 10ms 간격, JVM 쓰레드를 뺀 모든 쓰레드
+    public ThreadProfiler() {
+        this(10L, TimeUnit.MILLISECONDS, name -> true);
+    }
+
+    // threadFilter : 쓰레드 이름으로 볼 쓰레드를 고른다. ( 예 : 풀 ThreadFactory 의 이름 prefix )
+    public ThreadProfiler(long interval, TimeUnit unit, Predicate<String> threadFilter) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval=" + interval);
+        }
+        this.intervalNanos = unit.toNanos(interval);
+        this.threadFilter = name -> !SYSTEM_THREADS.contains(name) && !name.startsWith("JFR ") && threadFilter.test(name);
+    }
+
+    // start 전에 부른다. stop 에서 file 로 덤프한다.
+    public synchronized ThreadProfiler recordJfr(Path file) {
+        if (startNanos != 0L) {
+            throw new IllegalStateException("이미 시작했습니다.");
+        }
+        this.jfrFile = file;
+        return this;
+    }
+
+    public synchronized ThreadProfiler start() {
+        if (startNanos != 0L) {
+            throw new IllegalStateException("이미 시작했습니다.");
+        }
+        if (contentionSupported) {
+            contentionWasEnabled = THREAD_MX_BEAN.isThreadContentionMonitoringEnabled();
+            THREAD_MX_BEAN.setThreadContentionMonitoringEnabled(true);
+        }
+        if (jfrFile != null) {
+            recording = new Recording();
+            recording.setName(SAMPLER_NAME);
+            recording.enable("jdk.JavaMonitorEnter").withThreshold(JFR_THRESHOLD).withStackTrace();
+            recording.enable("jdk.JavaMonitorWait").withThreshold(JFR_THRESHOLD);
+            recording.enable("jdk.ThreadPark").withThreshold(JFR_THRESHOLD).withStackTrace();
+            recording.enable("jdk.ThreadSleep").withThreshold(JFR_THRESHOLD);
+            recording.enable("jdk.ThreadStart");
+            recording.enable("jdk.ThreadEnd");
+            recording.enable(ProfiledTaskEvent.class).withoutThreshold();
+            recording.start();
+        }
+        startNanos = System.nanoTime();
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, SAMPLER_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sample, 0L, intervalNanos, TimeUnit.NANOSECONDS);
+        return this;
+    }
+
+    // 샘플링 / JFR 기록을 멈춘다. 여러번 불러도 된다.
+    public void stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = sampler;
+            sampler = null;
+        }
+        if (running == null) {
+            return;
+        }
+        running.shutdownNow();
+        try {
+            // 락을 잡고 기다리면 진행 중인 sample 이 락을 못 잡아 끝나지 않는다.
+            running.awaitTermination(1L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            sample();
+            stopNanos = System.nanoTime();
+            if (contentionSupported && !contentionWasEnabled) {
+                THREAD_MX_BEAN.setThreadContentionMonitoringEnabled(false);
+            }
+            if (recording != null) {
+                try {
+                    recording.stop();
+                    recording.dump(jfrFile);
+                } catch (IOException e) {
+                    _logger.warning("JFR 기록을 저장하지 못했습니다. " + jfrFile + " : " + e.getMessage());
+                } finally {
+                    recording.close();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    public Runnable wrap(String taskName, Runnable task) {
+        return () -> {
+            long[] start = begin();
+            ProfiledTaskEvent event = new ProfiledTaskEvent();
+            event.begin();
+            try {
+                task.run();
+            } finally {
+                end(taskName, start, event);
+            }
+        };
+    }
+
+    public <T> Callable<T> wrap(String taskName, Callable<T> task) {
+        return () -> {
+            long[] start = begin();
+            ProfiledTaskEvent event = new ProfiledTaskEvent();
+            event.begin();
+            try {
+                return task.call();
+            } finally {
+                end(taskName, start, event);
+            }
+        };
+    }
+
+    // { 벽시계, CPU, blocked ms, waited ms }
+    private long[] begin() {
+        long[] start = new long[4];
+        readCurrentThread(start);
+        return start;
+    }
+
+    private void end(String taskName, long[] start, ProfiledTaskEvent event) {
+        long[] end = new long[4];
+        readCurrentThread(end);
+        event.task = taskName;
+        event.commit();
+        TaskStats stats = tasks.computeIfAbsent(taskName, name -> new TaskStats());
+        stats.count.increment();
+        stats.wallNanos.add(end[0] - start[0]);
+        stats.cpuNanos.add(end[1] - start[1]);
+        stats.blockedMillis.add(end[2] - start[2]);
+        stats.waitedMillis.add(end[3] - start[3]);
+    }
+
+    private void readCurrentThread(long[] values) {
+        values[0] = System.nanoTime();
+        values[1] = cpuTimeSupported ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0L;
+        if (contentionSupported) {
+            ThreadInfo info = THREAD_MX_BEAN.getThreadInfo(Thread.currentThread().threadId());
+            values[2] = Math.max(0L, info.getBlockedTime());
+            values[3] = Math.max(0L, info.getWaitedTime());
+        }
+    }
+
+    private synchronized void sample() {
+        long begin = System.nanoTime();
+        long cpuBegin = cpuTimeSupported ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0L;
+        ThreadInfo[] infos = THREAD_MX_BEAN.getThreadInfo(THREAD_MX_BEAN.getAllThreadIds(), 1);
+        int sample = sampleCount;
+        for (ThreadInfo info : infos) {
+            if (info == null || !threadFilter.test(info.getThreadName())) {
+                continue;
+            }
+            ThreadActivity activity = ThreadActivity.of(info);
+            if (activity == null) {
+                continue;
+            }
+            ThreadTrack track = tracks.computeIfAbsent(info.getThreadId(), id -> new ThreadTrack(info, sample));
+            track.record(sample, activity, info, cpuTimeSupported ? THREAD_MX_BEAN.getThreadCpuTime(info.getThreadId()) : -1L);
+        }
+        if (sample == sampleNanos.length) {
+            sampleNanos = Arrays.copyOf(sampleNanos, sample * 2);
+        }
+        sampleNanos[sample] = begin - startNanos;
+        sampleCount++;
+        samplingNanos += cpuTimeSupported ? THREAD_MX_BEAN.getCurrentThreadCpuTime() - cpuBegin : System.nanoTime() - begin;
+    }
+
+    public synchronized int getSampleCount() {
+        return sampleCount;
+    }
+
+    // 쓰레드마다 한 줄. 칸 하나는 ( 전체 샘플 / width ) 개 샘플이고 그 중 가장 많았던 상태를 찍는다. '.' 은 쓰레드가 없던 구간
+    public synchronized String timeline(int width) {
+        StringBuilder builder = new StringBuilder();
+        int columns = Math.max(1, Math.min(width, sampleCount));
+        int nameWidth = nameWidth();
+        String end = millis(elapsedNanos()) + "ms";
+        builder.append(String.format("%-" + nameWidth + "s |%s|%n", "thread", "0ms" + " ".repeat(Math.max(1, columns - 3 - end.length())) + end));
+        int[] votes = new int[ThreadActivity.values().length];
+        for (ThreadTrack track : tracks.values()) {
+            builder.append(String.format("%-" + nameWidth + "." + nameWidth + "s |", track.name));
+            for (int column = 0; column < columns; column++) {
+                Arrays.fill(votes, 0);
+                int from = (int) ((long) column * sampleCount / columns);
+                int to = (int) ((long) (column + 1) * sampleCount / columns);
+                ThreadActivity dominant = null;
+                for (int sample = from; sample < to; sample++) {
+                    ThreadActivity activity = track.activityAt(sample);
+                    if (activity != null && ++votes[activity.ordinal()] > (dominant == null ? 0 : votes[dominant.ordinal()])) {
+                        dominant = activity;
+                    }
+                }
+                builder.append(dominant == null ? '.' : dominant.symbol());
+            }
+            builder.append('|').append(System.lineSeparator());
+        }
+        builder.append("  ");
+        for (ThreadActivity activity : ThreadActivity.values()) {
+            builder.append(activity.symbol()).append('=').append(activity.label()).append("  ");
+        }
+        return builder.append(System.lineSeparator()).toString();
+    }
+
+    public synchronized String summary() {
+        StringBuilder builder = new StringBuilder();
+        long elapsed = elapsedNanos();
+        builder.append(String.format("%.1fms 동안 %d번 샘플 ( 간격 %.1fms, 샘플링 CPU %.2fms = %.2f%% ), 쓰레드 %d개%n", elapsed / 1e6, sampleCount,
+                intervalNanos / 1e6, samplingNanos / 1e6, elapsed == 0 ? 0.0 : samplingNanos * 100.0 / elapsed, tracks.size()));
+        int nameWidth = nameWidth();
+        builder.append(String.format("%-" + nameWidth + "s %7s", "thread", "samples"));
+        for (ThreadActivity activity : ThreadActivity.values()) {
+            builder.append(String.format(" %4s", activity.symbol() + "%"));
+        }
+        builder.append(String.format(" %9s %14s %14s  %s%n", "cpu(ms)", "blocked(n/ms)", "waited(n/ms)", "top lock"));
+        Map<String, Integer> allLocks = new HashMap<>();
+        for (ThreadTrack track : tracks.values()) {
+            int samples = track.samples();
+            builder.append(String.format("%-" + nameWidth + "." + nameWidth + "s %7d", track.name, samples));
+            for (int count : track.counts) {
+                builder.append(String.format(" %4.0f", samples == 0 ? 0.0 : count * 100.0 / samples));
+            }
+            builder.append(String.format(" %9.1f %14s %14s  %s%n", Math.max(0L, track.lastCpuNanos - track.firstCpuNanos) / 1e6,
+                    contention(track.lastBlockedCount - track.firstBlockedCount, track.lastBlockedMillis - track.firstBlockedMillis),
+                    contention(track.lastWaitedCount - track.firstWaitedCount, track.lastWaitedMillis - track.firstWaitedMillis),
+                    track.locks.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse("-")));
+            track.locks.forEach((lock, count) -> allLocks.merge(lock, count, Integer::sum));
+        }
+        if (!allLocks.isEmpty()) {
+            builder.append(String.format("%n경합이 많았던 락 ( 기다린 샘플 수 )%n"));
+            allLocks.entrySet().stream().sorted(Map.Entry.<String, Integer>comparingByValue().reversed()).limit(TOP_LOCKS)
+                    .forEach(entry -> builder.append(String.format("  %6d  %s%n", entry.getValue(), entry.getKey())));
+        }
+        if (!tasks.isEmpty()) {
+            builder.append(String.format("%n작업별 평균 시간 ms ( other = wall - cpu - blocked - waited : IO, CPU 차례 대기, GC 등 )%n"));
+            builder.append(String.format("%-16s %7s %9s %9s %9s %9s %9s%n", "task", "count", "wall", "cpu", "blocked", "waited", "other"));
+            tasks.entrySet().stream().sorted(Comparator.comparingLong((Map.Entry<String, TaskStats> entry) -> entry.getValue().wallNanos.sum()).reversed())
+                    .forEach(entry -> {
+                        TaskStats stats = entry.getValue();
+                        long count = Math.max(1L, stats.count.sum());
+                        double wall = stats.wallNanos.sum() / 1e6 / count;
+                        double cpu = stats.cpuNanos.sum() / 1e6 / count;
+                        double blocked = (double) stats.blockedMillis.sum() / count;
+                        double waited = (double) stats.waitedMillis.sum() / count;
+                        builder.append(String.format("%-16s %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), stats.count.sum(), wall, cpu, blocked,
+                                waited, Math.max(0.0, wall - cpu - blocked - waited)));
+                    });
+        }
+        return builder.toString();
+    }
+
+    // JFR 기록에서 이벤트 종류 / 대상 클래스별 횟수와 시간 합 ( recordJfr 을 주고 stop 한 뒤 )
+    public String jfrSummary() throws IOException {
+        Path file;
+        synchronized (this) {
+            file = recording == null || sampler != null ? null : jfrFile;
+        }
+        if (file == null) {
+            return "";
+        }
+        Map<String, long[]> totals = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            RecordedThread thread = event.getThread();
+            if (thread == null || thread.getJavaName() == null || !threadFilter.test(thread.getJavaName())) {
+                continue;
+            }
+            String type = event.getEventType().getName();
+            String target;
+            switch (type) {
+                case "jdk.JavaMonitorEnter":
+                case "jdk.JavaMonitorWait":
+                    target = event.getClass("monitorClass") == null ? "-" : event.getClass("monitorClass").getName();
+                    break;
+                case "jdk.ThreadPark":
+                    target = event.getClass("parkedClass") == null ? "-" : event.getClass("parkedClass").getName();
+                    break;
+                case "threadtest.ProfiledTask":
+                    target = event.getString("task");
+                    break;
+                default:
+                    target = "";
+                    break;
+            }
+            long[] total = totals.computeIfAbsent(type + " " + target, key -> new long[2]);
+            total[0]++;
+            total[1] += event.getDuration().toNanos();
+        }
+        StringBuilder builder = new StringBuilder(String.format("JFR %s ( %.1fMB )%n%-72s %8s %12s%n", file, Files.size(file) / 1e6,
+                "event", "count", "total(ms)"));
+        totals.entrySet().stream().sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[1]).reversed())
+                .forEach(entry -> builder.append(String.format("%-72s %8d %12.1f%n", entry.getKey(), entry.getValue()[0], entry.getValue()[1] / 1e6)));
+        return builder.toString();
+    }
+
+    // summary + timeline ( + JFR 요약 ) 을 file 에 쓴다.
+    public void writeReport(Path file) throws IOException {
+        String report = summary() + System.lineSeparator() + timeline(TIMELINE_WIDTH) + System.lineSeparator() + jfrSummary();
+        Files.writeString(file, report, StandardCharsets.UTF_8);
+    }
+
+    // thread,activity,start_ms,end_ms : 같은 상태가 이어진 구간 하나가 한 줄 ( 스프레드시트 / 간트 차트용 )
+    public synchronized void writeTimelineCsv(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("thread,activity,start_ms,end_ms");
+        for (ThreadTrack track : tracks.values()) {
+            ThreadActivity current = null;
+            int runStart = 0;
+            for (int sample = track.firstSample; sample <= track.lastSample + 1; sample++) {
+                ThreadActivity activity = sample <= track.lastSample ? track.activityAt(sample) : null;
+                if (activity == current) {
+                    continue;
+                }
+                if (current != null) {
+                    lines.add(String.format("\"%s\",%s,%.1f,%.1f", track.name.replace("\"", "\"\""), current, sampleNanos[runStart] / 1e6, sampleEndNanos(sample - 1) / 1e6));
+                }
+                current = activity;
+                runStart = sample;
+            }
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    // 샘플 하나는 다음 샘플 직전까지를 대표한다.
+    private long sampleEndNanos(int sample) {
+        return sample + 1 < sampleCount ? sampleNanos[sample + 1] : sampleNanos[sample] + intervalNanos;
+    }
+
+    private long elapsedNanos() {
+        if (startNanos == 0L) {
+            return 0L;
+        }
+        return (stopNanos != 0L ? stopNanos : System.nanoTime()) - startNanos;
+    }
+
+    private int nameWidth() {
+        int width = 6;
+        for (ThreadTrack track : tracks.values()) {
+            width = Math.max(width, track.name.length());
+        }
+        return Math.min(width, 32);
+    }
+
+    private String contention(long count, long millis) {
+        return contentionSupported ? count + "/" + millis : "-";
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,131 @@
+package threadtest.schedule;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/*
+ * crontab 형식 Trigger ( "분 시 일 월 요일" 다섯 칸 )
+ *  각 칸은 *, 숫자, 범위 a-b, 간격 * / n 또는 a-b/n, 쉼표 목록을 받는다. 요일은 0~7 ( 0 과 7 이 일요일 )
+ *  일과 요일을 둘 다 지정하면 crontab 처럼 둘 중 하나만 맞아도 실행한다.
+ *  칸마다 허용 값을 long 비트 하나에 담아두고 ( 분 0~59 도 64비트 안에 들어감 ) 다음 시각은 월 -> 일 -> 시 -> 분 순서로 건너뛰며 찾는다.
+ */
+public final class CronTrigger implements Trigger {
+
+    // 4년 ( 2월 29일만 허용한 경우 ) 을 넘게 찾아도 없으면 맞는 시각이 없는 식이다.
+    private static final int MAX_SEARCH_YEARS = 5;
+
+    private final String expression;
+    private final ZoneId zone;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean dayOfMonthAny;
+    private final boolean dayOfWeekAny;
+
+    public CronTrigger(String expression) {
+        this(expression, ZoneId.systemDefault());
+    }
+
+    public CronTrigger(String expression, ZoneId zone) {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("cron 식은 \"분 시 일 월 요일\" 다섯 칸이어야 합니다 : " + expression);
+        }
+        this.expression = expression;
+        this.zone = zone;
+        this.minutes = parseField(fields[0], 0, 59, expression);
+        this.hours = parseField(fields[1], 0, 23, expression);
+        this.daysOfMonth = parseField(fields[2], 1, 31, expression);
+        this.months = parseField(fields[3], 1, 12, expression);
+        long week = parseField(fields[4], 0, 7, expression);
+        // 7 ( 일요일 ) 은 0 으로 합친다.
+        this.daysOfWeek = (week | (week >>> 7)) & 0x7FL;
+        this.dayOfMonthAny = fields[2].equals("*");
+        this.dayOfWeekAny = fields[4].equals("*");
+    }
+
+    @Override
+    public long nextRunMillis(long afterMillis) {
+        ZonedDateTime time = Instant.ofEpochMilli(afterMillis).atZone(zone).truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        ZonedDateTime limit = time.plusYears(MAX_SEARCH_YEARS);
+        while (time.isBefore(limit)) {
+            if (!has(months, time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!dayMatches(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!has(hours, time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!has(minutes, time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time.toInstant().toEpochMilli();
+            }
+        }
+        throw new IllegalStateException("cron 식에 맞는 시각이 " + MAX_SEARCH_YEARS + "년 안에 없습니다 : " + expression);
+    }
+
+    @Override
+    public String toString() {
+        return "cron(" + expression + ")";
+    }
+
+    private boolean dayMatches(ZonedDateTime time) {
+        boolean dayOfMonth = has(daysOfMonth, time.getDayOfMonth());
+        // DayOfWeek 는 월요일 1 ~ 일요일 7
+        boolean dayOfWeek = has(daysOfWeek, time.getDayOfWeek().getValue() % 7);
+        if (dayOfMonthAny || dayOfWeekAny) {
+            return dayOfMonth && dayOfWeek;
+        }
+        return dayOfMonth || dayOfWeek;
+    }
+
+    private static boolean has(long bits, int value) {
+        return (bits & (1L << value)) != 0;
+    }
+
+    static long parseField(String field, int min, int max, String expression) {
+        long bits = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max, expression);
+                part = part.substring(0, slash);
+            }
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else {
+                int dash = part.indexOf('-');
+                from = parseNumber(dash < 0 ? part : part.substring(0, dash), min, max, expression);
+                // "5/15" 는 5 부터 끝까지 15 간격
+                to = dash >= 0 ? parseNumber(part.substring(dash + 1), min, max, expression) : slash >= 0 ? max : from;
+                if (from > to) {
+                    throw new IllegalArgumentException("cron 범위가 거꾸로 되어 있습니다 : " + part + " ( " + expression + " )");
+                }
+            }
+            for (int value = from; value <= to; value += step) {
+                bits |= 1L << value;
+            }
+        }
+        return bits;
+    }
+
+    private static int parseNumber(String text, int min, int max, String expression) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value < min || value > max) {
+                throw new IllegalArgumentException("cron 값 " + value + " 이 " + min + "~" + max + " 범위 밖입니다. ( " + expression + " )");
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("cron 값이 숫자가 아닙니다 : " + text + " ( " + expression + " )", e);
+        }
+    }
+}
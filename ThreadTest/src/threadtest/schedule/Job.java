@@ -0,0 +1,11 @@
+package threadtest.schedule;
+
+/*
+ * JobScheduler 에 등록하는 작업 한개 ( XFDeliveryDelayListWorker.main 의 본문에 해당 )
+ *  실행할 때마다 같은 객체의 run 이 다시 불린다. 쓰레드 풀은 직접 만들지 말고 context.executor() 를 쓴다.
+ */
+@FunctionalInterface
+public interface Job {
+
+    void run(JobContext context) throws Exception;
+}
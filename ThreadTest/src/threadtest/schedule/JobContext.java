@@ -0,0 +1,13 @@
+package threadtest.schedule;
+
+import java.util.concurrent.ExecutorService;
+
+import threadtest.lock.JobLockService;
+
+/*
+ * 실행 한번의 정보
+ *  executor : 스케줄러가 들고 있는 작업 풀 ( 실행이 끝나도 닫지 않는다. shutdown 하면 안 됨 )
+ *  lock     : JobLockService 로 잡은 락. 스케줄러에 JobLockService 를 주지 않았으면 null
+ */
+public record JobContext(String jobName, long runNumber, ExecutorService executor, JobLockService.JobLock lock) {
+}
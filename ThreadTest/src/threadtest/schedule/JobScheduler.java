@@ -0,0 +1,297 @@
+package threadtest.schedule;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import threadtest.lock.JobLockService;
+import threadtest.pool.CountingThreadFactory;
+import threadtest.pool.GracefulShutdown;
+import threadtest.pool.InstrumentedThreadPoolExecutor;
+import threadtest.pool.LatencyHistogram;
+
+/*
+ * 배치 작업을 한 JVM 안에서 계속 띄워두고 주기적으로 실행하는 스케줄러
+ *
+ *  XFDeliveryDelayListWorker.main 은 실행할 때마다
+ *   JVM 시작 -> 클래스 로딩 -> newFixedThreadPool(10) -> 락 -> 조회 / 알림 ( 인터프리터로 시작해서 JIT 컴파일 ) -> 풀 종료 -> JVM 종료
+ *  를 반복하므로 실제 일보다 준비 / 정리 비용이 더 클 때가 많다.
+ *  여기서는
+ *   - 작업 풀( executor ) 을 한번 만들어 미리 쓰레드를 띄워두고 모든 실행이 같이 쓴다. ( 실행이 끝나도 닫지 않음 )
+ *   - 작업마다 Trigger ( fixedDelay / cron ) 로 다음 시각을 정해 ScheduledThreadPoolExecutor 에 한번씩 예약한다.
+ *   - 다음 실행은 이번 실행이 끝난 뒤에 예약하므로 같은 작업이 겹쳐 돌지 않는다.
+ *     runNow 로 직접 실행하는 중에 예약 시각이 오면 그 회차는 건너뛴다.
+ *   - JobLockService 를 주면 실행마다 작업 이름으로 락을 잡는다. ( 다른 서버의 스케줄러와도 겹치지 않게 )
+ *  실행마다 걸린 시간과 CPU 시간을 RunReport 로 남긴다.
+ *
+ *  사용 예
+ *      JobScheduler scheduler = new JobScheduler("batch", 10, lockService);
+ *      scheduler.register("XFDeliveryDelayListWorker", Trigger.cron("0 9-18 * * 1-5"), new DeliveryDelayJob(...));
+ */
+public class JobScheduler implements AutoCloseable {
+
+    private static final Logger _logger = Logger.getLogger("batch");
+    private static final OperatingSystemMXBean OS = ManagementFactory.getOperatingSystemMXBean();
+
+    static final int RECENT_REPORTS = 100;
+
+    private final String name;
+    private final ScheduledThreadPoolExecutor timer;
+    private final InstrumentedThreadPoolExecutor executor;
+    private final JobLockService lockService;
+    private final Map<String, ScheduledJob> jobs = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public JobScheduler(String name, int poolSize) {
+        this(name, poolSize, 1, null);
+    }
+
+    public JobScheduler(String name, int poolSize, JobLockService lockService) {
+        this(name, poolSize, 1, lockService);
+    }
+
+    // runnerThreads : 동시에 실행할 수 있는 작업 수 ( 작업 본문이 이 쓰레드에서 돈다 )
+    public JobScheduler(String name, int poolSize, int runnerThreads, JobLockService lockService) {
+        this.name = name;
+        this.lockService = lockService;
+        this.timer = new ScheduledThreadPoolExecutor(runnerThreads, new CountingThreadFactory(name + "-runner"));
+        // 취소한 예약이 큐에 남아있지 않게
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.executor = new InstrumentedThreadPoolExecutor(name + "-pool", poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CountingThreadFactory(name + "-worker"), new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+    }
+
+    public ScheduledJob register(String jobName, Trigger trigger, Job job) {
+        if (closed) {
+            throw new IllegalStateException(name + " 스케줄러가 이미 닫혔습니다.");
+        }
+        ScheduledJob scheduled = new ScheduledJob(jobName, trigger, job);
+        if (jobs.putIfAbsent(jobName, scheduled) != null) {
+            throw new IllegalArgumentException("이미 등록된 작업입니다 : " + jobName);
+        }
+        scheduled.scheduleNext(System.currentTimeMillis());
+        _logger.info(jobName + " 등록 ( " + trigger + " )");
+        return scheduled;
+    }
+
+    // 예약을 취소한다. 실행중이면 그 실행은 끝까지 돈다.
+    public boolean unregister(String jobName) {
+        ScheduledJob job = jobs.remove(jobName);
+        if (job == null) {
+            return false;
+        }
+        job.cancel();
+        return true;
+    }
+
+    public ScheduledJob getJob(String jobName) {
+        return jobs.get(jobName);
+    }
+
+    // 모든 실행이 같이 쓰는 작업 풀
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        jobs.values().forEach(ScheduledJob::cancel);
+        jobs.clear();
+        // 실행중인 작업이 끝나고 나서 작업 풀을 닫는다.
+        GracefulShutdown.defaults().shutdown(name + "-runner", timer);
+        GracefulShutdown.defaults().shutdown(name + "-pool", executor);
+    }
+
+    // 프로세스 전체 CPU 시간 ( 측정 못하면 -1 )
+    //  작업 쓰레드뿐 아니라 JIT 컴파일 / GC 쓰레드까지 포함해야 처음 실행과 이후 실행의 차이가 보인다.
+    public static long processCpuNanos() {
+        if (OS instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getProcessCpuTime();
+        }
+        return -1L;
+    }
+
+    public final class ScheduledJob {
+        private final String jobName;
+        private final Trigger trigger;
+        private final Job job;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final AtomicLong runNumber = new AtomicLong();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LatencyHistogram wallTimes = new LatencyHistogram();
+        private final ArrayDeque<RunReport> recent = new ArrayDeque<>();
+        // cancel 과 scheduleNext 가 같이 잡는다. ( cancel 이 next 를 읽은 뒤에 새 회차가 예약되면 취소가 빠진다 )
+        private final Object scheduleLock = new Object();
+        private volatile ScheduledFuture<?> next;
+        private volatile long nextRunMillis;
+        private volatile boolean cancelled;
+
+        ScheduledJob(String jobName, Trigger trigger, Job job) {
+            this.jobName = jobName;
+            this.trigger = trigger;
+            this.job = job;
+        }
+
+        // 예약과 상관없이 지금 호출한 쓰레드에서 실행한다. 이미 실행중이면 null
+        public RunReport runNow() {
+            if (!running.compareAndSet(false, true)) {
+                skipped.increment();
+                return null;
+            }
+            try {
+                return execute();
+            } finally {
+                running.set(false);
+            }
+        }
+
+        public String getName() {
+            return jobName;
+        }
+
+        public Trigger getTrigger() {
+            return trigger;
+        }
+
+        public boolean isRunning() {
+            return running.get();
+        }
+
+        public long getNextRunMillis() {
+            return nextRunMillis;
+        }
+
+        public long getRunCount() {
+            return runNumber.get();
+        }
+
+        // 실행중이거나 다른 곳에서 락을 잡고 있어서 건너뛴 회차 수
+        public long getSkippedCount() {
+            return skipped.sum();
+        }
+
+        public long getFailureCount() {
+            return failures.sum();
+        }
+
+        public long getWallP50Micros() {
+            return TimeUnit.NANOSECONDS.toMicros(wallTimes.percentile(50));
+        }
+
+        public long getWallP99Micros() {
+            return TimeUnit.NANOSECONDS.toMicros(wallTimes.percentile(99));
+        }
+
+        // 최근 RECENT_REPORTS 번의 실행 결과 ( 오래된 것부터 )
+        public List<RunReport> recentReports() {
+            synchronized (recent) {
+                return new ArrayList<>(recent);
+            }
+        }
+
+        void cancel() {
+            synchronized (scheduleLock) {
+                cancelled = true;
+                if (next != null) {
+                    next.cancel(false);
+                }
+            }
+        }
+
+        void scheduleNext(long afterMillis) {
+            synchronized (scheduleLock) {
+                if (cancelled || closed) {
+                    return;
+                }
+                long at = trigger.nextRunMillis(afterMillis);
+                nextRunMillis = at;
+                next = timer.schedule(this::fire, Math.max(0L, at - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void fire() {
+            if (!running.compareAndSet(false, true)) {
+                skipped.increment();
+                _logger.info(jobName + " 가 아직 실행중이라 이번 회차는 건너뜁니다.");
+                scheduleNext(System.currentTimeMillis());
+                return;
+            }
+            try {
+                execute();
+            } finally {
+                running.set(false);
+                scheduleNext(System.currentTimeMillis());
+            }
+        }
+
+        private RunReport execute() {
+            if (lockService == null) {
+                return measure(null);
+            }
+            try (JobLockService.JobLock lock = lockService.tryLock(jobName)) {
+                if (lock == null) {
+                    skipped.increment();
+                    _logger.info(jobName + " 가 다른 곳에서 실행중이라 이번 회차는 건너뜁니다.");
+                    return null;
+                }
+                return measure(lock);
+            } catch (Exception e) {
+                // 락 저장소 오류. 작업은 실행하지 않는다.
+                failures.increment();
+                _logger.severe(jobName + " 락 처리 중 에러 : " + e.getMessage());
+                return null;
+            }
+        }
+
+        private RunReport measure(JobLockService.JobLock lock) {
+            long number = runNumber.incrementAndGet();
+            long startMillis = System.currentTimeMillis();
+            long startCpu = processCpuNanos();
+            long start = System.nanoTime();
+            String error = null;
+            try {
+                job.run(new JobContext(jobName, number, executor, lock));
+            } catch (InterruptedException e) {
+                error = "interrupted";
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                error = e.getClass().getSimpleName() + " : " + e.getMessage();
+            }
+            long wallNanos = System.nanoTime() - start;
+            long endCpu = processCpuNanos();
+            wallTimes.record(wallNanos);
+            RunReport report = new RunReport(jobName, number, startMillis, TimeUnit.NANOSECONDS.toMicros(wallNanos),
+                    startCpu < 0 ? -1L : TimeUnit.NANOSECONDS.toMicros(endCpu - startCpu), error);
+            synchronized (recent) {
+                if (recent.size() == RECENT_REPORTS) {
+                    recent.removeFirst();
+                }
+                recent.addLast(report);
+            }
+            if (error == null) {
+                _logger.info(report.toString());
+            } else {
+                failures.increment();
+                _logger.severe(report.toString());
+            }
+            return report;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package threadtest.schedule;
+
+/*
+ * 실행 한번의 결과
+ *  wallMicros : 시작부터 끝까지 걸린 시간
+ *  cpuMicros  : 그 사이 프로세스 전체가 쓴 CPU 시간 ( JIT 컴파일 / GC 쓰레드 포함, 측정 못하면 -1 )
+ *  error      : 실패했으면 예외 메시지, 성공이면 null
+ */
+public record RunReport(String jobName, long runNumber, long startMillis, long wallMicros, long cpuMicros, String error) {
+
+    public boolean succeeded() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s #%d : %.1fms ( CPU %.1fms ) %s", jobName, runNumber, wallMicros / 1000.0, cpuMicros / 1000.0,
+                error == null ? "성공" : "실패 - " + error);
+    }
+}
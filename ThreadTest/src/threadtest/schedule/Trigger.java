@@ -0,0 +1,28 @@
+package threadtest.schedule;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 다음 실행 시각을 정하는 규칙
+ *  afterMillis : 직전 실행이 끝난 시각 ( 처음에는 등록한 시각 )
+ *  끝난 시각 기준으로 계산하므로 실행이 길어져서 지나간 시각은 건너뛴다. ( 밀린 실행을 몰아서 하지 않음 )
+ */
+@FunctionalInterface
+public interface Trigger {
+
+    long nextRunMillis(long afterMillis);
+
+    // 직전 실행이 끝나고 delay 뒤 ( ScheduledExecutorService.scheduleWithFixedDelay 와 같음 )
+    static Trigger fixedDelay(long delay, TimeUnit unit) {
+        long delayMillis = unit.toMillis(delay);
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("delay : " + delay + " " + unit);
+        }
+        return afterMillis -> afterMillis + delayMillis;
+    }
+
+    // "분 시 일 월 요일" ( 예: "*/10 9-18 * * 1-5" 평일 9시~18시 10분마다 )
+    static Trigger cron(String expression) {
+        return new CronTrigger(expression);
+    }
+}
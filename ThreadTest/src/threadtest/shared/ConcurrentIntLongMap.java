@@ -0,0 +1,288 @@
+package threadtest.shared;
+
+import java.util.concurrent.locks.StampedLock;
+
+/*
+ * int 키 -> long 값 동시성 맵 ( 박싱 없음 )
+ *
+ *  ConcurrentHashMap<Integer, Long> 로 카운트를 모으면 merge 한번마다 Integer / Long 객체가 생기고
+ *  synchronized HashMap 은 모든 쓰레드가 락 하나에 줄을 선다.
+ *  여기서는
+ *   - 키를 해시해서 segment 여러개로 나누고 segment 마다 StampedLock 을 둔다. ( 다른 segment 끼리는 안 막힘 )
+ *   - segment 안은 int[] / long[] 배열에 선형 탐색( open addressing ) 으로 저장한다.
+ *   - 읽기는 낙관적 읽기( tryOptimisticRead ) 로 락 없이 읽고, 그 사이에 쓰기가 있었으면 읽기 락으로 다시 읽는다.
+ *  없는 키를 읽으면 호출하는 쪽이 준 missing 값을 돌려준다. ( null 대신 )
+ *
+ *  예 : user 별 보낸 알림 수를 여러 작업 쓰레드가 같이 셀 때 counts.addAndGet(userId, 1)
+ */
+public final class ConcurrentIntLongMap {
+
+    @FunctionalInterface
+    public interface IntLongConsumer {
+        void accept(int key, long value);
+    }
+
+    static final int DEFAULT_CAPACITY = 16;
+    static final float LOAD_FACTOR = 0.75f;
+    static final int MAX_SEGMENTS = 1 << 10;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+
+    public ConcurrentIntLongMap() {
+        this(Math.max(16, Runtime.getRuntime().availableProcessors() * 4));
+    }
+
+    public ConcurrentIntLongMap(int concurrencyLevel) {
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("concurrencyLevel : " + concurrencyLevel);
+        }
+        int count = Math.min(MAX_SEGMENTS, concurrencyLevel == 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1);
+        segments = new Segment[count];
+        for (int index = 0; index < count; index++) {
+            segments[index] = new Segment();
+        }
+        // 해시 상위 비트로 segment, 하위 비트로 segment 안의 칸을 고른다.
+        segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+    }
+
+    public long get(int key, long missing) {
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash, missing);
+    }
+
+    public boolean containsKey(int key) {
+        int hash = hash(key);
+        return segmentFor(hash).contains(key, hash);
+    }
+
+    // 이전 값을 돌려준다. 없었으면 missing
+    public long put(int key, long value, long missing) {
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, false, missing);
+    }
+
+    // 없으면 0 에서 시작해서 delta 를 더하고, 더한 뒤의 값을 돌려준다.
+    public long addAndGet(int key, long delta) {
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, delta, true, 0L) + delta;
+    }
+
+    public long incrementAndGet(int key) {
+        return addAndGet(key, 1L);
+    }
+
+    // 지운 값을 돌려준다. 없었으면 missing
+    public long remove(int key, long missing) {
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash, missing);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                size += segment.size;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // segment 단위로 읽기 락을 잡고 돈다. 전체를 한 순간에 찍은 값은 아니다.
+    public void forEach(IntLongConsumer action) {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                Table table = segment.table;
+                for (int slot = 0; slot < table.keys.length; slot++) {
+                    if (table.used[slot]) {
+                        action.accept(table.keys[slot], table.values[slot]);
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.table = new Table(DEFAULT_CAPACITY);
+                segment.size = 0;
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    // murmur3 fmix32 : 연속된 id 도 고르게 퍼지도록
+    static int hash(int key) {
+        int hash = key;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    // 배열 세개를 한 객체로 묶어서 낙관적 읽기 중에 크기가 다른 배열끼리 섞여 읽히지 않게 한다.
+    static final class Table {
+        final int[] keys;
+        final long[] values;
+        final boolean[] used;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            values = new long[capacity];
+            used = new boolean[capacity];
+        }
+
+        // 키가 있는 칸, 없으면 -(넣을 칸 + 1)
+        int find(int key, int hash) {
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            // 낙관적 읽기 중에는 배열이 고쳐지는 중일 수 있으므로 최대 capacity 번만 돈다.
+            for (int probe = 0; probe < keys.length; probe++) {
+                if (!used[slot]) {
+                    return -(slot + 1);
+                }
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -(keys.length + 1);
+        }
+    }
+
+    static final class Segment {
+        final StampedLock lock = new StampedLock();
+        Table table = new Table(DEFAULT_CAPACITY);
+        int size;
+
+        long get(int key, int hash, long missing) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                Table current = table;
+                int slot = current.find(key, hash);
+                long value = slot >= 0 ? current.values[slot] : missing;
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                Table current = table;
+                int slot = current.find(key, hash);
+                return slot >= 0 ? current.values[slot] : missing;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        boolean contains(int key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                boolean found = table.find(key, hash) >= 0;
+                if (lock.validate(stamp)) {
+                    return found;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return table.find(key, hash) >= 0;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long put(int key, int hash, long value, boolean add, long missing) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = table.find(key, hash);
+                if (slot >= 0) {
+                    long previous = table.values[slot];
+                    table.values[slot] = add ? previous + value : value;
+                    return previous;
+                }
+                if (size + 1 > table.keys.length * LOAD_FACTOR) {
+                    resize();
+                    slot = table.find(key, hash);
+                }
+                slot = -slot - 1;
+                table.keys[slot] = key;
+                table.values[slot] = value;
+                table.used[slot] = true;
+                size++;
+                return missing;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        long remove(int key, int hash, long missing) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = table.find(key, hash);
+                if (slot < 0) {
+                    return missing;
+                }
+                long previous = table.values[slot];
+                deleteSlot(slot);
+                size--;
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        // 선형 탐색이라 칸을 그냥 비우면 뒤에 밀려 들어간 키를 못 찾는다. 뒤의 키들을 당겨서 빈칸을 메운다.
+        private void deleteSlot(int slot) {
+            Table current = table;
+            int mask = current.keys.length - 1;
+            int empty = slot;
+            current.used[empty] = false;
+            for (int next = (empty + 1) & mask; current.used[next]; next = (next + 1) & mask) {
+                int home = hash(current.keys[next]) & mask;
+                // home 이 ( empty, next ] 사이에 있으면 그 자리에 두어도 찾을 수 있다.
+                boolean reachable = empty <= next ? empty < home && home <= next : empty < home || home <= next;
+                if (!reachable) {
+                    current.keys[empty] = current.keys[next];
+                    current.values[empty] = current.values[next];
+                    current.used[empty] = true;
+                    current.used[next] = false;
+                    empty = next;
+                }
+            }
+        }
+
+        // 새 배열에 옮겨 담고 마지막에 참조만 바꾼다. ( 낙관적 읽기는 이전 배열을 끝까지 읽고 validate 에서 걸러진다. )
+        private void resize() {
+            Table old = table;
+            Table resized = new Table(old.keys.length << 1);
+            for (int slot = 0; slot < old.keys.length; slot++) {
+                if (old.used[slot]) {
+                    int target = -resized.find(old.keys[slot], hash(old.keys[slot])) - 1;
+                    resized.keys[target] = old.keys[slot];
+                    resized.values[target] = old.values[slot];
+                    resized.used[target] = true;
+                }
+            }
+            table = resized;
+        }
+    }
+}
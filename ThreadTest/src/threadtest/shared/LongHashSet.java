@@ -0,0 +1,101 @@
+package threadtest.shared;
+
+import java.util.Arrays;
+
+/*
+ * long 값 집합 ( 박싱 없음, 동기화 없음 )
+ *
+ *  HashSet<Long> 은 값마다 Long 객체 + HashMap.Node 를 만들어서 100만개면 수십 MB 가 된다.
+ *  여기서는 long[] 하나에 선형 탐색( open addressing ) 으로 담는다. ( 값 1개에 8 byte / LOAD_FACTOR )
+ *  빈칸 표시로 0 을 쓰므로 값 0 은 hasZero 로 따로 기억한다.
+ *  한 쓰레드에서 쓰거나 바깥에서 락으로 감싸서 쓴다. ( 여러 쓰레드가 같이 쓰는 맵은 ConcurrentIntLongMap 참고 )
+ */
+public final class LongHashSet {
+
+    static final float LOAD_FACTOR = 0.5f;
+
+    private long[] table;
+    private int size;
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        table = new long[capacity];
+    }
+
+    // 새로 들어갔으면 true, 이미 있었으면 false
+    public boolean add(long value) {
+        if (value == 0L) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int slot = find(table, value);
+        if (table[slot] == value) {
+            return false;
+        }
+        table[slot] = value;
+        if (++size > table.length * LOAD_FACTOR) {
+            resize();
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0L) {
+            return hasZero;
+        }
+        return table[find(table, value)] == value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        size = 0;
+        hasZero = false;
+    }
+
+    // 값이 있는 칸, 없으면 넣을 빈칸
+    private static int find(long[] table, long value) {
+        int mask = table.length - 1;
+        int slot = (int) mix(value) & mask;
+        while (table[slot] != 0L && table[slot] != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] resized = new long[table.length << 1];
+        for (long value : table) {
+            if (value != 0L) {
+                resized[find(resized, value)] = value;
+            }
+        }
+        table = resized;
+    }
+
+    // murmur3 fmix64 : 비슷한 값도 고르게 퍼지도록
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
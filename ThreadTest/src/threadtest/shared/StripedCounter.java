@@ -0,0 +1,82 @@
+package threadtest.shared;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/*
+ * 여러 쓰레드가 같이 올리는 long 카운터 ( LongAdder 와 같은 방식 )
+ *
+ *  synchronized 나 AtomicLong 은 값이 하나라서 쓰레드가 많아지면 그 한 칸( 캐시 라인 )을 두고 서로 뺏고 뺏긴다.
+ *  여기서는 값을 stripe 개로 나눠 쓰레드마다 다른 칸에 더하고, 읽을 때 전부 더한다.
+ *   - 칸 사이를 PADDING 만큼 띄워서 서로 다른 칸이 같은 캐시 라인에 올라가지 않게 한다. ( false sharing 방지 )
+ *   - 더하기는 getAndAdd ( CAS 재시도 없이 한번에 더함 )
+ *  sum() 은 더하는 도중에 읽으면 그 순간의 정확한 값이 아닐 수 있다. ( LongAdder 와 동일 ) 다 끝난 뒤 읽으면 정확하다.
+ *
+ *  RunnableRun 처럼 생성자로 넣어서 여러 Runnable 이 같은 객체를 공유하는 용도
+ */
+public final class StripedCounter {
+
+    // long 16개 = 128 byte. 인접 캐시 라인 prefetch 까지 고려해서 두 줄씩 띄운다.
+    static final int PADDING = 16;
+    static final int MAX_STRIPES = 256;
+
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] cells;
+    private final int mask;
+
+    public StripedCounter() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public StripedCounter(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes : " + stripes);
+        }
+        // 2의 거듭제곱으로 올려서 & mask 로 칸을 고른다.
+        int size = Math.min(MAX_STRIPES, stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1);
+        this.mask = size - 1;
+        this.cells = new long[(size + 1) * PADDING];
+    }
+
+    public void increment() {
+        add(1L);
+    }
+
+    public void add(long delta) {
+        CELLS.getAndAdd(cells, offset(), delta);
+    }
+
+    public long sum() {
+        long sum = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            sum += (long) CELLS.getVolatile(cells, (stripe + 1) * PADDING);
+        }
+        return sum;
+    }
+
+    // 읽고 0 으로 돌린다. 그 사이에 더해진 값은 다음 호출에서 읽힌다.
+    public long sumThenReset() {
+        long sum = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            sum += (long) CELLS.getAndSet(cells, (stripe + 1) * PADDING, 0L);
+        }
+        return sum;
+    }
+
+    public int stripes() {
+        return mask + 1;
+    }
+
+    // 쓰레드 id 를 섞어서 칸을 고른다. 앞 PADDING 칸은 배열 헤더 쪽과 안 겹치게 비워 둔다.
+    private int offset() {
+        long id = Thread.currentThread().threadId();
+        int hash = (int) (id * 0x9E3779B97F4A7C15L >>> 32);
+        return ((hash & mask) + 1) * PADDING;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(sum());
+    }
+}
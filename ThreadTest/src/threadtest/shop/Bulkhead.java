@@ -0,0 +1,82 @@
+package threadtest.shop;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import threadtest.pool.CountingThreadFactory;
+import threadtest.pool.GracefulShutdown;
+import threadtest.pool.InstrumentedThreadPoolExecutor;
+
+/*
+ * 원격 의존성 하나( 상점 조회, 할인 서비스 ... ) 전용 실행기
+ *
+ *  findPrices 예제는 상점 조회와 할인 적용을 executor 하나로 돌린다.
+ *  할인 서비스가 느려지면 그 작업들이 쓰레드를 전부 잡고 있어서 상점 조회까지 같이 밀린다.
+ *  의존성마다 Bulkhead 를 따로 두면
+ *   - maxConcurrent : 그 의존성에 동시에 나가는 호출 수 ( = 쓰레드 수 ) 상한
+ *   - maxQueued     : 기다릴 수 있는 호출 수. 넘치면 기다리지 않고 RejectedExecutionException 으로 바로 실패
+ *  한쪽이 느려져도 다른 쪽 쓰레드는 그대로 남는다.
+ *  쓰레드 풀은 InstrumentedThreadPoolExecutor 라서 대기 / 실행 시간, 거절 수를 dump() 로 볼 수 있다.
+ *  call() 이 돌려준 Future 를 cancel 하면 큐에서 기다리던 호출은 빼고, 실행 중인 호출은 interrupt 해서 자리를 바로 돌려준다.
+ *   ( 제한 시간이 지나 결과를 버린 호출이 자리를 잡고 있으면 뒤의 요청이 밀린다 )
+ */
+public class Bulkhead implements AutoCloseable {
+
+    private final String name;
+    private final InstrumentedThreadPoolExecutor executor;
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueued) {
+        this.name = name;
+        BlockingQueue<Runnable> queue = maxQueued == Integer.MAX_VALUE ? new LinkedBlockingQueue<>() : new ArrayBlockingQueue<>(maxQueued);
+        this.executor = new InstrumentedThreadPoolExecutor(name, maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS, queue,
+                new CountingThreadFactory(name), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // 기다리는 호출 수 제한 없음
+    public Bulkhead(String name, int maxConcurrent) {
+        this(name, maxConcurrent, Integer.MAX_VALUE);
+    }
+
+    public <T> CompletableFuture<T> call(Supplier<T> remoteCall) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                result.complete(remoteCall.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }, null);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(name + " 대기열이 가득 찼습니다.", e));
+        }
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                executor.remove(task);
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public InstrumentedThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void close() {
+        GracefulShutdown.defaults().shutdown(name, executor);
+    }
+}
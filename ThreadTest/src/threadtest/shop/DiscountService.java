@@ -0,0 +1,66 @@
+package threadtest.shop;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * 가짜 원격 할인 서비스 ( findPrices 예제의 Discount.applyDiscount )
+ *  latency 만큼 기다린 뒤 할인코드의 할인율을 적용한 "상점이름 price is 가격" 을 돌려준다.
+ *  예제는 static 메소드지만 지연 시간을 바꿔 끼울 수 있도록 객체로 만들었다.
+ *
+ *  capacity 를 주면 동시에 들어온 호출이 capacity 를 넘는 순간부터 느려진다.
+ *  ( 지연 = latency x (동시 호출 수 / capacity)^2, 실제 서비스가 포화되면 대기열 + 경합으로 급격히 느려지는 것을 흉내 )
+ */
+public class DiscountService {
+
+    public enum Code {
+        NONE(0), SILVER(5), GOLD(10), PLATINUM(15), DIAMOND(20);
+
+        private final int percentage;
+
+        Code(int percentage) {
+            this.percentage = percentage;
+        }
+
+        public int getPercentage() {
+            return percentage;
+        }
+    }
+
+    private final Latency latency;
+    private final int capacity;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public DiscountService(Latency latency) {
+        this(latency, Integer.MAX_VALUE);
+    }
+
+    public DiscountService(Latency latency, int capacity) {
+        this.latency = latency;
+        this.capacity = capacity;
+    }
+
+    public String applyDiscount(Quote quote) {
+        long priceCents = apply(quote.priceCents(), quote.discountCode());
+        return QuoteCodec.appendCents(QuoteCodec.threadLocalBuilder().append(quote.shopName()).append(" price is "), priceCents).toString();
+    }
+
+    private long apply(long priceCents, Code code) {
+        int concurrent = inFlight.incrementAndGet();
+        try {
+            if (concurrent <= capacity) {
+                latency.sleep();
+            } else {
+                double overload = (double) concurrent / capacity;
+                long millis = (long) (latency.nextMillis() * overload * overload);
+                Latency.fixed(millis).sleep();
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        return QuoteCodec.applyDiscountCents(priceCents, code);
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
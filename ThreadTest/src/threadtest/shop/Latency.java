@@ -0,0 +1,44 @@
+package threadtest.shop;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * 원격 호출 지연 시간 모델 ( Shop / DiscountService 에 주입 )
+ *  fixed   : 항상 같은 시간
+ *  uniform : min ~ max 사이 균등 분포
+ *  withTail: 대부분은 base 를 따르고 tailRatio 확률로 tailMillis 가 걸린다. ( 가끔 아주 느린 응답 )
+ */
+@FunctionalInterface
+public interface Latency {
+
+    long nextMillis();
+
+    default void sleep() {
+        long millis = nextMillis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted", e);
+        }
+    }
+
+    static Latency none() {
+        return () -> 0L;
+    }
+
+    static Latency fixed(long millis) {
+        return () -> millis;
+    }
+
+    static Latency uniform(long minMillis, long maxMillis) {
+        return () -> ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1);
+    }
+
+    static Latency withTail(Latency base, double tailRatio, long tailMillis) {
+        return () -> ThreadLocalRandom.current().nextDouble() < tailRatio ? tailMillis : base.nextMillis();
+    }
+}
@@ -0,0 +1,15 @@
+package threadtest.shop;
+
+import java.util.List;
+
+/*
+ * 제한 시간 안에 답한 상점의 가격 ( PriceFinder.findPricesWithin )
+ *  prices       : 답한 상점의 최종 가격 ( 조회 실패 줄 포함 )
+ *  missingShops : 제한 시간 안에 답하지 못한 상점 이름
+ */
+public record PartialPrices(List<String> prices, List<String> missingShops) {
+
+    public boolean isComplete() {
+        return missingShops.isEmpty();
+    }
+}
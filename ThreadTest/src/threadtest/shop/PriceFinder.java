@@ -0,0 +1,196 @@
+package threadtest.shop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import threadtest.async.Hedger;
+import threadtest.cache.AsyncLoadingCache;
+import threadtest.cache.CacheStats;
+
+/*
+ * ThreadTest.java 주석 "2번쨰 예시" 의 findPrices 를 실제 코드로 옮김
+ *
+ *  1. shop.getPrice      : shopStage 에서 비동기 조회 ( 원격 )
+ *  2. Quote.parse        : thenApply ( 원격 호출 없음, 조회를 끝낸 쓰레드에서 바로 )
+ *  3. applyDiscount      : thenCompose 로 discountStage 에서 비동기 호출 ( 원격 )
+ *
+ *  shared     : 예제처럼 두 원격 호출이 쓰레드 풀 하나를 같이 쓴다.
+ *  bulkheaded : 원격 의존성마다 Bulkhead 를 따로 둔다. ( Bulkhead 참고 )
+ *  상점 하나가 실패해도 전체를 실패시키지 않고 그 상점 줄만 "가격 조회 실패" 로 남긴다.
+ *
+ *  cached(..) 로 만들면 상점 가격( 상점 + 상품 ) 과 할인 결과( Quote ) 를 AsyncLoadingCache 에 담아
+ *  같은 조회가 동시에 / ttl 안에 다시 들어오면 원격 호출 없이 돌려준다.
+ *  hedged(..) 로 만들면 상점 조회가 p95 안에 끝나지 않을 때 한번 더 보낸다. ( Hedger 참고 )
+ *
+ *  findPrices 는 가장 느린 상점까지 기다린다. findPricesWithin 은 상점별 제한 시간과 전체 제한 시간 안에
+ *  답한 상점만 돌려주고 ( PartialPrices ) 나머지는 빠진 상점으로 남긴다.
+ *  제한 시간이 지난 상점의 원격 호출( 상점 조회, 할인 적용, 다시 보낸 호출 ) 은 cancel 해서 Bulkhead 자리를 바로 돌려준다.
+ *   ( 캐시로 불러오는 값은 같은 키를 기다리는 다른 요청과 같이 쓰므로 취소하지 않고 끝까지 불러온다 )
+ */
+public class PriceFinder {
+
+    private final List<Shop> shops;
+    private final DiscountService discountService;
+    private final Bulkhead shopStage;
+    private final Bulkhead discountStage;
+    // 캐시를 쓰지 않으면 null
+    private final AsyncLoadingCache<String, String> priceCache;
+    private final AsyncLoadingCache<Quote, String> discountCache;
+    // 다시 보내지 않으면 null
+    private final Hedger hedger;
+
+    // 요청 하나( 상점 하나 ) 가 낸 원격 호출. cancel() 뒤에 들어온 호출은 바로 취소한다.
+    private static final class RemoteCalls {
+        private final List<CompletableFuture<?>> calls = new ArrayList<>();
+        private boolean cancelled;
+
+        synchronized <T> CompletableFuture<T> track(CompletableFuture<T> call) {
+            if (cancelled) {
+                call.cancel(true);
+            } else {
+                calls.add(call);
+            }
+            return call;
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            // cancel 하면 뒤에 붙은 단계가 이 쓰레드에서 바로 돌면서 track 을 부를 수 있으므로 목록을 먼저 비운다.
+            List<CompletableFuture<?>> pending = new ArrayList<>(calls);
+            calls.clear();
+            pending.forEach(call -> call.cancel(true));
+        }
+    }
+
+    private PriceFinder(List<Shop> shops, DiscountService discountService, Bulkhead shopStage, Bulkhead discountStage,
+            AsyncLoadingCache<String, String> priceCache, AsyncLoadingCache<Quote, String> discountCache, Hedger hedger) {
+        this.shops = shops;
+        this.discountService = discountService;
+        this.shopStage = shopStage;
+        this.discountStage = discountStage;
+        this.priceCache = priceCache;
+        this.discountCache = discountCache;
+        this.hedger = hedger;
+    }
+
+    public static PriceFinder shared(List<Shop> shops, DiscountService discountService, Bulkhead executor) {
+        return new PriceFinder(shops, discountService, executor, executor, null, null, null);
+    }
+
+    public static PriceFinder bulkheaded(List<Shop> shops, DiscountService discountService, Bulkhead shopStage, Bulkhead discountStage) {
+        return new PriceFinder(shops, discountService, shopStage, discountStage, null, null, null);
+    }
+
+    // 같은 상점 / 실행기에 캐시만 붙인 PriceFinder ( 캐시 크기는 가격 / 할인 각각 maximumSize )
+    public PriceFinder cached(int maximumSize, long ttl, TimeUnit unit) {
+        return new PriceFinder(shops, discountService, shopStage, discountStage,
+                new AsyncLoadingCache<>(maximumSize, ttl, unit), new AsyncLoadingCache<>(maximumSize, ttl, unit), hedger);
+    }
+
+    // 상점 조회를 hedger 로 보내는 PriceFinder
+    public PriceFinder hedged(Hedger hedger) {
+        return new PriceFinder(shops, discountService, shopStage, discountStage, priceCache, discountCache, hedger);
+    }
+
+    public CacheStats priceCacheStats() {
+        return priceCache == null ? null : priceCache.stats();
+    }
+
+    public CacheStats discountCacheStats() {
+        return discountCache == null ? null : discountCache.stats();
+    }
+
+    public List<String> findPrices(String product) {
+        List<CompletableFuture<String>> priceFutures = findPricesAsync(product);
+        return priceFutures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    // 상점마다 perShopTimeout, 전체는 deadline 까지만 기다린다. 그때까지 답이 없는 상점은 missingShops 로
+    public PartialPrices findPricesWithin(String product, long perShopTimeout, long deadline, TimeUnit unit) {
+        List<RemoteCalls> shopCalls = new ArrayList<>(shops.size());
+        List<CompletableFuture<String>> priceFutures = new ArrayList<>(shops.size());
+        for (Shop shop : shops) {
+            RemoteCalls calls = new RemoteCalls();
+            CompletableFuture<String> price = findPrice(shop, product, calls).completeOnTimeout(null, perShopTimeout, unit);
+            // findPrice 는 실패해도 문자열로 끝나므로 null 은 상점별 제한 시간 초과
+            price.thenAccept(value -> {
+                if (value == null) {
+                    calls.cancel();
+                }
+            });
+            shopCalls.add(calls);
+            priceFutures.add(price);
+        }
+        CompletableFuture.allOf(priceFutures.toArray(new CompletableFuture[0]))
+                .completeOnTimeout(null, deadline, unit)
+                .join();
+
+        List<String> prices = new ArrayList<>();
+        List<String> missingShops = new ArrayList<>();
+        for (int index = 0; index < shops.size(); index++) {
+            String price = priceFutures.get(index).getNow(null);
+            if (price == null) {
+                // 전체 제한 시간 초과
+                shopCalls.get(index).cancel();
+                missingShops.add(shops.get(index).getName());
+            } else {
+                prices.add(price);
+            }
+        }
+        return new PartialPrices(prices, missingShops);
+    }
+
+    // 상점별 Future. 상점 순서 그대로이고 각 Future 는 실패하지 않는다.
+    public List<CompletableFuture<String>> findPricesAsync(String product) {
+        return shops.stream()
+                .map(shop -> findPrice(shop, product))
+                .collect(Collectors.toList());
+    }
+
+    public CompletableFuture<String> findPrice(Shop shop, String product) {
+        return findPrice(shop, product, new RemoteCalls());
+    }
+
+    private CompletableFuture<String> findPrice(Shop shop, String product, RemoteCalls calls) {
+        return quote(shop, product, calls)
+                .thenCompose(quote -> applyDiscount(quote, calls))
+                .exceptionally(throwable -> shop.getName() + " 가격 조회 실패 : " + cause(throwable).getMessage());
+    }
+
+    // 1, 2 단계만 ( 할인 전 견적 )
+    public CompletableFuture<Quote> quote(Shop shop, String product) {
+        return quote(shop, product, new RemoteCalls());
+    }
+
+    private CompletableFuture<Quote> quote(Shop shop, String product, RemoteCalls calls) {
+        CompletableFuture<String> price = priceCache == null
+                ? calls.track(getPrice(shop, product))
+                : priceCache.get(shop.getName() + ":" + product, key -> getPrice(shop, product));
+        return price.thenApply(Quote::parse);
+    }
+
+    // hedger 가 돌려준 Future 를 cancel 하면 Hedger 가 보낸 호출들도 cancel 된다.
+    private CompletableFuture<String> getPrice(Shop shop, String product) {
+        if (hedger == null) {
+            return shopStage.call(() -> shop.getPrice(product));
+        }
+        return hedger.call(() -> shopStage.call(() -> shop.getPrice(product)));
+    }
+
+    private CompletableFuture<String> applyDiscount(Quote quote, RemoteCalls calls) {
+        if (discountCache == null) {
+            return calls.track(discountStage.call(() -> discountService.applyDiscount(quote)));
+        }
+        return discountCache.get(quote, key -> discountStage.call(() -> discountService.applyDiscount(key)));
+    }
+
+    private static Throwable cause(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+}
@@ -0,0 +1,17 @@
+package threadtest.shop;
+
+/*
+ * 상점이 돌려준 가격 문자열 "상점이름:가격:할인코드" 를 파싱한 견적
+ *  findPrices 예제의 Quote.parse 를 그대로 구현 ( 원격 호출 없는 단순 변환 )
+ *  가격은 센트 단위 long ( 100.05 -> 10005 ). 파싱은 QuoteCodec 이 하고 여기서 새로 만드는 객체는 상점 이름 String 하나뿐이다.
+ */
+public record Quote(String shopName, long priceCents, DiscountService.Code discountCode) {
+
+    public static Quote parse(String value) {
+        return QuoteCodec.parse(value, QuoteCodec.threadLocalView()).toQuote();
+    }
+
+    public double price() {
+        return priceCents / 100.0;
+    }
+}
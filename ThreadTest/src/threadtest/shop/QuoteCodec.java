@@ -0,0 +1,209 @@
+package threadtest.shop;
+
+import java.nio.charset.StandardCharsets;
+
+/*
+ * "상점이름:가격:할인코드" 견적 문자열 파싱과 "상점이름 price is 가격" 포맷을 중간 String 없이 처리
+ *
+ *  기존 방식 ( split(":") + Double.parseDouble + String.format("%.2f") ) 은 견적 하나마다
+ *  배열 / 부분 문자열 / Formatter / double 변환용 객체를 여러개 만든다. findPrices 는 상점마다 이걸 한다.
+ *  여기서는
+ *   - 가격을 long 센트( 100.05 -> 10005 ) 로 다뤄서 double 변환과 반올림 객체가 없고
+ *   - 상점 이름은 원본 위치만 기억하며 ( QuoteView )
+ *   - 포맷은 호출하는 쪽이 준 StringBuilder ( 쓰레드별 재사용 ) 에 이어 붙인다.
+ *  할인 계산도 센트로 한다. ( 소수 셋째 자리에서 반올림, String.format("%.2f") 의 HALF_UP 과 같음 )
+ */
+public final class QuoteCodec {
+
+    private static final DiscountService.Code[] CODES = DiscountService.Code.values();
+
+    // 쓰레드마다 하나씩 두고 재사용 ( thenApply 는 조회를 끝낸 풀 쓰레드에서 실행되므로 쓰레드 사이에 공유되지 않음 )
+    private static final ThreadLocal<QuoteView> VIEW = ThreadLocal.withInitial(QuoteView::new);
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(64));
+
+    private QuoteCodec() {
+    }
+
+    public static QuoteView threadLocalView() {
+        return VIEW.get();
+    }
+
+    // 비워둔 쓰레드별 StringBuilder
+    public static StringBuilder threadLocalBuilder() {
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        return builder;
+    }
+
+    public static QuoteView parse(CharSequence text, QuoteView into) {
+        int length = text.length();
+        int firstColon = indexOf(text, ':', 0, length);
+        int secondColon = firstColon < 0 ? -1 : indexOf(text, ':', firstColon + 1, length);
+        if (secondColon < 0 || indexOf(text, ':', secondColon + 1, length) >= 0) {
+            throw new IllegalArgumentException("견적 형식이 아닙니다 : " + text);
+        }
+        into.text = text;
+        into.bytes = null;
+        into.nameStart = 0;
+        into.nameEnd = firstColon;
+        into.priceCents = parseCents(text, firstColon + 1, secondColon);
+        into.discountCode = parseCode(text, secondColon + 1, length);
+        return into;
+    }
+
+    // ASCII 로 들어온 견적 ( 소켓 / 파일 버퍼에서 바로 읽을 때 )
+    public static QuoteView parse(byte[] ascii, int offset, int length, QuoteView into) {
+        int end = offset + length;
+        int firstColon = indexOf(ascii, (byte) ':', offset, end);
+        int secondColon = firstColon < 0 ? -1 : indexOf(ascii, (byte) ':', firstColon + 1, end);
+        if (secondColon < 0 || indexOf(ascii, (byte) ':', secondColon + 1, end) >= 0) {
+            throw new IllegalArgumentException("견적 형식이 아닙니다 : " + new String(ascii, offset, length, StandardCharsets.ISO_8859_1));
+        }
+        into.text = null;
+        into.bytes = ascii;
+        into.nameStart = offset;
+        into.nameEnd = firstColon;
+        into.priceCents = parseCents(ascii, firstColon + 1, secondColon);
+        into.discountCode = parseCode(ascii, secondColon + 1, end);
+        return into;
+    }
+
+    // "123.4" -> 12340, "99" -> 9900. 소수 둘째 자리까지만 받는다.
+    public static long parseCents(CharSequence text, int start, int end) {
+        if (start >= end) {
+            throw new IllegalArgumentException("가격이 비어 있습니다.");
+        }
+        long cents = 0;
+        int fraction = -1;
+        for (int index = start; index < end; index++) {
+            char ch = text.charAt(index);
+            if (ch == '.' && fraction < 0) {
+                fraction = 0;
+                continue;
+            }
+            cents = cents * 10 + digit(ch, fraction, index - start);
+            if (fraction >= 0) {
+                fraction++;
+            }
+        }
+        return scaleCents(cents, fraction);
+    }
+
+    private static long parseCents(byte[] ascii, int start, int end) {
+        if (start >= end) {
+            throw new IllegalArgumentException("가격이 비어 있습니다.");
+        }
+        long cents = 0;
+        int fraction = -1;
+        for (int index = start; index < end; index++) {
+            char ch = (char) (ascii[index] & 0xff);
+            if (ch == '.' && fraction < 0) {
+                fraction = 0;
+                continue;
+            }
+            cents = cents * 10 + digit(ch, fraction, index - start);
+            if (fraction >= 0) {
+                fraction++;
+            }
+        }
+        return scaleCents(cents, fraction);
+    }
+
+    private static int digit(char ch, int fraction, int position) {
+        if (ch < '0' || ch > '9' || fraction >= 2) {
+            throw new IllegalArgumentException("가격 형식이 아닙니다. ( " + position + " 번째 '" + ch + "' )");
+        }
+        return ch - '0';
+    }
+
+    private static long scaleCents(long cents, int fraction) {
+        return fraction <= 0 ? cents * 100 : fraction == 1 ? cents * 10 : cents;
+    }
+
+    public static DiscountService.Code parseCode(CharSequence text, int start, int end) {
+        for (DiscountService.Code code : CODES) {
+            String name = code.name();
+            if (name.length() == end - start && regionMatches(text, start, name)) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("할인코드가 아닙니다 : " + text.subSequence(start, end));
+    }
+
+    private static DiscountService.Code parseCode(byte[] ascii, int start, int end) {
+        for (DiscountService.Code code : CODES) {
+            String name = code.name();
+            if (name.length() == end - start && regionMatches(ascii, start, name)) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("할인코드가 아닙니다 : " + new String(ascii, start, end - start, StandardCharsets.ISO_8859_1));
+    }
+
+    // 할인율 적용 ( 소수 셋째 자리 반올림 )
+    public static long applyDiscountCents(long priceCents, DiscountService.Code code) {
+        return (priceCents * (100 - code.getPercentage()) + 50) / 100;
+    }
+
+    // "12345" 센트 -> "123.45"
+    public static StringBuilder appendCents(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        long remainder = cents % 100;
+        out.append(cents / 100).append('.');
+        if (remainder < 10) {
+            out.append('0');
+        }
+        return out.append(remainder);
+    }
+
+    // "상점이름:가격:할인코드" ( Shop.getPrice 가 돌려주는 모양 )
+    public static StringBuilder appendQuote(StringBuilder out, CharSequence shopName, long priceCents, DiscountService.Code code) {
+        out.append(shopName).append(':');
+        return appendCents(out, priceCents).append(':').append(code.name());
+    }
+
+    // "상점이름 price is 가격" ( 할인 적용 후 )
+    public static StringBuilder appendDiscounted(StringBuilder out, QuoteView quote) {
+        quote.appendName(out).append(" price is ");
+        return appendCents(out, applyDiscountCents(quote.priceCents(), quote.discountCode()));
+    }
+
+    private static int indexOf(CharSequence text, char target, int from, int to) {
+        for (int index = from; index < to; index++) {
+            if (text.charAt(index) == target) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] bytes, byte target, int from, int to) {
+        for (int index = from; index < to; index++) {
+            if (bytes[index] == target) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(CharSequence text, int start, String name) {
+        for (int index = 0; index < name.length(); index++) {
+            if (text.charAt(start + index) != name.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionMatches(byte[] bytes, int start, String name) {
+        for (int index = 0; index < name.length(); index++) {
+            if (bytes[start + index] != name.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package threadtest.shop;
+
+import java.nio.charset.StandardCharsets;
+
+/*
+ * 파싱한 견적을 객체 생성 없이 담아두는 재사용 그릇 ( QuoteCodec.parse 결과 )
+ *  상점 이름은 새 String 을 만들지 않고 원본 안의 위치( nameStart ~ nameEnd ) 만 기억한다.
+ *  원본은 CharSequence 또는 ASCII byte[] 중 하나 ( 다음 parse 호출 전까지만 유효 )
+ */
+public final class QuoteView {
+
+    CharSequence text;
+    byte[] bytes;
+    int nameStart;
+    int nameEnd;
+    long priceCents;
+    DiscountService.Code discountCode;
+
+    public long priceCents() {
+        return priceCents;
+    }
+
+    public DiscountService.Code discountCode() {
+        return discountCode;
+    }
+
+    public int nameLength() {
+        return nameEnd - nameStart;
+    }
+
+    public char nameCharAt(int index) {
+        return text != null ? text.charAt(nameStart + index) : (char) (bytes[nameStart + index] & 0xff);
+    }
+
+    public StringBuilder appendName(StringBuilder out) {
+        if (text != null) {
+            return out.append(text, nameStart, nameEnd);
+        }
+        for (int index = nameStart; index < nameEnd; index++) {
+            out.append((char) (bytes[index] & 0xff));
+        }
+        return out;
+    }
+
+    // 상점 이름 String 을 만든다. ( 여기서만 할당 )
+    public Quote toQuote() {
+        String shopName = text != null ? text.subSequence(nameStart, nameEnd).toString() : new String(bytes, nameStart, nameLength(), StandardCharsets.ISO_8859_1);
+        return new Quote(shopName, priceCents, discountCode);
+    }
+}
@@ -0,0 +1,43 @@
+package threadtest.shop;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * 가짜 상점 ( findPrices 예제의 shop.getPrice )
+ *  latency 만큼 기다린 뒤 "상점이름:가격:할인코드" 문자열을 돌려준다.
+ *  가격과 할인코드는 상점 이름 + 상품으로 정해서 같은 조회는 항상 같은 값을 준다.
+ */
+public class Shop {
+
+    private static final DiscountService.Code[] CODES = DiscountService.Code.values();
+
+    private final String name;
+    private final Latency latency;
+
+    public Shop(String name, Latency latency) {
+        this.name = name;
+        this.latency = latency;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPrice(String product) {
+        latency.sleep();
+        int seed = (name + product).hashCode();
+        long priceCents = 10_000 + Math.floorMod(seed, 10_000);
+        DiscountService.Code code = CODES[Math.floorMod(seed >>> 7, CODES.length)];
+        return QuoteCodec.appendQuote(QuoteCodec.threadLocalBuilder(), name, priceCents, code).toString();
+    }
+
+    // 측정용 : 이름이 "Shop-0" ~ "Shop-(count-1)" 인 상점 목록
+    public static List<Shop> many(int count, Latency latency) {
+        List<Shop> shops = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            shops.add(new Shop("Shop-" + index, latency));
+        }
+        return shops;
+    }
+}
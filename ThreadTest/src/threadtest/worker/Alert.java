@@ -0,0 +1,5 @@
+package threadtest.worker;
+
+// movePageAlert 1건에 해당하는 알림
+public record Alert(String userId, String message, String func, String page) {
+}
@@ -0,0 +1,153 @@
+package threadtest.worker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 알림을 한건씩 보내지 않고 묶어서 보낸다.
+ *
+ *  add() 로 들어온 알림은 큐에 쌓이고, 전용 쓰레드 하나가
+ *   - maxBatchSize 개가 모이거나
+ *   - 첫 알림이 들어온 뒤 lingerMillis 가 지나면
+ *  그때까지 모인 알림을 BatchSmartCaller.movePageAlerts 로 한번에 보낸다. ( 실제 전송은 sendExecutor 에서 )
+ *
+ *  add() 가 돌려주는 CompletableFuture 는 그 알림이 포함된 묶음이 전송되면 완료된다.
+ *  close() 를 호출하면 남은 알림을 모두 보낸 뒤 전용 쓰레드를 종료한다.
+ *   ( sendExecutor 로 넘긴 묶음 전송이 끝날 때까지 기다린 뒤 돌아오므로 close() 다음에 풀을 닫아도 된다 )
+ */
+public class AlertBatcher implements AutoCloseable {
+
+    private record Pending(Alert alert, CompletableFuture<Void> future) {
+    }
+
+    private final BatchSmartCaller smartCaller;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final Executor sendExecutor;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+    // sendExecutor 에서 아직 전송 중인 묶음
+    private final Set<CompletableFuture<Void>> inFlight = ConcurrentHashMap.newKeySet();
+    private boolean closed;
+
+    public AlertBatcher(BatchSmartCaller smartCaller, int maxBatchSize, long lingerMillis, Executor sendExecutor) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize 는 1 이상이어야 합니다. : " + maxBatchSize);
+        }
+        this.smartCaller = smartCaller;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.sendExecutor = sendExecutor;
+        this.dispatcher = new Thread(this::dispatchLoop, "alert-batcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public CompletableFuture<Void> add(Alert alert) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                future.completeExceptionally(new IllegalStateException("AlertBatcher 가 이미 닫혔습니다."));
+                return future;
+            }
+            queue.add(new Pending(alert, future));
+        }
+        return future;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            closed = true;
+        }
+        dispatcher.join();
+        for (CompletableFuture<Void> sending : inFlight) {
+            try {
+                sending.get();
+            } catch (ExecutionException e) {
+                // sending 은 실패로 끝나지 않는다. ( 전송 실패는 알림마다의 future 로 전달 )
+            }
+        }
+    }
+
+    private boolean isClosed() {
+        synchronized (this) {
+            return closed;
+        }
+    }
+
+    private void dispatchLoop() {
+        try {
+            while (!isClosed() || !queue.isEmpty()) {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Pending> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    // 이미 큐에 쌓여 있는 것은 기다리지 않고 바로 가져온다.
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                dispatch(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Pending pending;
+            while ((pending = queue.poll()) != null) {
+                pending.future().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void dispatch(List<Pending> batch) {
+        CompletableFuture<Void> sending = new CompletableFuture<>();
+        inFlight.add(sending);
+        Runnable send = () -> {
+            List<Alert> alerts = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                alerts.add(pending.alert());
+            }
+            try {
+                smartCaller.movePageAlerts(alerts);
+                for (Pending pending : batch) {
+                    pending.future().complete(null);
+                }
+            } catch (Exception e) {
+                for (Pending pending : batch) {
+                    pending.future().completeExceptionally(e);
+                }
+            } finally {
+                inFlight.remove(sending);
+                sending.complete(null);
+            }
+        };
+        try {
+            sendExecutor.execute(send);
+        } catch (RejectedExecutionException e) {
+            // 풀이 이미 닫혔다면 전용 쓰레드에서 직접 보낸다.
+            send.run();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package threadtest.worker;
+
+import java.util.List;
+
+/*
+ * 여러 건의 알림을 원격 호출 한번에 보낼 수 있는 ISmartCaller
+ *  AlertBatcher 가 모은 알림 묶음을 이 메서드로 보낸다.
+ */
+public interface BatchSmartCaller extends ISmartCaller {
+
+    void movePageAlerts(List<Alert> alerts) throws Exception;
+}
@@ -0,0 +1,78 @@
+package threadtest.worker;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * 몰리면 느려지다가 타임아웃이 나는 가짜 알림 서비스 ( 측정용 )
+ *  동시 호출이 capacity 이하면 latencyMicros 만에 성공한다.
+ *  넘으면 응답 시간이 latency x (동시 호출 수 / capacity)^2 로 늘어나고 ( 서비스 안의 줄 + 경합 )
+ *  그 값이 timeoutMicros 를 넘으면 timeoutMicros 만큼 기다린 뒤 IOException ( 호출한 쪽 타임아웃 ) 으로 끝난다.
+ *  capacity 는 실행 중에 바꿀 수 있다. ( 서비스가 도중에 느려지는 상황 )
+ */
+public class DegradingSmartCaller implements ISmartCaller {
+
+    private final long latencyMicros;
+    private final long timeoutMicros;
+    private volatile int capacity;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public DegradingSmartCaller(int capacity, long latencyMicros, long timeoutMicros) {
+        this.capacity = capacity;
+        this.latencyMicros = latencyMicros;
+        this.timeoutMicros = timeoutMicros;
+    }
+
+    @Override
+    public void movePageAlert(String userId, String message, String func, String page) throws IOException {
+        calls.increment();
+        int concurrent = inFlight.incrementAndGet();
+        try {
+            double overload = Math.max(1.0, (double) concurrent / capacity);
+            long micros = (long) (latencyMicros * overload * overload);
+            if (micros > timeoutMicros) {
+                pause(timeoutMicros);
+                timedOut.increment();
+                throw new IOException("movePageAlert 타임아웃 ( 동시 호출 " + concurrent + " / " + capacity + " )");
+            }
+            pause(micros);
+            succeeded.increment();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void AlertStart() {
+    }
+
+    // parkNanos 는 남아있던 unpark 허가 때문에 일찍 돌아올 수 있으므로 정해진 시각까지 다시 멈춘다.
+    private static void pause(long micros) {
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(micros);
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getSucceededCount() {
+        return succeeded.sum();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+}
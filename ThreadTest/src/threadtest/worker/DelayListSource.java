@@ -0,0 +1,14 @@
+package threadtest.worker;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ * 지연 문서 목록을 페이지 단위로 조회하는 데이터 소스
+ *  XFDeliveryDelayListManager 의 searchListAboutFail / Resend / NotSend 가 목록 전체를 한번에 돌려주는 것과 달리
+ *  offset 부터 pageSize 개만 돌려준다. pageSize 보다 적게 오면 마지막 페이지이다.
+ */
+public interface DelayListSource {
+
+    List<Map<String, Object>> searchPage(int offset, int pageSize) throws Exception;
+}
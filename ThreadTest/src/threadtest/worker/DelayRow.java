@@ -0,0 +1,38 @@
+package threadtest.worker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/*
+ * 지연 문서 한 행 ( HashMap<String, Object> 대신 사용하는 타입 )
+ *  HashMap 행은 행마다 테이블 배열 + Entry 5개를 만들고 map.get("user_id") 마다 문자열 해시 / equals 를 한다.
+ *  record 는 필드 5개짜리 객체 하나뿐이고 값은 필드 접근으로 바로 읽는다.
+ *
+ *  조회 메서드는 여전히 List<Map<String, Object>> 를 돌려주므로 from / fromMaps / typed 로 한번만 변환한다.
+ */
+public record DelayRow(String docid, String userId, String userKid, String userName, String title) {
+
+    public static DelayRow from(Map<String, Object> map) {
+        return new DelayRow(
+                (String) map.get("docid"),
+                (String) map.get("user_id"),
+                (String) map.get("user_kid"),
+                (String) map.get("user_name"),
+                (String) map.get("title"));
+    }
+
+    public static List<DelayRow> fromMaps(List<Map<String, Object>> list) {
+        List<DelayRow> rows = new ArrayList<>(list.size());
+        for (Map<String, Object> map : list) {
+            rows.add(from(map));
+        }
+        return rows;
+    }
+
+    // searchListAboutFail 같은 조회 메서드를 DelayRow 목록을 돌려주는 메서드로 감싼다.
+    public static Callable<List<DelayRow>> typed(Callable<List<Map<String, Object>>> searchMethod) {
+        return () -> fromMaps(searchMethod.call());
+    }
+}
@@ -0,0 +1,140 @@
+package threadtest.worker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import threadtest.journal.SentJournal;
+
+/*
+ * XFDeliveryDelayListWorker 의 알림 전송 부분
+ *  sendAlertsAsync   : 주석 예제 그대로. 행(row) 하나마다 runAsync + movePageAlert 원격 호출 1번
+ *  sendAlertsBatched : AlertBatcher 로 모아서 묶음 단위로 원격 호출
+ *  sendRowAlertsBatched : sendAlertsBatched 와 같지만 HashMap 대신 DelayRow 행을 받는다.
+ *  sendAlertsJournaled : sendAlertsAsync 와 같지만 보낸 ( 목록, user_id, docid ) 를 SentJournal 에 남기고, 이미 보낸 것은 건너뛴다.
+ *      ( 중간에 죽은 실행을 다시 돌리면 남은 것만 보낸다. 보낸 직후 기록 전에 죽은 건은 한번 더 나갈 수 있다 )
+ */
+public final class DeliveryDelayAlerts {
+
+    private static final Logger _logger = Logger.getLogger("batch");
+
+    private DeliveryDelayAlerts() {
+    }
+
+    public static CompletableFuture<Void> sendAlertsAsync(List<Map<String, Object>> list, String message, ISmartCaller smartCaller, ExecutorService executorService) {
+        List<CompletableFuture<Void>> futures = list.stream().map(map -> CompletableFuture.runAsync(() -> {
+            String userId = (String) map.get("user_id");
+            String title = (String) map.get("title");
+            try {
+                if (userId != null) {
+                    smartCaller.movePageAlert(userId, "[" + truncateSize(title) + "] " + message, ISmartCaller.XFALERT_OPEN_PAGE_FUNC, "sancsendcomp");
+                } else {
+                    logMissingUser(map);
+                }
+            } catch (Exception e) {
+                _logger.severe("XFDeliveryDelayListWorker 작업중 에러가 발생함");
+                _logger.severe(e.getMessage());
+            }
+        }, executorService)).collect(Collectors.toList());
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    // 저널 기록은 ( kind, user_id, docid ) 단위. 메시지는 kind 의 메시지를 쓴다.
+    public static CompletableFuture<Void> sendAlertsJournaled(List<Map<String, Object>> list, UserAlertDigest.Kind kind, ISmartCaller smartCaller,
+            ExecutorService executorService, SentJournal journal) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(list.size());
+        int skipped = 0;
+        for (Map<String, Object> map : list) {
+            String userId = (String) map.get("user_id");
+            String docid = (String) map.get("docid");
+            if (userId != null && docid != null && journal.contains(kind.name(), userId, docid)) {
+                skipped++;
+                continue;
+            }
+            futures.add(CompletableFuture.runAsync(() -> {
+                String title = (String) map.get("title");
+                try {
+                    if (userId != null) {
+                        smartCaller.movePageAlert(userId, "[" + truncateSize(title) + "] " + kind.getMessage(), ISmartCaller.XFALERT_OPEN_PAGE_FUNC, "sancsendcomp");
+                        if (docid != null) {
+                            journal.markSent(kind.name(), userId, docid);
+                        }
+                    } else {
+                        logMissingUser(map);
+                    }
+                } catch (Exception e) {
+                    _logger.severe("XFDeliveryDelayListWorker 작업중 에러가 발생함");
+                    _logger.severe(e.getMessage());
+                }
+            }, executorService));
+        }
+        if (skipped > 0) {
+            _logger.info("XFDeliveryDelayListWorker 이전 실행에서 이미 보낸 " + skipped + "건은 건너뜁니다.");
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    public static CompletableFuture<Void> sendAlertsBatched(List<Map<String, Object>> list, String message, AlertBatcher batcher) {
+        List<CompletableFuture<Void>> futures = list.stream().map(map -> {
+            String userId = (String) map.get("user_id");
+            String title = (String) map.get("title");
+            if (userId == null) {
+                logMissingUser(map);
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            Alert alert = new Alert(userId, "[" + truncateSize(title) + "] " + message, ISmartCaller.XFALERT_OPEN_PAGE_FUNC, "sancsendcomp");
+            return batcher.add(alert).exceptionally(e -> {
+                _logger.severe("XFDeliveryDelayListWorker 작업중 에러가 발생함");
+                _logger.severe(e.getMessage());
+                return null;
+            });
+        }).collect(Collectors.toList());
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    public static CompletableFuture<Void> sendRowAlertsBatched(List<DelayRow> rows, String message, AlertBatcher batcher) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(rows.size());
+        for (DelayRow row : rows) {
+            if (row.userId() == null) {
+                logMissingUser(row.docid(), row.userKid(), row.userName());
+                continue;
+            }
+            Alert alert = new Alert(row.userId(), "[" + truncateSize(row.title()) + "] " + message, ISmartCaller.XFALERT_OPEN_PAGE_FUNC, "sancsendcomp");
+            futures.add(batcher.add(alert).exceptionally(e -> {
+                _logger.severe("XFDeliveryDelayListWorker 작업중 에러가 발생함");
+                _logger.severe(e.getMessage());
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    static void logMissingUser(Map<String, Object> map) {
+        logMissingUser((String) map.get("docid"), (String) map.get("user_kid"), (String) map.get("user_name"));
+    }
+
+    private static void logMissingUser(String docid, String userKid, String userName) {
+        _logger.info("XFDeliveryDelayListWorker 작업중 userId 값이 존재하지 않는 부분이 존재함");
+        _logger.info("===========info==============");
+        _logger.info(docid + "/" + userKid + "/" + userName);
+        _logger.info("===========end===============");
+    }
+
+    public static String truncateSize(String s) {
+        int limitSize = 10;
+
+        if (s == null) {
+            return "";
+        }
+
+        if (s.length() < limitSize) {
+            return s;
+        } else {
+            return s.substring(0, limitSize) + "...";
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package threadtest.worker;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.logging.Logger;
+
+import threadtest.journal.SentJournal;
+import threadtest.schedule.Job;
+import threadtest.schedule.JobContext;
+
+/*
+ * XFDeliveryDelayListWorker.main 의 본문을 JobScheduler 에 등록할 수 있는 Job 으로 옮긴 것
+ *  풀 생성 / 락 / 풀 종료는 스케줄러가 맡고, 여기서는 조회 -> 알림 -> AlertStart 만 한다.
+ *  조회는 DeliveryDelaySearch.searchAll ( 하나가 실패하면 나머지를 취소하고 이번 실행을 실패로 끝냄 ),
+ *  알림은 세 목록을 UserAlertDigest 로 사용자별로 합쳐서 사용자마다 1건씩 스케줄러의 작업 풀로 보낸다.
+ *  journalDirectory 를 주면 날짜별 SentJournal ( XFDeliveryDelayListWorker-yyyy-MM-dd.journal ) 에 보낸 문서를 남긴다.
+ *   - 같은 날 도중에 죽은 실행을 다시 돌리면 이미 보낸 ( 목록, user_id, docid ) 는 빼고 보낸다.
+ *   - 실행이 끝까지 돌면 ( AlertStart 까지 ) 저널을 비워서 다음 실행은 처음부터 보낸다.
+ *   - 다른 날짜의 저널은 그날 실행이 끝나지 못하고 남은 것이라 지운다. ( 조회는 매번 새로 하므로 이어서 보낼 필요 없음 )
+ */
+public class DeliveryDelayJob implements Job {
+
+    private static final Logger _logger = Logger.getLogger("batch");
+
+    public static final String FAIL_MESSAGE = "3일이 지난 발송 실패 문서들이 존재합니다. 확인 바랍니다.";
+    public static final String RESEND_MESSAGE = "3일이 지난 재발송 요청 문서들이 존재합니다. 확인 바랍니다.";
+    public static final String NOT_SEND_MESSAGE = "3일이 지난 미수신 문서들이 존재합니다. 확인 바랍니다.";
+    static final String JOURNAL_PREFIX = "XFDeliveryDelayListWorker-";
+
+    private final Map<String, Callable<List<Map<String, Object>>>> searches = new LinkedHashMap<>();
+    private final Map<String, UserAlertDigest.Kind> kinds = new LinkedHashMap<>();
+    private final ISmartCaller smartCaller;
+    // 저널을 쓰지 않으면 null
+    private final Path journalDirectory;
+
+    // 예 : new DeliveryDelayJob(manager::searchListAboutFail, manager::searchListAboutResend, manager::searchListAboutNotSend, smartCaller)
+    public DeliveryDelayJob(Callable<List<Map<String, Object>>> searchListAboutFail, Callable<List<Map<String, Object>>> searchListAboutResend,
+            Callable<List<Map<String, Object>>> searchListAboutNotSend, ISmartCaller smartCaller) {
+        this(searchListAboutFail, searchListAboutResend, searchListAboutNotSend, smartCaller, null);
+    }
+
+    public DeliveryDelayJob(Callable<List<Map<String, Object>>> searchListAboutFail, Callable<List<Map<String, Object>>> searchListAboutResend,
+            Callable<List<Map<String, Object>>> searchListAboutNotSend, ISmartCaller smartCaller, Path journalDirectory) {
+        this.smartCaller = smartCaller;
+        this.journalDirectory = journalDirectory;
+        add("fail list", searchListAboutFail, UserAlertDigest.Kind.FAIL);
+        add("resend list", searchListAboutResend, UserAlertDigest.Kind.RESEND);
+        add("not send list", searchListAboutNotSend, UserAlertDigest.Kind.NOT_SEND);
+    }
+
+    private void add(String methodName, Callable<List<Map<String, Object>>> searchMethod, UserAlertDigest.Kind kind) {
+        searches.put(methodName, searchMethod);
+        kinds.put(methodName, kind);
+    }
+
+    @Override
+    public void run(JobContext context) throws Exception {
+        _logger.info("XFDeliveryDelayListWorker 작업을 시작 합니다. ( " + context.runNumber() + " 번째 )");
+        Map<String, List<Map<String, Object>>> results = DeliveryDelaySearch.searchAll(searches, context.executor());
+        if (results.values().stream().allMatch(List::isEmpty)) {
+            _logger.info("XFDeliveryDelayListWorker 작업을 종료합니다.( 보낼 리스트 존재하지 않음 )");
+            return;
+        }
+        Map<UserAlertDigest.Kind, List<Map<String, Object>>> lists = new EnumMap<>(UserAlertDigest.Kind.class);
+        results.forEach((methodName, list) -> lists.put(kinds.get(methodName), list));
+        SentJournal journal = journalDirectory == null ? null : openJournal(LocalDate.now());
+        try {
+            // 모든 알림 전송 완료 대기
+            UserAlertDigest.sendDigestsAsync(UserAlertDigest.group(lists, journal), smartCaller, context.executor(), journal).join();
+
+            smartCaller.AlertStart();
+            if (journal != null) {
+                journal.reset();
+            }
+        } finally {
+            if (journal != null) {
+                journal.close();
+            }
+        }
+        _logger.info("XFDeliveryDelayListWorker 작업을 종료합니다.");
+    }
+
+    public static Path journalFile(Path journalDirectory, LocalDate date) {
+        return journalDirectory.resolve(JOURNAL_PREFIX + date + ".journal");
+    }
+
+    private SentJournal openJournal(LocalDate date) throws IOException {
+        Files.createDirectories(journalDirectory);
+        Path file = journalFile(journalDirectory, date);
+        try (DirectoryStream<Path> journals = Files.newDirectoryStream(journalDirectory, JOURNAL_PREFIX + "*.journal")) {
+            for (Path old : journals) {
+                if (!old.equals(file)) {
+                    _logger.info("XFDeliveryDelayListWorker 지난 저널을 지웁니다. ( " + old.getFileName() + " )");
+                    Files.deleteIfExists(old);
+                }
+            }
+        }
+        SentJournal journal = new SentJournal(file);
+        if (journal.getRecoveredCount() > 0) {
+            _logger.info("XFDeliveryDelayListWorker 끝나지 못한 실행을 이어서 보냅니다. ( 이미 보낸 " + journal.getRecoveredCount() + "건 )");
+        }
+        return journal;
+    }
+}
@@ -0,0 +1,133 @@
+package threadtest.worker;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import threadtest.async.TaskScope;
+
+/*
+ * XFDeliveryDelayListWorker 의 조회 부분
+ *  runSearchAsync    : 주석 예제 그대로. 목록 전체를 List 로 받은 뒤에야 알림을 보낼 수 있다.
+ *  searchAll         : fail / resend / notSend 조회를 TaskScope 로 묶는다. 하나가 실패하면 나머지를 취소하고
+ *      어느 조회가 왜 실패했는지 ExecutionException 으로 올린다. ( allOf + exceptionally 처럼 빈 목록으로 삼키지 않음 )
+ *  pages             : DelayListSource 를 페이지 단위로 읽는 지연(lazy) Stream
+ *  streamAlertsAsync : 페이지를 읽는 대로 알림을 보낸다.
+ *      페이지 N 을 보내는 동안 N+1 을 미리 조회하므로 메모리에는 최대 2 페이지만 올라간다.
+ *      첫 알림은 첫 페이지 조회가 끝나자마자 나간다.
+ */
+public final class DeliveryDelaySearch {
+
+    private static final Logger _logger = Logger.getLogger("batch");
+
+    private DeliveryDelaySearch() {
+    }
+
+    public static CompletableFuture<List<Map<String, Object>>> runSearchAsync(Callable<List<Map<String, Object>>> searchMethod, ExecutorService executorService, String methodName) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return searchMethod.call();
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to fetch " + methodName + ": SQL Error - " + e.getMessage(), e);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to fetch " + methodName + ": Unexpected error - " + e.getMessage(), e);
+            }
+        }, executorService).exceptionally(throwable -> {
+            _logger.severe(throwable.getMessage());
+            return new ArrayList<>();
+        });
+    }
+
+    // searches : 조회 이름 -> 조회 메소드 ( 예: "fail list" -> manager::searchListAboutFail ). 결과도 같은 이름, 같은 순서
+    public static Map<String, List<Map<String, Object>>> searchAll(Map<String, Callable<List<Map<String, Object>>>> searches, Executor executor)
+            throws InterruptedException, ExecutionException {
+        try (TaskScope.ShutdownOnFailure scope = TaskScope.shutdownOnFailure(executor)) {
+            Map<String, TaskScope.Subtask<List<Map<String, Object>>>> subtasks = new LinkedHashMap<>();
+            searches.forEach((methodName, searchMethod) -> subtasks.put(methodName, scope.fork(methodName, searchMethod)));
+            scope.join().throwIfFailed();
+
+            Map<String, List<Map<String, Object>>> results = new LinkedHashMap<>();
+            subtasks.forEach((methodName, subtask) -> results.put(methodName, subtask.result()));
+            return results;
+        }
+    }
+
+    public static Stream<List<Map<String, Object>>> pages(DelayListSource source, int pageSize) {
+        Iterator<List<Map<String, Object>>> iterator = new Iterator<List<Map<String, Object>>>() {
+            int offset = 0;
+            List<Map<String, Object>> next;
+            boolean last;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !last) {
+                    next = fetch(source, offset, pageSize);
+                    offset += next.size();
+                    last = next.size() < pageSize;
+                    if (next.isEmpty()) {
+                        next = null;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public List<Map<String, Object>> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<Map<String, Object>> page = next;
+                next = null;
+                return page;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // sendPage : 페이지 하나를 보내는 함수 ( 예: page -> DeliveryDelayAlerts.sendAlertsBatched(page, message, batcher) )
+    // 완료되면 전체 행 수를 돌려준다.
+    public static CompletableFuture<Long> streamAlertsAsync(DelayListSource source, int pageSize, Function<List<Map<String, Object>>, CompletableFuture<Void>> sendPage, ExecutorService executorService) {
+        return nextPage(source, pageSize, sendPage, executorService, 0, CompletableFuture.completedFuture(null), 0L);
+    }
+
+    private static CompletableFuture<Long> nextPage(DelayListSource source, int pageSize, Function<List<Map<String, Object>>, CompletableFuture<Void>> sendPage,
+            ExecutorService executorService, int offset, CompletableFuture<Void> previousSend, long count) {
+        CompletableFuture<List<Map<String, Object>>> fetch = CompletableFuture.supplyAsync(() -> fetch(source, offset, pageSize), executorService);
+        // 이전 페이지 전송이 끝나야 이번 페이지 전송을 시작한다. ( 그 사이에 다음 페이지 조회는 이미 진행됨 )
+        return fetch.thenCombine(previousSend, (page, ignore) -> page).thenCompose(page -> {
+            if (page.isEmpty()) {
+                return CompletableFuture.completedFuture(count);
+            }
+            CompletableFuture<Void> send = sendPage.apply(page);
+            long sent = count + page.size();
+            if (page.size() < pageSize) {
+                return send.thenApply(ignore -> sent);
+            }
+            return nextPage(source, pageSize, sendPage, executorService, offset + page.size(), send, sent);
+        });
+    }
+
+    private static List<Map<String, Object>> fetch(DelayListSource source, int offset, int pageSize) {
+        try {
+            return source.searchPage(offset, pageSize);
+        } catch (Exception e) {
+            throw new CompletionException("Failed to fetch page offset " + offset + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package threadtest.worker;
+
+/*
+ * ThreadTest.java 주석의 XFDeliveryDelayListWorker 가 사용하는 알림 전송 인터페이스
+ *  원래 구현(SmartCaller)은 이 저장소에 없으므로 예제에서 쓰는 메서드만 옮겨 왔다.
+ */
+public interface ISmartCaller {
+
+    String XFALERT_OPEN_PAGE_FUNC = "XFALERT_OPEN_PAGE";
+
+    // 사용자 한명에게 페이지 이동 알림 1건을 보낸다. ( 원격 호출 1번 )
+    void movePageAlert(String userId, String message, String func, String page) throws Exception;
+
+    // 쌓아둔 알림 발송을 시작한다.
+    void AlertStart() throws Exception;
+}
@@ -0,0 +1,53 @@
+package threadtest.worker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * 테스트 / 측정용 가짜 데이터 소스
+ *  DB 대신 요청받은 범위의 행만 그때그때 만들어서 돌려준다. ( 전체 목록을 미리 들고 있지 않음 )
+ *  pageLatencyMillis 로 조회 1번의 지연 시간을 흉내낸다.
+ */
+public class InMemoryDelayListSource implements DelayListSource {
+
+    private final String prefix;
+    private final int totalCount;
+    private final int userCount;
+    private final long pageLatencyMillis;
+
+    public InMemoryDelayListSource(String prefix, int totalCount, int userCount, long pageLatencyMillis) {
+        this.prefix = prefix;
+        this.totalCount = totalCount;
+        this.userCount = userCount;
+        this.pageLatencyMillis = pageLatencyMillis;
+    }
+
+    @Override
+    public List<Map<String, Object>> searchPage(int offset, int pageSize) throws InterruptedException {
+        Thread.sleep(pageLatencyMillis);
+        int end = Math.min(totalCount, offset + pageSize);
+        List<Map<String, Object>> page = new ArrayList<>(Math.max(0, end - offset));
+        for (int index = offset; index < end; index++) {
+            page.add(row(index));
+        }
+        return page;
+    }
+
+    // 기존 방식처럼 목록 전체를 한번에 조회 ( searchListAboutFail 등과 같은 모양 )
+    public List<Map<String, Object>> searchAll() throws InterruptedException {
+        return searchPage(0, totalCount);
+    }
+
+    private Map<String, Object> row(int index) {
+        int user = index % userCount;
+        Map<String, Object> row = new HashMap<>();
+        row.put("docid", prefix + "-DOC" + index);
+        row.put("user_id", "user" + user);
+        row.put("user_kid", "K" + user);
+        row.put("user_name", "사용자" + user);
+        row.put("title", prefix + " 지연 문서 제목 " + index);
+        return row;
+    }
+}
@@ -0,0 +1,104 @@
+package threadtest.worker;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import threadtest.limit.AimdLimiter;
+import threadtest.limit.Backoff;
+import threadtest.limit.TokenBucket;
+
+/*
+ * movePageAlert 앞에 호출 제한을 두는 ISmartCaller
+ *
+ *  sendAlertsAsync 는 풀 쓰레드 수 ( 10 ) 만큼 알림 서비스를 두드린다. 서비스가 느려져도 그대로 보내므로
+ *  줄이 길어지고 -> 더 느려지고 -> 타임아웃이 나고 -> 실패는 catch 에서 로그만 남기는 식으로 처리량이 무너진다.
+ *  호출마다
+ *   1. TokenBucket  : 초당 호출 수 상한 ( 서비스와 약속한 값 )
+ *   2. AimdLimiter  : 응답 시간 / 실패로 조절되는 동시 호출 수 상한
+ *   3. 실패하면 Backoff 만큼 ( 무작위 ) 쉬고 다시 보낸다. 다시 보낼 때도 1, 2 를 다시 거친다.
+ *  마지막 시도까지 실패하면 마지막 예외를 그대로 던진다. ( sendAlertsAsync 의 catch 가 로그를 남김 )
+ */
+public class LimitedSmartCaller implements ISmartCaller {
+
+    private static final Logger _logger = Logger.getLogger("batch");
+
+    private final ISmartCaller delegate;
+    private final TokenBucket tokenBucket;
+    private final AimdLimiter limiter;
+    private final Backoff backoff;
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    public LimitedSmartCaller(ISmartCaller delegate, TokenBucket tokenBucket, AimdLimiter limiter, Backoff backoff) {
+        this.delegate = delegate;
+        this.tokenBucket = tokenBucket;
+        this.limiter = limiter;
+        this.backoff = backoff;
+    }
+
+    @Override
+    public void movePageAlert(String userId, String message, String func, String page) throws Exception {
+        for (int attempt = 1;; attempt++) {
+            tokenBucket.acquire();
+            AimdLimiter.Permit permit = limiter.acquire();
+            boolean sent = false;
+            Exception failure = null;
+            try {
+                delegate.movePageAlert(userId, message, func, page);
+                sent = true;
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                // Error 로 빠져나가도 자리는 돌려준다. ( 서비스 상태와 상관없는 실패는 limit 을 건드리지 않음 )
+                if (sent) {
+                    permit.success();
+                } else if (failure == null || failure instanceof InterruptedException) {
+                    permit.ignore();
+                } else {
+                    permit.dropped();
+                }
+            }
+            if (sent) {
+                succeeded.increment();
+                return;
+            }
+            if (failure instanceof InterruptedException) {
+                throw failure;
+            }
+            if (attempt >= backoff.getMaxAttempts()) {
+                failed.increment();
+                throw failure;
+            }
+            retries.increment();
+            _logger.fine(userId + " 알림 재시도 " + attempt + " : " + failure.getMessage());
+            backoff.sleep(attempt);
+        }
+    }
+
+    @Override
+    public void AlertStart() throws Exception {
+        delegate.AlertStart();
+    }
+
+    public long getSucceededCount() {
+        return succeeded.sum();
+    }
+
+    // 재시도까지 모두 실패한 알림 수
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    public AimdLimiter getLimiter() {
+        return limiter;
+    }
+
+    public TokenBucket getTokenBucket() {
+        return tokenBucket;
+    }
+}
@@ -0,0 +1,60 @@
+package threadtest.worker;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * 로컬에서 측정하기 위한 가짜 SmartCaller
+ *  - 원격 호출 1번마다 callLatencyMicros 만큼, 알림 1건마다 perAlertMicros 만큼 걸린다고 가정하고 멈춘다.
+ *  - 호출 수와 보낸 알림 수, 첫 호출 시각을 기록한다.
+ */
+public class StubSmartCaller implements BatchSmartCaller {
+
+    private final long callLatencyMicros;
+    private final long perAlertMicros;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong alerts = new AtomicLong();
+    private final AtomicLong firstCallNanos = new AtomicLong();
+
+    public StubSmartCaller(long callLatencyMicros, long perAlertMicros) {
+        this.callLatencyMicros = callLatencyMicros;
+        this.perAlertMicros = perAlertMicros;
+    }
+
+    @Override
+    public void movePageAlert(String userId, String message, String func, String page) {
+        remoteCall(1);
+    }
+
+    @Override
+    public void movePageAlerts(List<Alert> alertList) {
+        remoteCall(alertList.size());
+    }
+
+    @Override
+    public void AlertStart() {
+    }
+
+    private void remoteCall(int alertCount) {
+        if (calls.incrementAndGet() == 1) {
+            firstCallNanos.set(System.nanoTime());
+        }
+        alerts.addAndGet(alertCount);
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(callLatencyMicros + perAlertMicros * alertCount));
+    }
+
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    public long getAlertCount() {
+        return alerts.get();
+    }
+
+    // 첫 원격 호출 시각 ( System.nanoTime 기준, 호출이 없었다면 0 )
+    public long getFirstCallNanos() {
+        return firstCallNanos.get();
+    }
+}
@@ -0,0 +1,206 @@
+package threadtest.worker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Logger;
+
+import threadtest.journal.SentJournal;
+
+/*
+ * fail / resend / notSend 세 목록을 사용자별로 합쳐서 사용자 한명에게 요약 알림 1건만 보낸다.
+ *
+ *  sendAlertsAsync 를 목록마다 부르면 지연 문서가 많은 사용자는 문서 수 x 목록 수 만큼 movePageAlert 를 받는다.
+ *  group 은 세 목록을 한번씩 훑으면서 user_id -> Digest 를 HashMap 에 모은다. ( 정렬 없이 O(행 수) )
+ *   - 한 사용자에게 같은 docid 가 여러 목록에 있으면 먼저 나온 목록 ( fail -> resend -> notSend 순서 ) 에만 센다.
+ *     ( 문서 하나에 받는 사람이 여럿이면 사람마다 센다 )
+ *   - user_id 가 없는 행은 기존처럼 로그만 남긴다.
+ *  알림 제목은 truncateSize 한 문서 제목 MAX_TITLES 개 + "외 n건", 본문은 목록별 건수
+ *  ( 문서가 1건뿐인 사용자는 기존 알림과 같은 "[제목] 메시지" 로 보낸다. )
+ *  SentJournal 을 넘기면 이미 보낸 ( 목록, user_id, docid ) 는 모을 때 빼고, 요약 알림을 보낸 뒤 그 안의 문서를 모두 기록한다.
+ *   ( 중간에 죽은 실행을 다시 돌리면 아직 못 받은 문서만 모아서 보낸다 )
+ */
+public final class UserAlertDigest {
+
+    private static final Logger _logger = Logger.getLogger("batch");
+
+    static final int MAX_TITLES = 2;
+
+    public enum Kind {
+        FAIL("발송 실패", DeliveryDelayJob.FAIL_MESSAGE),
+        RESEND("재발송 요청", DeliveryDelayJob.RESEND_MESSAGE),
+        NOT_SEND("미수신", DeliveryDelayJob.NOT_SEND_MESSAGE);
+
+        private final String label;
+        private final String message;
+
+        Kind(String label, String message) {
+            this.label = label;
+            this.message = message;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    // 사용자 한명 몫
+    public static final class Digest {
+        private final String userId;
+        private final int[] counts = new int[Kind.values().length];
+        private final List<String> titles = new ArrayList<>(MAX_TITLES);
+        private final Set<String> docids = new HashSet<>();
+        // 이 요약이 받은 행 전부 ( 중복으로 세지 않은 행 포함 ). 저널에 기록할 때 쓴다.
+        private final Map<Kind, List<String>> rows = new EnumMap<>(Kind.class);
+        private Kind firstKind;
+        private int total;
+
+        Digest(String userId) {
+            this.userId = userId;
+        }
+
+        // 이 사용자 몫으로 이미 센 docid 는 건너뛴다.
+        void add(Kind kind, String docid, String title) {
+            if (docid != null) {
+                rows.computeIfAbsent(kind, key -> new ArrayList<>()).add(docid);
+                if (!docids.add(docid)) {
+                    return;
+                }
+            }
+            if (firstKind == null) {
+                firstKind = kind;
+            }
+            counts[kind.ordinal()]++;
+            total++;
+            if (titles.size() < MAX_TITLES) {
+                titles.add(DeliveryDelayAlerts.truncateSize(title));
+            }
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getCount(Kind kind) {
+            return counts[kind.ordinal()];
+        }
+
+        // "[제목1, 제목2 외 3건] 3일이 지난 발송 실패 2건, 미수신 3건 문서들이 존재합니다. 확인 바랍니다."
+        public String message() {
+            if (total == 1) {
+                return "[" + titles.get(0) + "] " + firstKind.getMessage();
+            }
+            StringBuilder builder = new StringBuilder("[").append(String.join(", ", titles));
+            if (total > titles.size()) {
+                builder.append(" 외 ").append(total - titles.size()).append("건");
+            }
+            builder.append("] 3일이 지난 ");
+            String separator = "";
+            for (Kind kind : Kind.values()) {
+                if (counts[kind.ordinal()] > 0) {
+                    builder.append(separator).append(kind.getLabel()).append(' ').append(counts[kind.ordinal()]).append("건");
+                    separator = ", ";
+                }
+            }
+            return builder.append(" 문서들이 존재합니다. 확인 바랍니다.").toString();
+        }
+
+        public Alert toAlert() {
+            return new Alert(userId, message(), ISmartCaller.XFALERT_OPEN_PAGE_FUNC, "sancsendcomp");
+        }
+
+        // 이 요약이 받은 행을 모두 기록하고 force 는 마지막에 한번만
+        void markSent(SentJournal journal) throws IOException {
+            long position = 0L;
+            for (Map.Entry<Kind, List<String>> entry : rows.entrySet()) {
+                for (String docid : entry.getValue()) {
+                    position = journal.append(entry.getKey().name(), userId, docid);
+                }
+            }
+            journal.sync(position);
+        }
+    }
+
+    private UserAlertDigest() {
+    }
+
+    // 목록 순서대로 ( 보통 FAIL, RESEND, NOT_SEND ) 훑어서 user_id 별로 모은다. 사용자 순서는 처음 나온 순서
+    public static Map<String, Digest> group(Map<Kind, List<Map<String, Object>>> lists) {
+        return group(lists, null);
+    }
+
+    // journal 에 이미 있는 ( 목록, user_id, docid ) 는 빼고 모은다. journal 이 null 이면 group(lists) 와 같다.
+    public static Map<String, Digest> group(Map<Kind, List<Map<String, Object>>> lists, SentJournal journal) {
+        Map<String, Digest> digests = new LinkedHashMap<>();
+        int skipped = 0;
+        for (Map.Entry<Kind, List<Map<String, Object>>> entry : lists.entrySet()) {
+            for (Map<String, Object> map : entry.getValue()) {
+                String userId = (String) map.get("user_id");
+                if (userId == null) {
+                    DeliveryDelayAlerts.logMissingUser(map);
+                    continue;
+                }
+                String docid = (String) map.get("docid");
+                if (journal != null && docid != null && journal.contains(entry.getKey().name(), userId, docid)) {
+                    skipped++;
+                    continue;
+                }
+                digests.computeIfAbsent(userId, Digest::new).add(entry.getKey(), docid, (String) map.get("title"));
+            }
+        }
+        if (skipped > 0) {
+            _logger.info("XFDeliveryDelayListWorker 이전 실행에서 이미 보낸 " + skipped + "건은 건너뜁니다.");
+        }
+        return digests;
+    }
+
+    // fail / resend / notSend 목록을 받아서 사용자별 요약 알림을 보낸다. ( sendAlertsAsync 세번 대신 )
+    public static CompletableFuture<Void> sendDigestsAsync(List<Map<String, Object>> fail, List<Map<String, Object>> resend, List<Map<String, Object>> notSend,
+            ISmartCaller smartCaller, ExecutorService executorService) {
+        Map<Kind, List<Map<String, Object>>> lists = new EnumMap<>(Kind.class);
+        lists.put(Kind.FAIL, fail);
+        lists.put(Kind.RESEND, resend);
+        lists.put(Kind.NOT_SEND, notSend);
+        return sendDigestsAsync(group(lists), smartCaller, executorService);
+    }
+
+    public static CompletableFuture<Void> sendDigestsAsync(Map<String, Digest> digests, ISmartCaller smartCaller, ExecutorService executorService) {
+        return sendDigestsAsync(digests, smartCaller, executorService, null);
+    }
+
+    // journal 이 있으면 보낸 뒤 요약에 들어간 문서를 기록한다. ( 보낸 직후 기록 전에 죽으면 다음 실행에서 한번 더 나감 )
+    public static CompletableFuture<Void> sendDigestsAsync(Map<String, Digest> digests, ISmartCaller smartCaller, ExecutorService executorService,
+            SentJournal journal) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(digests.size());
+        for (Digest digest : digests.values()) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                Alert alert = digest.toAlert();
+                try {
+                    smartCaller.movePageAlert(alert.userId(), alert.message(), alert.func(), alert.page());
+                    if (journal != null) {
+                        digest.markSent(journal);
+                    }
+                } catch (Exception e) {
+                    _logger.severe("XFDeliveryDelayListWorker 작업중 에러가 발생함");
+                    _logger.severe(e.getMessage());
+                }
+            }, executorService));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+}